@@ -46,6 +46,10 @@ const BestenlisteAnzeigen = () => {
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState("");
 
+  // ✅ Live-Stand aus /api/live: Top K (userId -> Eintrag) und eigener Rang
+  const [liveTop, setLiveTop] = useState(null);
+  const [liveRank, setLiveRank] = useState(null);
+
   const fetchJsonSafe = async (res) => {
     const raw = await res.text().catch(() => "");
     try {
@@ -95,6 +99,125 @@ const BestenlisteAnzeigen = () => {
     load();
   }, [authToken, API_BASE]);
 
+  // ✅ Live-Updates per SSE statt erneutem Laden.
+  // fetch statt EventSource: nur so geht der Authorization-Header mit.
+  useEffect(() => {
+    if (!API_BASE || !authToken) return;
+
+    const controller = new AbortController();
+    let retryMs = 1000;
+    let retryTimer = null;
+
+    const applyFrame = (event, data) => {
+      if (event === "leaderboard") {
+        setLiveTop((prev) => {
+          // full = komplette Top K, sonst nur geänderte Einträge + herausgefallene userIds
+          const next = data.full || !prev ? new Map() : new Map(prev);
+          (data.entries || []).forEach((e) => next.set(e.userId, e));
+          (data.removed || []).forEach((id) => next.delete(id));
+          return next;
+        });
+      } else if (event === "rank") {
+        setLiveRank(data);
+      }
+    };
+
+    // SSE-Block: "event:<name>" + eine oder mehrere "data:"-Zeilen, Kommentare (":ping") ignorieren
+    const parseBlock = (block) => {
+      let event = "message";
+      const data = [];
+      block.split(/\r?\n/).forEach((line) => {
+        if (line.startsWith("event:")) event = line.slice(6).trim();
+        else if (line.startsWith("data:")) data.push(line.slice(5).replace(/^ /, ""));
+      });
+      if (data.length === 0) return;
+
+      try {
+        applyFrame(event, JSON.parse(data.join("\n")));
+      } catch {
+        // ignore
+      }
+    };
+
+    const connect = async () => {
+      try {
+        const res = await fetch(`${API_BASE}/api/live?window=all`, {
+          headers: {
+            Authorization: `Bearer ${authToken}`,
+            Accept: "text/event-stream",
+          },
+          signal: controller.signal,
+        });
+
+        // nicht eingeloggt / keine Berechtigung -> kein erneuter Versuch, die Liste bleibt beim geladenen Stand
+        if (res.status === 401 || res.status === 403) return;
+        if (!res.ok || !res.body) throw new Error(`HTTP ${res.status}`);
+
+        retryMs = 1000;
+        const reader = res.body.getReader();
+        const decoder = new TextDecoder();
+        let buffer = "";
+
+        for (;;) {
+          const { done, value } = await reader.read();
+          if (done) break;
+
+          buffer += decoder.decode(value, { stream: true });
+          let end;
+          while ((end = buffer.search(/\r?\n\r?\n/)) >= 0) {
+            parseBlock(buffer.slice(0, end));
+            buffer = buffer.slice(end).replace(/^(\r?\n){2}/, "");
+          }
+        }
+      } catch (e) {
+        if (controller.signal.aborted) return;
+        console.warn("Live-Verbindung unterbrochen:", e?.message || e);
+      }
+
+      // Verbindung beendet (Timeout / Serverneustart / 503) -> mit Backoff neu verbinden
+      if (controller.signal.aborted) return;
+      retryTimer = setTimeout(connect, retryMs);
+      retryMs = Math.min(retryMs * 2, 30000);
+    };
+
+    connect();
+
+    return () => {
+      controller.abort();
+      if (retryTimer) clearTimeout(retryTimer);
+    };
+  }, [authToken, API_BASE]);
+
+  // ✅ Anzeige: Top K live, darunter der geladene Rest (eigene Zeile mit Live-Rang)
+  const rows = useMemo(() => {
+    const myId =
+      ranking.find((u) => u.currentUser)?.userId ??
+      (liveTop && liveRank?.rank != null
+        ? [...liveTop.values()].find((e) => e.rank === liveRank.rank)?.userId
+        : null);
+
+    const withMe = (u) => {
+      if (u.userId !== myId) return u;
+      if (liveRank?.rank == null) return { ...u, currentUser: true };
+      return { ...u, currentUser: true, rank: liveRank.rank, points: liveRank.points };
+    };
+
+    if (!liveTop) return ranking.map(withMe);
+
+    const top = [...liveTop.values()]
+      .sort((a, b) => a.rank - b.rank)
+      .map((e) => ({ ...e, currentUser: e.userId === myId }));
+    const inTop = new Set(top.map((e) => e.userId));
+
+    // aus den Top K Gefallene stehen nicht mehr an ihrer alten Stelle -> nur Zeilen unterhalb der Top K behalten
+    const rest = ranking
+      .filter((u) => !inTop.has(u.userId) && u.rank > top.length)
+      .map(withMe)
+      .sort((a, b) => a.rank - b.rank);
+
+    return [...top, ...rest];
+  }, [ranking, liveTop, liveRank]);
+
   return (
     <AnwenderLayout>
       <div className="ranking-main-wrapper">
@@ -117,13 +240,13 @@ const BestenlisteAnzeigen = () => {
                 <div className="align-right">Punkte</div>
               </div>
 
-              {ranking.length === 0 && (
+              {rows.length === 0 && (
                 <div style={{ opacity: 0.85, paddingTop: 6 }}>
                   Noch keine Daten vorhanden.
                 </div>
               )}
 
-              {ranking.map((u, idx) => {
+              {rows.map((u, idx) => {
                 const isHighlighted = !!u.currentUser;
 
                 return (
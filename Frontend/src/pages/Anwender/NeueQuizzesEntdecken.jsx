@@ -10,6 +10,9 @@ const NeueQuizzesEntdecken = () => {
   const [quizzes, setQuizzes] = useState([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState("");
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
+  const [loadMoreError, setLoadMoreError] = useState("");
 
   // helper: body nur 1x lesen
   const readBodyOnce = async (response) => {
@@ -21,6 +24,34 @@ const NeueQuizzesEntdecken = () => {
     }
   };
 
+  // eine Seite laden; nächste Seite über den Header X-Next-Cursor (null = keine weitere)
+  const fetchPage = async (cursor) => {
+    const authToken = localStorage.getItem("authToken");
+    const url = cursor
+      ? `${API_BASE}/api/play/quizzes/new?cursor=${encodeURIComponent(cursor)}`
+      : `${API_BASE}/api/play/quizzes/new`;
+
+    const res = await fetch(url, {
+      headers: { Authorization: `Bearer ${authToken}` },
+    });
+
+    const { raw, json } = await readBodyOnce(res);
+
+    if (!res.ok) {
+      const msg = json?.error || json?.message || raw || `HTTP ${res.status}`;
+      throw new Error(msg);
+    }
+
+    const data = json;
+    const normalized = (Array.isArray(data) ? data : []).map((q) => ({
+      id: q.id,
+      title: q.title ?? "",
+      isPublished: Boolean(q.isPublished ?? q.published ?? false),
+    }));
+
+    return { items: normalized, next: res.headers.get("X-Next-Cursor") };
+  };
+
   useEffect(() => {
     const loadQuizzes = async () => {
       if (!API_BASE) {
@@ -40,25 +71,9 @@ const NeueQuizzesEntdecken = () => {
         setLoading(true);
         setError("");
 
-        const res = await fetch(`${API_BASE}/api/play/quizzes/new`, {
-          headers: { Authorization: `Bearer ${authToken}` },
-        });
-
-        const { raw, json } = await readBodyOnce(res);
-
-        if (!res.ok) {
-          const msg = json?.error || json?.message || raw || `HTTP ${res.status}`;
-          throw new Error(msg);
-        }
-
-        const data = json;
-        const normalized = (Array.isArray(data) ? data : []).map((q) => ({
-          id: q.id,
-          title: q.title ?? "",
-          isPublished: Boolean(q.isPublished ?? q.published ?? false),
-        }));
-
-        setQuizzes(normalized);
+        const page = await fetchPage(null);
+        setQuizzes(page.items);
+        setNextCursor(page.next);
       } catch (e) {
         console.error(e);
         setError(
@@ -70,8 +85,29 @@ const NeueQuizzesEntdecken = () => {
     };
 
     loadQuizzes();
+    // eslint-disable-next-line react-hooks/exhaustive-deps
   }, [API_BASE]);
 
+  const handleLoadMore = async () => {
+    if (!nextCursor || loadingMore) return;
+
+    try {
+      setLoadingMore(true);
+      setLoadMoreError("");
+
+      const page = await fetchPage(nextCursor);
+      setQuizzes((prev) => [...prev, ...page.items]);
+      setNextCursor(page.next);
+    } catch (e) {
+      console.error(e);
+      setLoadMoreError(
+        `Weitere Quizzes konnten nicht geladen werden: ${e?.message || "Failed to fetch"}`
+      );
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const handleOpen = (quiz) => {
     // du navigierst hier zu /anwender/quiz/:id
     navigate(`/anwender/quiz/${quiz.id}`);
@@ -120,6 +156,20 @@ const NeueQuizzesEntdecken = () => {
             ))}
           </div>
         )}
+
+        {loadMoreError && <div style={{ color: "#ffb3b3" }}>{loadMoreError}</div>}
+
+        {!loading && !error && nextCursor && (
+          <button
+            className="btn-shine"
+            type="button"
+            onClick={handleLoadMore}
+            disabled={loadingMore}
+            style={{ marginTop: 16 }}
+          >
+            {loadingMore ? "Lade..." : "Weitere Quizzes laden"}
+          </button>
+        )}
       </div>
     </AnwenderLayout>
   );
@@ -39,14 +39,26 @@ const QuizzesFortsetzen = () => {
       setLoading(true);
       setError("");
 
-      const res = await fetch(`${API_BASE}/api/play/quizzes/resumable`, {
-        headers: { Authorization: `Bearer ${authToken}` },
-      });
-
-      const { raw, json } = await fetchJsonSafe(res);
-      if (!res.ok) throw new Error(json?.message || raw || `HTTP ${res.status}`);
-
-      setItems(Array.isArray(json) ? json : []);
+      // ✅ alle Seiten laden: nächste Seite über den Header X-Next-Cursor
+      const all = [];
+      let cursor = null;
+      do {
+        const url = cursor
+          ? `${API_BASE}/api/play/quizzes/resumable?cursor=${encodeURIComponent(cursor)}`
+          : `${API_BASE}/api/play/quizzes/resumable`;
+
+        const res = await fetch(url, {
+          headers: { Authorization: `Bearer ${authToken}` },
+        });
+
+        const { raw, json } = await fetchJsonSafe(res);
+        if (!res.ok) throw new Error(json?.message || raw || `HTTP ${res.status}`);
+
+        if (Array.isArray(json)) all.push(...json);
+        cursor = res.headers.get("X-Next-Cursor");
+      } while (cursor);
+
+      setItems(all);
     } catch (e) {
       console.error(e);
       setError(`Quizzes konnten nicht geladen werden: ${e?.message || "Fehler"}`);
@@ -21,6 +21,8 @@ public class CorsConfig implements WebMvcConfigurer {
                 .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS")
                 // Erlaubt alle Header
                 .allowedHeaders("*")
+                // Cursor der nächsten Seite (Keyset-Pagination) und Idempotency-Replay für das Frontend lesbar machen
+                .exposedHeaders("X-Next-Cursor", "Idempotent-Replayed")
                 // Erlaubt die Übertragung von Anmeldeinformationen (Cookies)
                 .allowCredentials(true);
     }
@@ -0,0 +1,10 @@
+package de.quizapp.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Hintergrund-Jobs (z. B. Flush des Attempt-Cursor-Puffers); Pool-Größe: spring.task.scheduling.pool.size
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
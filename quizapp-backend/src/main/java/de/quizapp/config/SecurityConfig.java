@@ -1,6 +1,7 @@
 package de.quizapp.config;
 
 import de.quizapp.security.SupabaseBearerAuthFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -31,13 +32,20 @@ public class SecurityConfig {
                 // ✅ Preflight Requests IMMER erlauben
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
 
+                // ✅ Async-Dispatch (Abschluss/Timeout einer SSE-Verbindung, /api/live) – der Request war beim Start schon geprüft
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                 // ✅ Login / Registrierung öffentlich
                 .requestMatchers("/api/auth/**").permitAll()
 
                 // 🔐 Geschützte API
                 .requestMatchers("/api/**").authenticated()
 
-                // Alles andere (z. B. Actuator, Root) offen
+                // ✅ Health offen (Load Balancer), übrige Actuator-Endpunkte (Metriken: URIs, Cache-/Breaker-Zustand) nur mit Token
+                .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                .requestMatchers("/actuator/**").authenticated()
+
+                // Alles andere (z. B. Root) offen
                 .anyRequest().permitAll()
             )
 
@@ -2,6 +2,7 @@ package de.quizapp.controller;
 
 import de.quizapp.dto.LoginResponse;
 import de.quizapp.service.AuthService;
+import de.quizapp.service.SupabaseUnavailableException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -115,6 +116,9 @@ public class AuthController {
             LoginResponse response = authService.login(email, password);
             return ResponseEntity.ok(response);
 
+        } catch (SupabaseUnavailableException e) {
+            // -> 503 + Retry-After (SupabaseUnavailableAdvice), nicht "Passwort falsch"
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.status(401).body(
                     Map.of("error", e.getMessage())
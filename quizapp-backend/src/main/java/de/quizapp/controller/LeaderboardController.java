@@ -1,13 +1,16 @@
 package de.quizapp.controller;
 
 import de.quizapp.dto.LeaderboardEntryDto;
+import de.quizapp.dto.LeaderboardPositionDto;
 import de.quizapp.service.LeaderboardService;
+import de.quizapp.service.LeaderboardWindow;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -28,11 +31,35 @@ public class LeaderboardController {
         return UUID.fromString(auth.getName());
     }
 
+    // window: all (Gesamtpunkte) | day | week | month (in den letzten 1/7/30 Tagen erspielt)
     @GetMapping
-    public ResponseEntity<List<LeaderboardEntryDto>> leaderboard(
-            @RequestParam(defaultValue = "50") int limit
+    public ResponseEntity<?> leaderboard(
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "all") String window
     ) {
         UUID userId = currentUserId();
-        return ResponseEntity.ok(leaderboardService.getLeaderboard(userId, limit));
+        LeaderboardWindow w;
+        try {
+            w = LeaderboardWindow.parse(window);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        return ResponseEntity.ok(leaderboardService.getLeaderboard(userId, limit, w));
+    }
+
+    // eigener Rang + je "neighbors" Einträge davor und danach
+    @GetMapping("/me")
+    public ResponseEntity<?> me(
+            @RequestParam(defaultValue = "5") int neighbors,
+            @RequestParam(defaultValue = "all") String window
+    ) {
+        UUID userId = currentUserId();
+        LeaderboardWindow w;
+        try {
+            w = LeaderboardWindow.parse(window);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        return ResponseEntity.ok(leaderboardService.getPosition(userId, neighbors, w));
     }
 }
\ No newline at end of file
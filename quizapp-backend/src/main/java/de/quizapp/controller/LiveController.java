@@ -0,0 +1,54 @@
+package de.quizapp.controller;
+
+import de.quizapp.service.LeaderboardWindow;
+import de.quizapp.service.LiveUpdateHub;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/live")
+public class LiveController {
+
+    private final LiveUpdateHub liveUpdateHub;
+
+    public LiveController(LiveUpdateHub liveUpdateHub) {
+        this.liveUpdateHub = liveUpdateHub;
+    }
+
+    private UUID currentUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || auth.getName() == null) {
+            throw new IllegalStateException("Kein eingeloggter Benutzer gefunden.");
+        }
+        return UUID.fromString(auth.getName());
+    }
+
+    // SSE statt Polling: Events "leaderboard" (Top K, Deltas), "rank" (eigener Rang), "progress" (eigene Durchläufe)
+    // window wie bei /api/leaderboard: all | day | week | month
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> stream(@RequestParam(defaultValue = "all") String window) {
+        UUID userId = currentUserId();
+        LeaderboardWindow w;
+        try {
+            w = LeaderboardWindow.parse(window);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(Map.of("error", e.getMessage()));
+        }
+
+        SseEmitter emitter = liveUpdateHub.subscribe(userId, w);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("error", "Zu viele Live-Verbindungen, bitte später erneut versuchen"));
+        }
+        return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(emitter);
+    }
+}
@@ -2,10 +2,14 @@ package de.quizapp.controller;
 
 import de.quizapp.dto.QuizCreateRequest;
 import de.quizapp.dto.QuizDetailDto;
+import de.quizapp.dto.QuizLeaderboardEntryDto;
 import de.quizapp.dto.QuizListItemDto;
 import de.quizapp.dto.QuizUpdateRequestDto;
+import de.quizapp.service.LeaderboardService;
 import de.quizapp.service.QuizService;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -16,9 +20,11 @@ import java.util.UUID;
 public class QuizController {
 
     private final QuizService quizService;
+    private final LeaderboardService leaderboardService;
 
-    public QuizController(QuizService quizService) {
+    public QuizController(QuizService quizService, LeaderboardService leaderboardService) {
         this.quizService = quizService;
+        this.leaderboardService = leaderboardService;
     }
 
     // LIST: fürs Frontend (QuizzesVerwalten.jsx erwartet id,title,isPublished)
@@ -33,6 +39,17 @@ public class QuizController {
         return ResponseEntity.ok(quizService.getDetail(quizId));
     }
 
+    // BESTENLISTE: bestes Ergebnis pro Benutzer, bei Gleichstand schneller vorne (nur veröffentlichte Quizze)
+    @GetMapping("/{quizId}/leaderboard")
+    public ResponseEntity<List<QuizLeaderboardEntryDto>> leaderboard(
+            @PathVariable UUID quizId,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        UUID userId = auth != null && auth.getName() != null ? UUID.fromString(auth.getName()) : null;
+        return ResponseEntity.ok(leaderboardService.getQuizLeaderboard(userId, quizId, limit));
+    }
+
     // CREATE
     @PostMapping
     public ResponseEntity<UUID> create(@RequestBody QuizCreateRequest req) {
@@ -2,10 +2,13 @@ package de.quizapp.controller;
 
 import de.quizapp.dto.*;
 import de.quizapp.service.QuizPlayService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -14,6 +17,8 @@ import java.util.UUID;
 @RequestMapping("/api/play")
 public class QuizPlayController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final QuizPlayService quizPlayService;
 
     public QuizPlayController(QuizPlayService quizPlayService) {
@@ -28,16 +33,36 @@ public class QuizPlayController {
         return UUID.fromString(auth.getName());
     }
 
+    // ✅ Keyset-Pagination: nächste Seite über den Cursor aus dem Header X-Next-Cursor
     @GetMapping("/quizzes/new")
-    public ResponseEntity<List<QuizListItemDto>> newQuizzes() {
+    public ResponseEntity<List<QuizListItemDto>> newQuizzes(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size
+    ) {
         UUID userId = currentUserId();
-        return ResponseEntity.ok(quizPlayService.getNewPublishedQuizzesForUser(userId));
+        QuizFeedPage page = quizPlayService.getNewPublishedQuizzesForUser(userId, cursor, size);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
     }
 
+    // ✅ wie /quizzes/new: nächste Seite über X-Next-Cursor
     @GetMapping("/quizzes/resumable")
-    public ResponseEntity<List<ResumableQuizDto>> resumable() {
+    public ResponseEntity<List<ResumableQuizDto>> resumable(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size
+    ) {
         UUID userId = currentUserId();
-        return ResponseEntity.ok(quizPlayService.getResumableQuizzesForUser(userId));
+        ResumableQuizPage page = quizPlayService.getResumableQuizzesForUser(userId, cursor, size);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
     }
 
     @PostMapping("/quizzes/{quizId}/restart")
@@ -65,6 +90,23 @@ public class QuizPlayController {
         return ResponseEntity.ok(quizPlayService.getAttemptOverview(userId, attemptId));
     }
 
+    // ✅ Ganzes Quiz + Antwortstand in einer Antwort; If-None-Match -> 304
+    @GetMapping("/attempts/{attemptId}/bundle")
+    public ResponseEntity<AttemptBundleDto> bundle(@PathVariable UUID attemptId, WebRequest request) {
+        UUID userId = currentUserId();
+        QuizPlayService.AttemptBundle bundle = quizPlayService.getAttemptBundle(userId, attemptId);
+
+        // private + no-cache: Browser darf speichern, muss aber per ETag revalidieren
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (request.checkNotModified(bundle.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(bundle.etag())
+                .cacheControl(cacheControl)
+                .body(bundle.body());
+    }
+
     // ✅ Standard: currentPosition
     @GetMapping("/attempts/{attemptId}/question")
     public ResponseEntity<CurrentQuestionDto> getCurrentQuestion(@PathVariable UUID attemptId) {
@@ -88,6 +130,16 @@ public class QuizPlayController {
         return ResponseEntity.ok(quizPlayService.answer(userId, attemptId, req));
     }
 
+    // ✅ Offline-Sync: mehrere Antworten in einer Transaktion
+    @PostMapping("/attempts/{attemptId}/answers")
+    public ResponseEntity<AnswerBatchResultDto> answerBatch(
+            @PathVariable UUID attemptId,
+            @RequestBody AnswerBatchRequest req
+    ) {
+        UUID userId = currentUserId();
+        return ResponseEntity.ok(quizPlayService.answerBatch(userId, attemptId, req));
+    }
+
     // ✅ Ergebnis
     @GetMapping("/attempts/{attemptId}/result")
     public ResponseEntity<AttemptResultDto> result(@PathVariable UUID attemptId) {
@@ -95,7 +147,14 @@ public class QuizPlayController {
         return ResponseEntity.ok(quizPlayService.getAttemptResult(userId, attemptId));
     }
 
-    // ✅ Review (Frage einzeln + Ergebnis)
+    // ✅ komplettes Review in einem Request
+    @GetMapping("/attempts/{attemptId}/review")
+    public ResponseEntity<List<ReviewQuestionDto>> reviewAll(@PathVariable UUID attemptId) {
+        UUID userId = currentUserId();
+        return ResponseEntity.ok(quizPlayService.getReview(userId, attemptId));
+    }
+
+    // ✅ Review (Frage einzeln)
     @GetMapping("/attempts/{attemptId}/review/{position}")
     public ResponseEntity<ReviewQuestionDto> review(@PathVariable UUID attemptId, @PathVariable int position) {
         UUID userId = currentUserId();
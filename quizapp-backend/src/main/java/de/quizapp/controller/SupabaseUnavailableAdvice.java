@@ -0,0 +1,24 @@
+package de.quizapp.controller;
+
+import de.quizapp.service.SupabaseUnavailableException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+
+/**
+ * Supabase-Circuit offen / Bulkhead voll -> sofort 503 mit Retry-After statt Thread zu blockieren.
+ */
+@RestControllerAdvice
+public class SupabaseUnavailableAdvice {
+
+    @ExceptionHandler(SupabaseUnavailableException.class)
+    public ResponseEntity<Map<String, String>> supabaseUnavailable(SupabaseUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of("error", e.getMessage()));
+    }
+}
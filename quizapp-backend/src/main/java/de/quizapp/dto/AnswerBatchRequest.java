@@ -0,0 +1,18 @@
+package de.quizapp.dto;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Offline gesammelte Antworten eines Attempts, in der Reihenfolge, in der sie gegeben wurden.
+ */
+public record AnswerBatchRequest(
+        List<Item> answers
+) {
+    public record Item(
+            UUID questionId,
+            Integer selectedIndex,
+            OffsetDateTime answeredAt // Client-Zeitpunkt, optional
+    ) {}
+}
@@ -0,0 +1,31 @@
+package de.quizapp.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Ergebnis pro Frage + Endstand des Attempts nach dem Sync.
+ */
+public record AnswerBatchResultDto(
+        List<ItemResult> results,
+        int score,
+        int answeredQuestions,
+        int totalQuestions,
+        boolean finished,
+        Integer nextPosition
+) {
+    public enum Status {
+        APPLIED,          // neu gespeichert
+        DUPLICATE,        // war schon beantwortet – gespeicherte Antwort bleibt
+        UNKNOWN_QUESTION  // gehört nicht (mehr) zum Quiz
+    }
+
+    public record ItemResult(
+            UUID questionId,
+            Integer position,
+            Status status,
+            Boolean correct,
+            Integer correctIndex,
+            String explanation
+    ) {}
+}
@@ -0,0 +1,37 @@
+package de.quizapp.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Komplettes Quiz eines Attempts in einer Antwort – Navigation läuft danach rein im Client.
+ * Enthält bewusst KEINE correctIndex/explanation (kommen erst mit der Antwort bzw. im Review).
+ */
+public record AttemptBundleDto(
+        UUID attemptId,
+        UUID quizId,
+        String quizTitle,
+        long quizVersion,
+        int totalQuestions,
+        int answeredQuestions,
+        int correctCount,
+        int currentPosition,
+        boolean finished,
+        List<QuestionDto> questions,
+        // gleiche Reihenfolge wie questions
+        List<AnswerStateDto> answers
+) {
+    public record QuestionDto(
+            UUID questionId,
+            int position,
+            String question,
+            List<String> options
+    ) {}
+
+    public record AnswerStateDto(
+            int position,
+            boolean answered,
+            Integer selectedIndex, // null wenn nicht beantwortet
+            Boolean correct        // null wenn nicht beantwortet
+    ) {}
+}
@@ -1,5 +1,6 @@
 package de.quizapp.dto;
 
+import java.time.Instant;
 import java.util.UUID;
 
 public class AttemptResultDto {
@@ -11,6 +12,9 @@ public class AttemptResultDto {
     private int correctAnswers;
     private int wrongAnswers;
     private int score;
+    // nur für beendete Durchläufe (aus quiz_attempt_results), Dauer bei Altbestand unbekannt
+    private Long durationMillis;
+    private Instant finishedAt;
 
     public AttemptResultDto() {}
 
@@ -25,6 +29,14 @@ public class AttemptResultDto {
         this.score = score;
     }
 
+    public AttemptResultDto(UUID attemptId, UUID quizId, String quizTitle,
+                            int totalQuestions, int correctAnswers, int wrongAnswers, int score,
+                            Long durationMillis, Instant finishedAt) {
+        this(attemptId, quizId, quizTitle, totalQuestions, correctAnswers, wrongAnswers, score);
+        this.durationMillis = durationMillis;
+        this.finishedAt = finishedAt;
+    }
+
     public UUID getAttemptId() { return attemptId; }
     public void setAttemptId(UUID attemptId) { this.attemptId = attemptId; }
 
@@ -45,4 +57,10 @@ public class AttemptResultDto {
 
     public int getScore() { return score; }
     public void setScore(int score) { this.score = score; }
-}
\ No newline at end of file
+
+    public Long getDurationMillis() { return durationMillis; }
+    public void setDurationMillis(Long durationMillis) { this.durationMillis = durationMillis; }
+
+    public Instant getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+}
@@ -0,0 +1,13 @@
+package de.quizapp.dto;
+
+import java.util.List;
+
+/**
+ * Eigener Rang + Nachbarn (GET /api/leaderboard/me).
+ * me == null und entries leer, wenn der Benutzer nicht in der Rangliste steht (kein Anwender bzw. keine Punkte im Zeitraum).
+ */
+public record LeaderboardPositionDto(
+        LeaderboardEntryDto me,
+        int totalPlayers,
+        List<LeaderboardEntryDto> entries
+) {}
@@ -0,0 +1,16 @@
+package de.quizapp.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * SSE-Frame "leaderboard" (GET /api/live): Top K eines Zeitraums.
+ * full = true -> entries ist die komplette Liste (erster Frame, nach verworfenen Frames);
+ * sonst nur neue/geänderte Einträge, removed = aus den Top K gefallen.
+ */
+public record LiveLeaderboardDto(
+        String window,
+        boolean full,
+        List<LeaderboardEntryDto> entries,
+        List<UUID> removed
+) {}
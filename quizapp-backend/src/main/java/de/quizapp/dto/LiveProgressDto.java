@@ -0,0 +1,15 @@
+package de.quizapp.dto;
+
+import java.util.UUID;
+
+/**
+ * SSE-Frame "progress": Stand eines eigenen Durchlaufs nach einer Antwort bzw. einem Neustart (auch aus anderen Tabs/Geräten).
+ */
+public record LiveProgressDto(
+        UUID attemptId,
+        UUID quizId,
+        int answeredQuestions,
+        int totalQuestions,
+        int score,
+        boolean finished
+) {}
@@ -0,0 +1,11 @@
+package de.quizapp.dto;
+
+/**
+ * SSE-Frame "rank": eigener Rang im Zeitraum; rank/points == null, wenn der Benutzer nicht in der Rangliste steht.
+ */
+public record LiveRankDto(
+        String window,
+        Integer rank,
+        Long points,
+        int totalPlayers
+) {}
@@ -0,0 +1,11 @@
+package de.quizapp.dto;
+
+import java.util.List;
+
+/**
+ * Eine Seite des "Neue Quizzes"-Feeds. nextCursor == null -> keine weiteren Einträge.
+ */
+public record QuizFeedPage(
+        List<QuizListItemDto> items,
+        String nextCursor
+) {}
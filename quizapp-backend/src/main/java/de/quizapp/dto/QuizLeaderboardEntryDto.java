@@ -0,0 +1,19 @@
+package de.quizapp.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Eintrag der Bestenliste eines Quiz (GET /api/quizzes/{quizId}/leaderboard) – bestes Ergebnis des Benutzers.
+ * durationMillis == null bei Altbestand (Dauer unbekannt).
+ */
+public record QuizLeaderboardEntryDto(
+        int rank,
+        UUID userId,
+        String name,
+        int correctAnswers,
+        int totalQuestions,
+        Long durationMillis,
+        Instant finishedAt,
+        boolean currentUser
+) {}
@@ -0,0 +1,11 @@
+package de.quizapp.dto;
+
+import java.util.List;
+
+/**
+ * Eine Seite von "Quizzes fortsetzen". nextCursor == null -> keine weiteren Einträge.
+ */
+public record ResumableQuizPage(
+        List<ResumableQuizDto> items,
+        String nextCursor
+) {}
@@ -1,20 +1,27 @@
 package de.quizapp.dto;
 
+import java.time.Instant;
+
 public class UserProfileDto {
     private String firstName;
     private String lastName;
     private String email;
     private long points;
     private long finishedQuizzes;
+    private long attempts;
+    private Instant lastActivityAt;
 
     public UserProfileDto() {}
 
-    public UserProfileDto(String firstName, String lastName, String email, long points, long finishedQuizzes) {
+    public UserProfileDto(String firstName, String lastName, String email, long points, long finishedQuizzes,
+                          long attempts, Instant lastActivityAt) {
         this.firstName = firstName;
         this.lastName = lastName;
         this.email = email;
         this.points = points;
         this.finishedQuizzes = finishedQuizzes;
+        this.attempts = attempts;
+        this.lastActivityAt = lastActivityAt;
     }
 
     public String getFirstName() { return firstName; }
@@ -31,4 +38,10 @@ public class UserProfileDto {
 
     public long getFinishedQuizzes() { return finishedQuizzes; }
     public void setFinishedQuizzes(long finishedQuizzes) { this.finishedQuizzes = finishedQuizzes; }
+
+    public long getAttempts() { return attempts; }
+    public void setAttempts(long attempts) { this.attempts = attempts; }
+
+    public Instant getLastActivityAt() { return lastActivityAt; }
+    public void setLastActivityAt(Instant lastActivityAt) { this.lastActivityAt = lastActivityAt; }
 }
\ No newline at end of file
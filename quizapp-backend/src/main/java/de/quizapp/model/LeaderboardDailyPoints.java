@@ -0,0 +1,63 @@
+package de.quizapp.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Erspielte Punkte eines Benutzers an einem Tag (Zeitzone app.leaderboard.zone) – Quelle für Tages-/Wochen-/Monatswertung.
+ * Geschrieben gebündelt als Delta (DailyPointsStore), gelesen nur beim Aufbau der Rangliste.
+ * Ein Neustart nimmt genau die Beiträge seines Durchlaufs zurück ({@link LeaderboardRunPoints}).
+ */
+@Entity
+@IdClass(LeaderboardDailyPoints.Key.class)
+@Table(
+        name = "leaderboard_daily_points",
+        indexes = {
+                @Index(name = "idx_leaderboard_daily_points_day", columnList = "score_day")
+        }
+)
+public class LeaderboardDailyPoints {
+
+    @Id
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private UUID userId;
+
+    @Id
+    @Column(name = "score_day", nullable = false, updatable = false)
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private long points;
+
+    protected LeaderboardDailyPoints() {}
+
+    public UUID getUserId() { return userId; }
+    public LocalDate getDay() { return day; }
+    public long getPoints() { return points; }
+
+    public static class Key implements Serializable {
+        private UUID userId;
+        private LocalDate day;
+
+        public Key() {}
+
+        public Key(UUID userId, LocalDate day) {
+            this.userId = userId;
+            this.day = day;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && Objects.equals(userId, k.userId) && Objects.equals(day, k.day);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, day);
+        }
+    }
+}
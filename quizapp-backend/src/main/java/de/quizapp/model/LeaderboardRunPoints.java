@@ -0,0 +1,71 @@
+package de.quizapp.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Beitrag eines Durchlaufs (Attempt + Generation) zu einem Tag in leaderboard_daily_points.
+ * Geschrieben gebündelt mit den Tages-Punkten (DailyPointsStore); gelesen nur beim Neustart, der genau diese
+ * Beiträge aus den Tages-Buckets zurücknimmt und die Zeilen löscht. Tage außerhalb des Rings fallen beim Aufräumen weg.
+ */
+@Entity
+@IdClass(LeaderboardRunPoints.Key.class)
+@Table(
+        name = "leaderboard_run_points",
+        indexes = {
+                @Index(name = "idx_leaderboard_run_points_day", columnList = "score_day")
+        }
+)
+public class LeaderboardRunPoints {
+
+    @Id
+    @Column(name = "attempt_id", nullable = false, updatable = false)
+    private UUID attemptId;
+
+    @Id
+    @Column(nullable = false, updatable = false)
+    private int generation;
+
+    @Id
+    @Column(name = "score_day", nullable = false, updatable = false)
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private long points;
+
+    protected LeaderboardRunPoints() {}
+
+    public UUID getAttemptId() { return attemptId; }
+    public int getGeneration() { return generation; }
+    public LocalDate getDay() { return day; }
+    public long getPoints() { return points; }
+
+    public static class Key implements Serializable {
+        private UUID attemptId;
+        private int generation;
+        private LocalDate day;
+
+        public Key() {}
+
+        public Key(UUID attemptId, int generation, LocalDate day) {
+            this.attemptId = attemptId;
+            this.generation = generation;
+            this.day = day;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && Objects.equals(attemptId, k.attemptId) && generation == k.generation
+                    && Objects.equals(day, k.day);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(attemptId, generation, day);
+        }
+    }
+}
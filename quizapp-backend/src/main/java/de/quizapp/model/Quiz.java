@@ -10,7 +10,14 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "quizzes", schema = "public")
+@Table(
+        name = "quizzes",
+        schema = "public",
+        indexes = {
+                // ✅ Keyset-Pagination im "Neue Quizzes"-Feed
+                @Index(name = "idx_quizzes_published_created", columnList = "is_published, created_at, id")
+        }
+)
 public class Quiz {
 
     @Id
@@ -26,6 +33,10 @@ public class Quiz {
     @Column(name = "is_published", nullable = false)
     private boolean isPublished = false;
 
+    // ✅ wird bei jeder inhaltlichen Änderung hochgezählt (ETag des Attempt-Bundles, Snapshot-Cache)
+    @Column(name = "content_version", nullable = false, columnDefinition = "bigint not null default 1")
+    private long contentVersion = 1;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private OffsetDateTime createdAt;
@@ -51,6 +62,8 @@ public class Quiz {
     public void setTitle(String title) { this.title = title; }
     public boolean isPublished() { return isPublished; }
     public void setPublished(boolean published) { isPublished = published; }
+    public long getContentVersion() { return contentVersion; }
+    public void setContentVersion(long contentVersion) { this.contentVersion = contentVersion; }
     public List<QuizQuestion> getQuestions() { return questions; }
     public void setQuestions(List<QuizQuestion> questions) { this.questions = questions; }
 }
\ No newline at end of file
@@ -5,7 +5,15 @@ import java.time.Instant;
 import java.util.UUID;
 
 @Entity
-@Table(name = "quiz_attempts")
+@Table(
+        name = "quiz_attempts",
+        indexes = {
+                // ✅ NOT EXISTS im "Neue Quizzes"-Feed + neuester Attempt pro Quiz
+                @Index(name = "idx_quiz_attempts_user_quiz", columnList = "user_id, quiz_id"),
+                // ✅ Reaper findet Attempts mit veralteten Antworten ohne Full Scan
+                @Index(name = "idx_quiz_attempts_reap_pending", columnList = "reap_pending")
+        }
+)
 public class QuizAttempt {
 
     @Id
@@ -25,12 +33,36 @@ public class QuizAttempt {
     @Column(name = "total_questions", nullable = false)
     private int totalQuestions;
 
-    @Column(name = "score", nullable = false)
+    // updatable = false: nur per SQL (recordAnswers/startNextGeneration) geändert, ein save() darf Zähler nicht zurücksetzen
+    @Column(name = "score", nullable = false, updatable = false)
     private int score;
 
     @Column(name = "is_finished", nullable = false)
     private boolean finished = false;
 
+    // ✅ Zähler werden beim Antworten atomar per SQL hochgezählt (score/is_finished leiten sich daraus ab)
+    @Column(name = "answered_count", nullable = false, updatable = false, columnDefinition = "integer not null default 0")
+    private int answeredCount;
+
+    @Column(name = "correct_count", nullable = false, updatable = false, columnDefinition = "integer not null default 0")
+    private int correctCount;
+
+    // ✅ Neustart = neue Generation; Antworten älterer Generationen sind unsichtbar und werden vom Reaper weggeräumt
+    @Column(name = "generation", nullable = false, updatable = false, columnDefinition = "integer not null default 0")
+    private int generation;
+
+    @Column(name = "reap_pending", nullable = false, updatable = false, columnDefinition = "boolean not null default false")
+    private boolean reapPending;
+
+    // ✅ gepackte Antworten (app.answer-storage.mode=packed), null = Antworten liegen in quiz_attempt_answers
+    // nur über native Updates geschrieben (wie die Zähler)
+    @Column(name = "answer_vector", updatable = false)
+    private byte[] answerVector;
+
+    // ✅ Start des aktuellen Durchlaufs (Neustart), null = created_at – für die Dauer im Ergebnis
+    @Column(name = "started_at", updatable = false)
+    private Instant startedAt;
+
     @Column(name = "created_at", nullable = false)
     private Instant createdAt;
 
@@ -72,6 +104,22 @@ public class QuizAttempt {
     public boolean isFinished() { return finished; }
     public void setFinished(boolean finished) { this.finished = finished; }
 
+    public int getAnsweredCount() { return answeredCount; }
+    public void setAnsweredCount(int answeredCount) { this.answeredCount = answeredCount; }
+
+    public int getCorrectCount() { return correctCount; }
+    public void setCorrectCount(int correctCount) { this.correctCount = correctCount; }
+
+    public int getGeneration() { return generation; }
+    public void setGeneration(int generation) { this.generation = generation; }
+
+    public boolean isReapPending() { return reapPending; }
+    public void setReapPending(boolean reapPending) { this.reapPending = reapPending; }
+
+    public byte[] getAnswerVector() { return answerVector; }
+
+    public Instant getStartedAt() { return startedAt != null ? startedAt : createdAt; }
+
     public Instant getCreatedAt() { return createdAt; }
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
 
@@ -8,7 +8,11 @@ import java.util.UUID;
 @Entity
 @Table(
         name = "quiz_attempt_answers",
-        uniqueConstraints = @UniqueConstraint(columnNames = {"attempt_id", "question_id"})
+        // ✅ eine Antwort pro Frage und Generation (alter Key (attempt_id, question_id) wird von AnswerGenerationMigration entfernt)
+        uniqueConstraints = @UniqueConstraint(
+                name = "uq_quiz_attempt_answers_attempt_generation_question",
+                columnNames = {"attempt_id", "generation", "question_id"}
+        )
 )
 public class QuizAttemptAnswer {
 
@@ -24,6 +28,10 @@ public class QuizAttemptAnswer {
     @JoinColumn(name = "question_id", nullable = false)
     private QuizQuestion question;
 
+    // Generation des Attempts beim Antworten; nur per SQL gesetzt
+    @Column(name = "generation", nullable = false, updatable = false, columnDefinition = "integer not null default 0")
+    private int generation;
+
     @Column(name = "selected_index", nullable = false)
     private int selectedIndex;
 
@@ -46,9 +54,13 @@ public class QuizAttemptAnswer {
     public QuizQuestion getQuestion() { return question; }
     public void setQuestion(QuizQuestion question) { this.question = question; }
 
+    public int getGeneration() { return generation; }
+
     public int getSelectedIndex() { return selectedIndex; }
     public void setSelectedIndex(int selectedIndex) { this.selectedIndex = selectedIndex; }
 
     public boolean isCorrect() { return correct; }
     public void setCorrect(boolean correct) { this.correct = correct; }
+
+    public OffsetDateTime getAnsweredAt() { return answeredAt; }
 }
\ No newline at end of file
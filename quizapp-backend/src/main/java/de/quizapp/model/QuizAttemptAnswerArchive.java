@@ -0,0 +1,53 @@
+package de.quizapp.model;
+
+import jakarta.persistence.*;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Antworten früherer Durchläufe (Generationen) eines Attempts – vom Reaper hierher verschoben, nur für Auswertungen.
+ * Bewusst ohne Fremdschlüssel: Archiv bleibt auch nach Löschen von Quiz/Fragen erhalten.
+ */
+@Entity
+@Table(
+        name = "quiz_attempt_answers_archive",
+        indexes = {
+                @Index(name = "idx_quiz_attempt_answers_archive_attempt", columnList = "attempt_id, generation")
+        }
+)
+public class QuizAttemptAnswerArchive {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "attempt_id", nullable = false)
+    private UUID attemptId;
+
+    @Column(nullable = false)
+    private int generation;
+
+    @Column(name = "question_id", nullable = false)
+    private UUID questionId;
+
+    @Column(name = "selected_index", nullable = false)
+    private int selectedIndex;
+
+    @Column(name = "is_correct", nullable = false)
+    private boolean correct;
+
+    @Column(name = "answered_at", nullable = false)
+    private OffsetDateTime answeredAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private OffsetDateTime archivedAt;
+
+    public UUID getId() { return id; }
+    public UUID getAttemptId() { return attemptId; }
+    public int getGeneration() { return generation; }
+    public UUID getQuestionId() { return questionId; }
+    public int getSelectedIndex() { return selectedIndex; }
+    public boolean isCorrect() { return correct; }
+    public OffsetDateTime getAnsweredAt() { return answeredAt; }
+    public OffsetDateTime getArchivedAt() { return archivedAt; }
+}
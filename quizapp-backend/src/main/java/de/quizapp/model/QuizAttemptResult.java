@@ -0,0 +1,88 @@
+package de.quizapp.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Unveränderliche Ergebnis-Zusammenfassung eines beendeten Durchlaufs – geschrieben beim Übergang auf finished.
+ * PK = (attemptId, generation): ein Neustart lässt sie stehen (Auswertungen, Quiz-Bestenliste), ein erneutes
+ * Beenden schreibt eine weitere Zeile. Ergebnisseite und Profil lesen die Zeile der aktuellen Generation.
+ * Bewusst ohne Fremdschlüssel (wie das Antwort-Archiv).
+ */
+@Entity
+@IdClass(QuizAttemptResult.Key.class)
+@Table(
+        name = "quiz_attempt_results",
+        indexes = {
+                @Index(name = "idx_quiz_attempt_results_user", columnList = "user_id"),
+                @Index(name = "idx_quiz_attempt_results_quiz", columnList = "quiz_id")
+        }
+)
+public class QuizAttemptResult {
+
+    @Id
+    @Column(name = "attempt_id", nullable = false, updatable = false)
+    private UUID attemptId;
+
+    @Id
+    @Column(nullable = false, updatable = false)
+    private int generation;
+
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private UUID userId;
+
+    @Column(name = "quiz_id", nullable = false, updatable = false)
+    private UUID quizId;
+
+    @Column(name = "total_questions", nullable = false, updatable = false)
+    private int totalQuestions;
+
+    @Column(name = "correct_count", nullable = false, updatable = false)
+    private int correctCount;
+
+    @Column(name = "wrong_count", nullable = false, updatable = false)
+    private int wrongCount;
+
+    // null bei Altbestand (Startzeitpunkt des Durchlaufs unbekannt)
+    @Column(name = "duration_millis", updatable = false)
+    private Long durationMillis;
+
+    @Column(name = "finished_at", nullable = false, updatable = false)
+    private Instant finishedAt;
+
+    public UUID getAttemptId() { return attemptId; }
+    public int getGeneration() { return generation; }
+    public UUID getUserId() { return userId; }
+    public UUID getQuizId() { return quizId; }
+    public int getTotalQuestions() { return totalQuestions; }
+    public int getCorrectCount() { return correctCount; }
+    public int getWrongCount() { return wrongCount; }
+    public Long getDurationMillis() { return durationMillis; }
+    public Instant getFinishedAt() { return finishedAt; }
+
+    public static class Key implements Serializable {
+        private UUID attemptId;
+        private int generation;
+
+        public Key() {}
+
+        public Key(UUID attemptId, int generation) {
+            this.attemptId = attemptId;
+            this.generation = generation;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && Objects.equals(attemptId, k.attemptId) && generation == k.generation;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(attemptId, generation);
+        }
+    }
+}
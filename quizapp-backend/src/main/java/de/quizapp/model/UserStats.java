@@ -0,0 +1,43 @@
+package de.quizapp.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Profil-Kennzahlen eines Benutzers, mitgeführt in derselben Transaktion wie Antworten, Beenden und Start
+ * (UserStatsCounter) -> das Profil liest eine PK-Zeile statt über alle Attempts zu summieren.
+ *
+ * points = Summe correct_count über die Attempts, finishedQuizzes = Ergebnis-Zusammenfassungen,
+ * attempts = Attempt-Zeilen. Drift (Abgleich der Attempts, Altbestand) korrigiert UserStatsReconciliationJob.
+ */
+@Entity
+@Table(name = "user_stats")
+public class UserStats {
+
+    @Id
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private UUID userId;
+
+    @Column(nullable = false)
+    private long points;
+
+    @Column(name = "finished_quizzes", nullable = false)
+    private long finishedQuizzes;
+
+    @Column(nullable = false)
+    private long attempts;
+
+    // null: noch nie gespielt
+    @Column(name = "last_activity_at")
+    private Instant lastActivityAt;
+
+    protected UserStats() {}
+
+    public UUID getUserId() { return userId; }
+    public long getPoints() { return points; }
+    public long getFinishedQuizzes() { return finishedQuizzes; }
+    public long getAttempts() { return attempts; }
+    public Instant getLastActivityAt() { return lastActivityAt; }
+}
@@ -0,0 +1,29 @@
+package de.quizapp.repository;
+
+import de.quizapp.model.LeaderboardDailyPoints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface LeaderboardDailyPointsRepository extends JpaRepository<LeaderboardDailyPoints, LeaderboardDailyPoints.Key> {
+
+    // ✅ Aufbau der Zeitraum-Wertungen: nur Anwender (wie die Gesamtwertung), nur Tage im Ring
+    @Query("""
+        select p
+        from LeaderboardDailyPoints p
+        where p.day >= :since
+          and exists (select 1 from User u where u.authUserId = p.userId and u.role = 'Anwender')
+    """)
+    List<LeaderboardDailyPoints> findAnwenderSince(@Param("since") LocalDate since);
+
+    // Tage, die aus dem Ring gefallen sind
+    @Transactional
+    @Modifying
+    @Query("delete from LeaderboardDailyPoints p where p.day < :before")
+    int deleteBefore(@Param("before") LocalDate before);
+}
@@ -0,0 +1,29 @@
+package de.quizapp.repository;
+
+import de.quizapp.model.LeaderboardRunPoints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface LeaderboardRunPointsRepository extends JpaRepository<LeaderboardRunPoints, LeaderboardRunPoints.Key> {
+
+    // ✅ Neustart: was der Durchlauf pro Tag eingebracht hat
+    List<LeaderboardRunPoints> findByAttemptIdAndGeneration(UUID attemptId, int generation);
+
+    @Transactional
+    @Modifying
+    @Query("delete from LeaderboardRunPoints p where p.attemptId = :attemptId and p.generation = :generation")
+    int deleteRun(@Param("attemptId") UUID attemptId, @Param("generation") int generation);
+
+    // Tage, die aus dem Ring gefallen sind
+    @Transactional
+    @Modifying
+    @Query("delete from LeaderboardRunPoints p where p.day < :before")
+    int deleteBefore(@Param("before") LocalDate before);
+}
@@ -1,59 +1,78 @@
 package de.quizapp.repository;
 
 import de.quizapp.model.QuizAttemptAnswer;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface QuizAttemptAnswerRepository extends JpaRepository<QuizAttemptAnswer, UUID> {
 
-    // ✅ Liste aller Antworten zu einem Attempt
-    List<QuizAttemptAnswer> findByAttempt_Id(UUID attemptId);
+    // ✅ Liste aller Antworten zu einem Attempt (nur aktuelle Generation – ältere sind Neustarts)
+    List<QuizAttemptAnswer> findByAttempt_IdAndGeneration(UUID attemptId, int generation);
 
-    // ✅ genau eine Antwort zu Attempt+Question (deine DB hat unique constraint)
-    Optional<QuizAttemptAnswer> findByAttempt_IdAndQuestion_Id(UUID attemptId, UUID questionId);
+    // ✅ genau eine Antwort zu Attempt+Question+Generation (unique constraint)
+    Optional<QuizAttemptAnswer> findByAttempt_IdAndGenerationAndQuestion_Id(UUID attemptId, int generation, UUID questionId);
 
-    // ✅ counts
-    long countByAttempt_Id(UUID attemptId);
+    // ✅ Review: Antworten + Fragen in einer Query (fetch join statt Lookup pro Position)
+    @Query("""
+        select a from QuizAttemptAnswer a
+        join fetch a.question q
+        where a.attempt.id = :attemptId
+          and a.generation = :generation
+        order by q.position asc
+    """)
+    List<QuizAttemptAnswer> findReviewByAttemptId(@Param("attemptId") UUID attemptId, @Param("generation") int generation);
 
-    long countByAttempt_IdAndCorrectTrue(UUID attemptId);
+    // ✅ niemals überschreiben: doppelte Antwort (Doppelklick, Retry) wird zum No-Op, Rückgabe 0
+    // ohne Conflict-Target, damit es auch mit H2 (PostgreSQL-Modus) läuft – einziger Unique-Key neben der PK ist (attempt_id, generation, question_id)
+    @Modifying
+    @Query(value = """
+        insert into quiz_attempt_answers (id, attempt_id, generation, question_id, selected_index, is_correct, answered_at)
+        values (:id, :attemptId, :generation, :questionId, :selectedIndex, :correct, :answeredAt)
+        on conflict do nothing
+    """, nativeQuery = true)
+    int insertIfAbsent(@Param("id") UUID id,
+                       @Param("attemptId") UUID attemptId,
+                       @Param("generation") int generation,
+                       @Param("questionId") UUID questionId,
+                       @Param("selectedIndex") int selectedIndex,
+                       @Param("correct") boolean correct,
+                       @Param("answeredAt") OffsetDateTime answeredAt);
 
     /* ===============================
-       LEADERBOARD
-       Punkte = count(correct=true) über ALLE Attempts (nicht nur finished!)
-       + nur Rolle "Anwender"
-       + Anwender ohne Antworten => 0 Punkte (LEFT JOIN)
+       REAPER: Antworten alter Generationen (nach Neustart) in Häppchen archivieren/löschen
        =============================== */
 
-    interface LeaderboardRow {
-        UUID getUserId();
-        String getFirstName();
-        String getLastName();
-        long getPoints();
-    }
-
     @Query("""
-        select u.authUserId as userId,
-               u.firstName as firstName,
-               u.lastName as lastName,
-               coalesce(sum(case when a.correct = true then 1 else 0 end), 0) as points
-        from User u
-        left join QuizAttemptAnswer a
-               on a.attempt.userId = u.authUserId
-        where u.role = 'Anwender'
-        group by u.authUserId, u.firstName, u.lastName
-        order by coalesce(sum(case when a.correct = true then 1 else 0 end), 0) desc
+        select a.id from QuizAttemptAnswer a
+        where a.attempt.id = :attemptId
+          and a.generation < :generation
     """)
-    List<LeaderboardRow> getLeaderboardRows();
+    List<UUID> findStaleIds(@Param("attemptId") UUID attemptId, @Param("generation") int generation, Limit limit);
 
-    @Query("""
-        select coalesce(sum(case when a.correct = true then 1 else 0 end), 0)
-        from QuizAttemptAnswer a
-        where a.attempt.userId = :userId
-    """)
-    long getTotalPointsForUser(@Param("userId") UUID userId);
-}
\ No newline at end of file
+    @Modifying
+    @Query(value = """
+        insert into quiz_attempt_answers_archive
+               (id, attempt_id, generation, question_id, selected_index, is_correct, answered_at, archived_at)
+        select id, attempt_id, generation, question_id, selected_index, is_correct, answered_at, :now
+          from quiz_attempt_answers
+         where id in (:ids)
+    """, nativeQuery = true)
+    int archiveByIds(@Param("ids") List<UUID> ids, @Param("now") OffsetDateTime now);
+
+    // ✅ Migration ins gepackte Format: Zeilen der aktuellen Generation stehen dann im answer_vector
+    @Modifying
+    @Query("delete from QuizAttemptAnswer a where a.attempt.id = :attemptId and a.generation = :generation")
+    int deleteByAttemptAndGeneration(@Param("attemptId") UUID attemptId, @Param("generation") int generation);
+
+    @Modifying
+    @Query("delete from QuizAttemptAnswer a where a.id in :ids")
+    int deleteByIds(@Param("ids") List<UUID> ids);
+}
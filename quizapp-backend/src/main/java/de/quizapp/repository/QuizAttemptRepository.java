@@ -1,8 +1,13 @@
 package de.quizapp.repository;
 
 import de.quizapp.model.QuizAttempt;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -12,12 +17,327 @@ public interface QuizAttemptRepository extends JpaRepository<QuizAttempt, UUID>
     // ✅ Start/Resume: neuester Attempt (egal ob finished oder nicht)
     Optional<QuizAttempt> findTopByUserIdAndQuizIdOrderByUpdatedAtDesc(UUID userId, UUID quizId);
 
-    // ✅ Resumable Liste: alle Attempts, neueste zuerst (wir wählen dann pro Quiz den neuesten)
-    List<QuizAttempt> findByUserIdOrderByUpdatedAtDesc(UUID userId);
+    /* ===============================
+       RESUMABLE: pro Quiz nur der neueste Attempt, inkl. Titel + Zähler – eine Query statt N+1
+       =============================== */
+
+    interface ResumableRow {
+        UUID getAttemptId();
+        UUID getQuizId();
+        String getQuizTitle();
+        Integer getTotalQuestions();
+        Integer getAnsweredCount();
+        Integer getCorrectCount();
+        Instant getUpdatedAt();
+    }
+
+    @Query("""
+        select a.id as attemptId,
+               a.quizId as quizId,
+               q.title as quizTitle,
+               a.totalQuestions as totalQuestions,
+               a.answeredCount as answeredCount,
+               a.correctCount as correctCount,
+               a.updatedAt as updatedAt
+        from QuizAttempt a
+        left join Quiz q on q.id = a.quizId
+        where a.userId = :userId
+          and a.quizId is not null
+          and not exists (select 1 from QuizAttempt newer
+                           where newer.userId = a.userId
+                             and newer.quizId = a.quizId
+                             and (newer.updatedAt > a.updatedAt
+                                  or (newer.updatedAt = a.updatedAt and newer.id > a.id)))
+        order by a.updatedAt desc, a.id desc
+    """)
+    List<ResumableRow> findLatestPerQuiz(@Param("userId") UUID userId, Limit limit);
+
+    // ✅ Keyset: nächste Seite nach (updated_at, id) der letzten Zeile
+    @Query("""
+        select a.id as attemptId,
+               a.quizId as quizId,
+               q.title as quizTitle,
+               a.totalQuestions as totalQuestions,
+               a.answeredCount as answeredCount,
+               a.correctCount as correctCount,
+               a.updatedAt as updatedAt
+        from QuizAttempt a
+        left join Quiz q on q.id = a.quizId
+        where a.userId = :userId
+          and a.quizId is not null
+          and (a.updatedAt < :updatedAt or (a.updatedAt = :updatedAt and a.id < :id))
+          and not exists (select 1 from QuizAttempt newer
+                           where newer.userId = a.userId
+                             and newer.quizId = a.quizId
+                             and (newer.updatedAt > a.updatedAt
+                                  or (newer.updatedAt = a.updatedAt and newer.id > a.id)))
+        order by a.updatedAt desc, a.id desc
+    """)
+    List<ResumableRow> findLatestPerQuizAfter(@Param("userId") UUID userId,
+                                              @Param("updatedAt") Instant updatedAt,
+                                              @Param("id") UUID id,
+                                              Limit limit);
 
     // ✅ "Neue Quizzes entdecken": Quiz gilt als begonnen sobald irgendein Attempt existiert
     boolean existsByUserIdAndQuizId(UUID userId, UUID quizId);
 
-    // ✅ Profil-Stat: beendete Quizzes
-    long countByUserIdAndFinishedTrue(UUID userId);
-}
\ No newline at end of file
+    /* ===============================
+       ANSWER (Zähler statt count-Queries, Spielstand aus ActiveAttemptEngine)
+       =============================== */
+
+    // ✅ Laden für ActiveAttemptEngine: Attempt + Antworten der aktuellen Generation in EINER Query
+    // eine Zeile pro Antwort; ohne Antwortzeilen (auch: gepackt) genau eine Zeile mit questionId = null
+    interface ActiveStateRow {
+        UUID getUserId();
+        UUID getQuizId();
+        Integer getGeneration();
+        Integer getCurrentPosition();
+        Integer getAnsweredCount();
+        Instant getStartedAt();
+        byte[] getAnswerVector();
+        UUID getQuestionId();
+        Integer getSelectedIndex();
+        Boolean getCorrect();
+    }
+
+    @Query("""
+        select a.userId as userId,
+               a.quizId as quizId,
+               a.generation as generation,
+               a.currentPosition as currentPosition,
+               a.answeredCount as answeredCount,
+               coalesce(a.startedAt, a.createdAt) as startedAt,
+               a.answerVector as answerVector,
+               x.question.id as questionId,
+               x.selectedIndex as selectedIndex,
+               x.correct as correct
+        from QuizAttempt a
+        left join QuizAttemptAnswer x
+               on x.attempt.id = a.id
+              and x.generation = a.generation
+        where a.id = :attemptId
+    """)
+    List<ActiveStateRow> findActiveState(@Param("attemptId") UUID attemptId);
+
+    // ✅ nur mit der Anzahl tatsächlich eingefügter Answers aufrufen – Inkrement passiert in der DB, nicht im Java-Objekt
+    // generation: ein paralleler Neustart hat Vorrang, Antworten der alten Generation zählen dann nicht mehr
+    @Modifying
+    @Query(value = """
+        update quiz_attempts
+           set answered_count = answered_count + :answeredDelta,
+               correct_count = correct_count + :correctDelta,
+               score = correct_count + :correctDelta,
+               total_questions = :total,
+               is_finished = (:total > 0 and answered_count + :answeredDelta >= :total),
+               current_position = :currentPosition,
+               updated_at = :now
+         where id = :attemptId
+           and generation = :generation
+    """, nativeQuery = true)
+    int recordAnswers(@Param("attemptId") UUID attemptId,
+                      @Param("generation") int generation,
+                      @Param("answeredDelta") int answeredDelta,
+                      @Param("correctDelta") int correctDelta,
+                      @Param("total") int total,
+                      @Param("currentPosition") int currentPosition,
+                      @Param("now") Instant now);
+
+    // ✅ gepacktes Format: Vektor + Zähler in EINEM Statement
+    // expectedAnswered = answered_count beim Laden -> parallele Schreiber (andere Instanz) überschreiben sich nicht
+    @Modifying
+    @Query(value = """
+        update quiz_attempts
+           set answer_vector = :vector,
+               answered_count = answered_count + :answeredDelta,
+               correct_count = correct_count + :correctDelta,
+               score = correct_count + :correctDelta,
+               total_questions = :total,
+               is_finished = (:total > 0 and answered_count + :answeredDelta >= :total),
+               current_position = :currentPosition,
+               updated_at = :now
+         where id = :attemptId
+           and generation = :generation
+           and answered_count = :expectedAnswered
+    """, nativeQuery = true)
+    int recordPackedAnswers(@Param("attemptId") UUID attemptId,
+                            @Param("generation") int generation,
+                            @Param("expectedAnswered") int expectedAnswered,
+                            @Param("vector") byte[] vector,
+                            @Param("answeredDelta") int answeredDelta,
+                            @Param("correctDelta") int correctDelta,
+                            @Param("total") int total,
+                            @Param("currentPosition") int currentPosition,
+                            @Param("now") Instant now);
+
+    // ✅ Generation-Check vor Antworten aus dem Speicherstand ohne Schreibzugriff (Neustart auf einer anderen Instanz)
+    @Query("select a.generation from QuizAttempt a where a.id = :attemptId")
+    Optional<Integer> findGeneration(@Param("attemptId") UUID attemptId);
+
+    // ✅ Neustart in O(1): neue Generation, alte Antworten werden unsichtbar und später vom Reaper weggeräumt
+    @Modifying
+    @Query("""
+        update QuizAttempt a
+           set a.generation = a.generation + 1,
+               a.reapPending = true,
+               a.currentPosition = 0,
+               a.answeredCount = 0,
+               a.correctCount = 0,
+               a.score = 0,
+               a.finished = false,
+               a.answerVector = null,
+               a.startedAt = :now,
+               a.updatedAt = :now
+         where a.id = :attemptId
+    """)
+    int startNextGeneration(@Param("attemptId") UUID attemptId, @Param("now") Instant now);
+
+    /* ===============================
+       REAPER
+       =============================== */
+
+    interface ReapTarget {
+        UUID getAttemptId();
+        Integer getGeneration();
+    }
+
+    @Query("""
+        select a.id as attemptId, a.generation as generation
+        from QuizAttempt a
+        where a.reapPending = true
+    """)
+    List<ReapTarget> findReapTargets(Limit limit);
+
+    // nur wenn seitdem kein weiterer Neustart kam – sonst bleibt das Flag für die neue Generation stehen
+    @Modifying
+    @Query("""
+        update QuizAttempt a
+           set a.reapPending = false
+         where a.id = :attemptId
+           and a.generation = :generation
+    """)
+    int clearReapPending(@Param("attemptId") UUID attemptId, @Param("generation") int generation);
+
+    /* ===============================
+       ANSWER-VEKTOR-MIGRATION (Antwortzeilen -> quiz_attempts.answer_vector)
+       =============================== */
+
+    interface PackTarget {
+        UUID getAttemptId();
+        UUID getQuizId();
+        Integer getGeneration();
+        byte[] getAnswerVector();
+    }
+
+    // Attempts mit Antwortzeilen der aktuellen Generation, Keyset über die id
+    @Query("""
+        select a.id as attemptId, a.quizId as quizId, a.generation as generation, a.answerVector as answerVector
+        from QuizAttempt a
+        where a.id > :after
+          and exists (select 1 from QuizAttemptAnswer x
+                       where x.attempt.id = a.id
+                         and x.generation = a.generation)
+        order by a.id
+    """)
+    List<PackTarget> findPackTargets(@Param("after") UUID after, Limit limit);
+
+    // nur wenn noch ungepackt und kein Neustart dazwischen kam
+    @Modifying
+    @Query(value = """
+        update quiz_attempts
+           set answer_vector = :vector
+         where id = :attemptId
+           and generation = :generation
+           and answer_vector is null
+    """, nativeQuery = true)
+    int packAnswers(@Param("attemptId") UUID attemptId, @Param("generation") int generation, @Param("vector") byte[] vector);
+
+    /* ===============================
+       ABGLEICH (AttemptReconciliationJob): Keyset-Chunks über die id, set-basierte Korrekturen
+       quietBefore: Attempts, die gerade gespielt werden, bleiben unberührt -> kein Rennen mit laufenden Antworten
+       =============================== */
+
+    @Query("select a.id from QuizAttempt a where a.id > :after order by a.id")
+    List<UUID> findIdsAfter(@Param("after") UUID after, Limit limit);
+
+    // Altbestand ohne total_questions
+    @Modifying
+    @Query(value = """
+        update quiz_attempts a
+           set total_questions = (select count(*) from quiz_questions q where q.quiz_id = a.quiz_id)
+         where a.id > :after and a.id <= :upTo
+           and a.updated_at < :quietBefore
+           and a.total_questions <= 0
+           and exists (select 1 from quiz_questions q where q.quiz_id = a.quiz_id)
+    """, nativeQuery = true)
+    int reconcileTotals(@Param("after") UUID after, @Param("upTo") UUID upTo, @Param("quietBefore") Instant quietBefore);
+
+    // Zähler gegen die Antwortzeilen der aktuellen Generation (gepackte Attempts schreiben Vektor + Zähler atomar)
+    @Modifying
+    @Query(value = """
+        update quiz_attempts a
+           set answered_count = (select count(*) from quiz_attempt_answers x
+                                  where x.attempt_id = a.id and x.generation = a.generation),
+               correct_count = (select count(*) from quiz_attempt_answers x
+                                 where x.attempt_id = a.id and x.generation = a.generation and x.is_correct = true),
+               score = (select count(*) from quiz_attempt_answers x
+                         where x.attempt_id = a.id and x.generation = a.generation and x.is_correct = true)
+         where a.id > :after and a.id <= :upTo
+           and a.answer_vector is null
+           and a.updated_at < :quietBefore
+           and (a.answered_count <> (select count(*) from quiz_attempt_answers x
+                                      where x.attempt_id = a.id and x.generation = a.generation)
+                or a.correct_count <> (select count(*) from quiz_attempt_answers x
+                                        where x.attempt_id = a.id and x.generation = a.generation and x.is_correct = true))
+    """, nativeQuery = true)
+    int reconcileCounters(@Param("after") UUID after, @Param("upTo") UUID upTo, @Param("quietBefore") Instant quietBefore);
+
+    // is_finished folgt aus den Zählern
+    @Modifying
+    @Query(value = """
+        update quiz_attempts a
+           set is_finished = (a.total_questions > 0 and a.answered_count >= a.total_questions)
+         where a.id > :after and a.id <= :upTo
+           and a.updated_at < :quietBefore
+           and a.is_finished <> (a.total_questions > 0 and a.answered_count >= a.total_questions)
+    """, nativeQuery = true)
+    int reconcileFinished(@Param("after") UUID after, @Param("upTo") UUID upTo, @Param("quietBefore") Instant quietBefore);
+
+    /* ===============================
+       LEADERBOARD
+       Punkte = Summe correct_count über ALLE Attempts (nicht nur finished!)
+       -> zählt nur die aktuelle Generation, ein Neustart setzt die Punkte des Attempts zurück
+       + nur Rolle "Anwender"
+       + Anwender ohne Attempts => 0 Punkte (LEFT JOIN)
+       =============================== */
+
+    // Namen lädt LeaderboardService nur für die angezeigten Einträge nach
+    interface LeaderboardScoreRow {
+        UUID getUserId();
+        long getPoints();
+    }
+
+    // Aufbau der Rangliste (LeaderboardRanking) – einmal beim Start bzw. beim periodischen Resync
+    @Query("""
+        select u.authUserId as userId,
+               coalesce(sum(a.correctCount), 0) as points
+        from User u
+        left join QuizAttempt a
+               on a.userId = u.authUserId
+        where u.role = 'Anwender'
+        group by u.authUserId
+    """)
+    List<LeaderboardScoreRow> getLeaderboardScores();
+
+    // einzelner Anwender (neu angelegt / Rolle geändert); empty = kein Anwender
+    @Query("""
+        select u.authUserId as userId,
+               coalesce(sum(a.correctCount), 0) as points
+        from User u
+        left join QuizAttempt a
+               on a.userId = u.authUserId
+        where u.role = 'Anwender'
+          and u.authUserId = :userId
+        group by u.authUserId
+    """)
+    Optional<LeaderboardScoreRow> getLeaderboardScore(@Param("userId") UUID userId);
+}
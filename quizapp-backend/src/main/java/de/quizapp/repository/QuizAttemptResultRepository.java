@@ -0,0 +1,84 @@
+package de.quizapp.repository;
+
+import de.quizapp.model.QuizAttemptResult;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface QuizAttemptResultRepository extends JpaRepository<QuizAttemptResult, QuizAttemptResult.Key> {
+
+    // ✅ beim Übergang auf finished: Zähler direkt aus der Attempt-Zeile übernehmen
+    // Guard auf generation + is_finished -> ein paralleler Neustart schreibt kein Ergebnis; doppelter Aufruf = No-Op
+    @Modifying
+    @Query(value = """
+        insert into quiz_attempt_results
+               (attempt_id, generation, user_id, quiz_id, total_questions, correct_count, wrong_count, duration_millis, finished_at)
+        select a.id, a.generation, a.user_id, a.quiz_id, a.total_questions, a.correct_count,
+               a.answered_count - a.correct_count, :durationMillis, :finishedAt
+          from quiz_attempts a
+         where a.id = :attemptId
+           and a.generation = :generation
+           and a.is_finished = true
+        on conflict do nothing
+    """, nativeQuery = true)
+    int insertIfFinished(@Param("attemptId") UUID attemptId,
+                         @Param("generation") int generation,
+                         @Param("durationMillis") long durationMillis,
+                         @Param("finishedAt") Instant finishedAt);
+
+    // ✅ Ergebnisseite: Zusammenfassung der aktuellen Generation (frühere Durchläufe bleiben stehen), eine Query
+    @Query("""
+        select r
+        from QuizAttemptResult r, QuizAttempt a
+        where a.id = :attemptId
+          and r.attemptId = a.id
+          and r.generation = a.generation
+    """)
+    Optional<QuizAttemptResult> findCurrent(@Param("attemptId") UUID attemptId);
+
+    // ✅ Quiz-Bestenliste: bestes Ergebnis pro Benutzer (über alle Durchläufe, auch vor einem Neustart) (mehr richtig, dann schneller, dann früher), davon die ersten :k
+    // Dauer unbekannt (Altbestand) zählt als langsamste; nur Anwender wie in der globalen Rangliste
+    @Query(value = """
+        select b.attempt_id, b.generation, b.user_id, b.quiz_id, b.total_questions, b.correct_count, b.wrong_count,
+               b.duration_millis, b.finished_at
+          from (select r.*,
+                       row_number() over (partition by r.user_id
+                                          order by r.correct_count desc, r.duration_millis asc nulls last,
+                                                   r.finished_at asc, r.attempt_id asc) as rn
+                  from quiz_attempt_results r
+                  join users u on u.auth_user_id = r.user_id and u.role = 'Anwender'
+                 where r.quiz_id = :quizId) b
+         where b.rn = 1
+         order by b.correct_count desc, b.duration_millis asc nulls last, b.finished_at asc, b.attempt_id asc
+         limit :k
+    """, nativeQuery = true)
+    List<QuizAttemptResult> findBestPerUser(@Param("quizId") UUID quizId, @Param("k") int k);
+
+    // ✅ Quiz gelöscht: seine Ergebnisse mit (kein Fremdschlüssel)
+    @Modifying
+    @Query("delete from QuizAttemptResult r where r.quizId = :quizId")
+    int deleteByQuizId(@Param("quizId") UUID quizId);
+
+    // ✅ Abgleich: beendete Attempts ohne Zusammenfassung (Altbestand -> Dauer unbekannt), pro Keyset-Chunk
+    // on conflict: ein paralleles Beenden hat die Zeile schon geschrieben
+    @Modifying
+    @Query(value = """
+        insert into quiz_attempt_results
+               (attempt_id, generation, user_id, quiz_id, total_questions, correct_count, wrong_count, duration_millis, finished_at)
+        select a.id, a.generation, a.user_id, a.quiz_id, a.total_questions, a.correct_count,
+               a.answered_count - a.correct_count, null, a.updated_at
+          from quiz_attempts a
+         where a.id > :after and a.id <= :upTo
+           and a.is_finished = true
+           and a.updated_at < :quietBefore
+           and not exists (select 1 from quiz_attempt_results r where r.attempt_id = a.id and r.generation = a.generation)
+        on conflict do nothing
+    """, nativeQuery = true)
+    int reconcileMissing(@Param("after") UUID after, @Param("upTo") UUID upTo, @Param("quietBefore") Instant quietBefore);
+}
@@ -1,8 +1,12 @@
 package de.quizapp.repository;
 
 import de.quizapp.model.Quiz;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -11,6 +15,39 @@ public interface QuizRepository extends JpaRepository<Quiz, UUID> {
     // ✅ für QuizService.listByOwner(...)
     List<Quiz> findByOwnerUserId(UUID ownerUserId);
 
-    // ✅ für QuizPlayService.getNewPublishedQuizzesForUser(...)
+    // ✅ für QuizService.listPublished(...)
     List<Quiz> findByIsPublishedTrueOrderByCreatedAtDesc();
+
+    /* ===============================
+       "Neue Quizzes": veröffentlicht + vom User noch nie begonnen
+       Anti-Join (NOT EXISTS) + Keyset auf (created_at, id) statt exists-Query pro Quiz
+       =============================== */
+
+    interface FeedRow {
+        UUID getId();
+        String getTitle();
+        OffsetDateTime getCreatedAt();
+    }
+
+    @Query("""
+        select q.id as id, q.title as title, q.createdAt as createdAt
+        from Quiz q
+        where q.isPublished = true
+          and not exists (select 1 from QuizAttempt a where a.userId = :userId and a.quizId = q.id)
+        order by q.createdAt desc, q.id desc
+    """)
+    List<FeedRow> findNewForUser(@Param("userId") UUID userId, Limit limit);
+
+    @Query("""
+        select q.id as id, q.title as title, q.createdAt as createdAt
+        from Quiz q
+        where q.isPublished = true
+          and (q.createdAt < :createdAt or (q.createdAt = :createdAt and q.id < :id))
+          and not exists (select 1 from QuizAttempt a where a.userId = :userId and a.quizId = q.id)
+        order by q.createdAt desc, q.id desc
+    """)
+    List<FeedRow> findNewForUserAfter(@Param("userId") UUID userId,
+                                      @Param("createdAt") OffsetDateTime createdAt,
+                                      @Param("id") UUID id,
+                                      Limit limit);
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import de.quizapp.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -14,4 +15,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     // optional nützlich (z.B. Admin-Listen / Leaderboard-Alternativen)
     List<User> findAllByRole(String role);
+
+    // Namen für eine Seite der Rangliste
+    List<User> findAllByAuthUserIdIn(Collection<UUID> authUserIds);
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package de.quizapp.repository;
+
+import de.quizapp.model.UserStats;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public interface UserStatsRepository extends JpaRepository<UserStats, UUID> {
+
+    // ✅ Delta in der Transaktion des Spielpfads; 0 = Zeile fehlt noch (-> insertFromAggregates)
+    @Modifying
+    @Query(value = """
+        update user_stats
+           set points = points + :points,
+               finished_quizzes = finished_quizzes + :finished,
+               attempts = attempts + :attempts,
+               last_activity_at = :now
+         where user_id = :userId
+    """, nativeQuery = true)
+    int bump(@Param("userId") UUID userId,
+             @Param("points") long points,
+             @Param("finished") long finished,
+             @Param("attempts") long attempts,
+             @Param("now") Instant now);
+
+    // ✅ erste Zeile eines Benutzers aus den Aggregaten (enthält die Änderungen der laufenden Transaktion schon)
+    // finished_quizzes = Ergebnisse der aktuellen Generation; frühere Durchläufe bleiben als Zeilen stehen, zählen aber nicht
+    // on conflict: parallel angelegt -> Aufrufer zählt sein Delta per bump
+    @Modifying
+    @Query(value = """
+        insert into user_stats (user_id, points, finished_quizzes, attempts, last_activity_at)
+        select :userId,
+               (select coalesce(sum(a.correct_count), 0) from quiz_attempts a where a.user_id = :userId),
+               (select count(*) from quiz_attempt_results r
+                  join quiz_attempts a on a.id = r.attempt_id and a.generation = r.generation
+                 where r.user_id = :userId),
+               (select count(*) from quiz_attempts a where a.user_id = :userId),
+               (select max(a.updated_at) from quiz_attempts a where a.user_id = :userId)
+        on conflict do nothing
+    """, nativeQuery = true)
+    int insertFromAggregates(@Param("userId") UUID userId);
+
+    /* ===============================
+       ABGLEICH (UserStatsReconciliationJob): Keyset-Chunks über user_id
+       quietBefore: gerade aktive Benutzer bleiben unberührt -> kein Rennen mit laufenden Deltas
+       =============================== */
+
+    @Query("select s.userId from UserStats s where s.userId > :after order by s.userId")
+    List<UUID> findIdsAfter(@Param("after") UUID after, Limit limit);
+
+    @Modifying
+    @Query(value = """
+        update user_stats s
+           set points = (select coalesce(sum(a.correct_count), 0) from quiz_attempts a where a.user_id = s.user_id),
+               finished_quizzes = (select count(*) from quiz_attempt_results r
+                                     join quiz_attempts a on a.id = r.attempt_id and a.generation = r.generation
+                                    where r.user_id = s.user_id),
+               attempts = (select count(*) from quiz_attempts a where a.user_id = s.user_id)
+         where s.user_id > :after and s.user_id <= :upTo
+           and (s.last_activity_at is null or s.last_activity_at < :quietBefore)
+           and (s.points <> (select coalesce(sum(a.correct_count), 0) from quiz_attempts a where a.user_id = s.user_id)
+             or s.finished_quizzes <> (select count(*) from quiz_attempt_results r
+                                         join quiz_attempts a on a.id = r.attempt_id and a.generation = r.generation
+                                        where r.user_id = s.user_id)
+             or s.attempts <> (select count(*) from quiz_attempts a where a.user_id = s.user_id))
+    """, nativeQuery = true)
+    int reconcile(@Param("after") UUID after, @Param("upTo") UUID upTo, @Param("quietBefore") Instant quietBefore);
+}
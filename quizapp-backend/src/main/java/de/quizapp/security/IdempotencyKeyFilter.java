@@ -0,0 +1,281 @@
+package de.quizapp.security;
+
+import de.quizapp.service.IdempotencyStore;
+import de.quizapp.service.IdempotencyStore.StoredResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Idempotency-Key für POSTs im Play-Flow (Start, Restart, Antworten).
+ * - gleicher Key + gleicher Body -> gespeicherte Antwort wird wiederholt, Service läuft nicht nochmal
+ * - gleicher Key + anderer Body -> 422
+ * - paralleles Duplikat wartet auf die erste Ausführung
+ * Gespeichert werden nur 2xx-Antworten; nach einem Fehler darf der Client mit demselben Key erneut senden.
+ * Läuft nach der Security-Chain (User steht im SecurityContext).
+ */
+@Component
+public class IdempotencyKeyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final List<String> paths;
+    private final Duration waitTimeout;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter mismatched;
+    private final Counter timedOut;
+
+    public IdempotencyKeyFilter(
+            IdempotencyStore store,
+            MeterRegistry meterRegistry,
+            @Value("${app.idempotency.paths:/api/play/attempts,/api/play/attempts/*/answer,/api/play/attempts/*/answers,/api/play/quizzes/*/restart}") String paths,
+            @Value("${app.idempotency.wait-timeout:10s}") Duration waitTimeout
+    ) {
+        this.store = store;
+        this.paths = Arrays.stream(paths.split(",")).map(String::trim).filter(p -> !p.isEmpty()).toList();
+        this.waitTimeout = waitTimeout;
+
+        this.executed = counter(meterRegistry, "executed");
+        this.replayed = counter(meterRegistry, "replayed");
+        this.mismatched = counter(meterRegistry, "mismatch");
+        this.timedOut = counter(meterRegistry, "timeout");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod()) || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null) return true;
+        String path = request.getRequestURI();
+        return paths.stream().noneMatch(p -> pathMatcher.match(p, path));
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || auth.getName() == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST,
+                    IDEMPOTENCY_KEY_HEADER + " muss 1-" + MAX_KEY_LENGTH + " Zeichen lang sein");
+            return;
+        }
+
+        // ✅ Key gilt pro User + Endpoint -> fremde Keys kollidieren nie
+        String keyHash = sha256(auth.getName() + '\n' + request.getMethod() + ' ' + request.getRequestURI() + '\n' + key);
+
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String fingerprint = sha256(cachedRequest.body);
+
+        while (true) {
+            StoredResponse stored = store.find(keyHash);
+            if (stored != null) {
+                replay(response, stored, fingerprint);
+                return;
+            }
+
+            CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = store.claim(keyHash, mine);
+            if (running != null) {
+                StoredResponse result;
+                try {
+                    result = running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    timedOut.increment();
+                    response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                    writeError(response, HttpServletResponse.SC_CONFLICT, "Request mit diesem Idempotency-Key läuft noch");
+                    return;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ServletException(e);
+                } catch (ExecutionException e) {
+                    result = null;
+                }
+                if (result != null) {
+                    replay(response, result, fingerprint);
+                    return;
+                }
+                // erste Ausführung ohne gespeicherte Antwort (Fehler) -> selbst ausführen
+                continue;
+            }
+
+            execute(cachedRequest, response, filterChain, keyHash, fingerprint, mine);
+            return;
+        }
+    }
+
+    private void execute(
+            CachedBodyRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain,
+            String keyHash,
+            String fingerprint,
+            CompletableFuture<StoredResponse> mine
+    ) throws ServletException, IOException {
+
+        StoredResponse result = null;
+        try {
+            // zwischen find() und claim() kann eine andere Ausführung fertig geworden sein
+            StoredResponse stored = store.find(keyHash);
+            if (stored != null) {
+                // Wartende finden die Antwort beim nächsten find() selbst
+                replay(response, stored, fingerprint);
+                return;
+            }
+
+            executed.increment();
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            filterChain.doFilter(request, wrapper);
+
+            int status = wrapper.getStatus();
+            if (status >= 200 && status < 300) {
+                result = new StoredResponse(fingerprint, status, wrapper.getContentType(), wrapper.getContentAsByteArray());
+            }
+            wrapper.copyBodyToResponse();
+        } finally {
+            store.complete(keyHash, mine, result);
+        }
+    }
+
+    private void replay(HttpServletResponse response, StoredResponse stored, String fingerprint) throws IOException {
+        if (!stored.requestFingerprint().equals(fingerprint)) {
+            mismatched.increment();
+            writeError(response, 422, IDEMPOTENCY_KEY_HEADER + " wurde bereits mit einem anderen Request verwendet");
+            return;
+        }
+
+        replayed.increment();
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) response.setContentType(stored.contentType());
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private static void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"error\":\"" + message.replace("\"", "\\\"") + "\"}");
+    }
+
+    private static String sha256(String value) {
+        return sha256(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String sha256(byte[] value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder("idempotency.requests")
+                .description("Requests mit Idempotency-Key nach Ergebnis")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /**
+     * Body wird vorab gelesen (für den Fingerprint) und dem Controller erneut bereitgestellt.
+     */
+    static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() { return in.available() == 0; }
+
+                @Override
+                public boolean isReady() { return true; }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // Body liegt komplett im Speicher -> sofort lesbar und danach fertig
+                    try {
+                        if (!isFinished()) listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() { return in.read(); }
+
+                @Override
+                public int read(byte[] b, int off, int len) { return in.read(b, off, len); }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+
+        @Override
+        public int getContentLength() { return body.length; }
+
+        @Override
+        public long getContentLengthLong() { return body.length; }
+    }
+}
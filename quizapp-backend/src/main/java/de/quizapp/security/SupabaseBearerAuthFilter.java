@@ -1,5 +1,6 @@
 package de.quizapp.security;
 
+import de.quizapp.service.SupabaseUnavailableException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -16,10 +17,10 @@ import java.util.List;
 @Component
 public class SupabaseBearerAuthFilter extends OncePerRequestFilter {
 
-    private final SupabaseTokenService tokenService;
+    private final TokenResolutionCache tokenCache;
 
-    public SupabaseBearerAuthFilter(SupabaseTokenService tokenService) {
-        this.tokenService = tokenService;
+    public SupabaseBearerAuthFilter(TokenResolutionCache tokenCache) {
+        this.tokenCache = tokenCache;
     }
 
     @Override
@@ -46,13 +47,16 @@ public class SupabaseBearerAuthFilter extends OncePerRequestFilter {
 
         String token = auth.substring("Bearer ".length()).trim();
 
+        String userId;
         try {
-            String userId = tokenService.resolveUserIdOrThrow(token);
-
-            var authentication = new UsernamePasswordAuthenticationToken(userId, null, List.of());
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-
-            filterChain.doFilter(request, response);
+            userId = tokenCache.resolveUserIdOrThrow(token);
+        } catch (SupabaseUnavailableException e) {
+            // Token konnte nicht geprüft werden -> nicht 401 (Client würde sonst ausloggen)
+            SecurityContextHolder.clearContext();
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+            response.getWriter().write(e.getMessage());
+            return;
         } catch (Exception e) {
             SecurityContextHolder.clearContext();
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
@@ -60,6 +64,12 @@ public class SupabaseBearerAuthFilter extends OncePerRequestFilter {
             // ✅ WICHTIG: echte Ursache ausgeben
             String msg = e.getClass().getSimpleName() + ": " + (e.getMessage() == null ? "no message" : e.getMessage());
             response.getWriter().write("Invalid token (" + msg + ")");
+            return;
         }
+
+        var authentication = new UsernamePasswordAuthenticationToken(userId, null, List.of());
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        filterChain.doFilter(request, response);
     }
 }
\ No newline at end of file
@@ -1,47 +1,192 @@
 package de.quizapp.security;
 
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jwt.JWTParser;
+import de.quizapp.service.SupabaseClient;
+import de.quizapp.service.SupabaseOperation;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.jwt.JwtClaimValidator;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClient;
+import org.springframework.web.client.HttpClientErrorException;
 
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
 import java.util.Map;
 
 @Service
 public class SupabaseTokenService {
 
-    private final RestClient restClient;
+    /**
+     * local  = Signatur + exp lokal prüfen (HS256-Secret oder JWKS), Supabase nur noch als Fallback
+     * remote = jeder Request fragt GET /auth/v1/user bei Supabase an (altes Verhalten)
+     */
+    public enum VerificationMode { LOCAL, REMOTE }
+
+    private final SupabaseClient supabaseClient;
     private final String supabaseUrl;
-    private final String serviceRoleKey;
+
+    private final VerificationMode mode;
+    private final boolean remoteFallback;
+
+    // null, wenn kein JWT-Secret konfiguriert ist (dann nur asymmetrische Keys via JWKS)
+    private final JwtDecoder hmacDecoder;
+    private final JwtDecoder jwksDecoder;
 
     public SupabaseTokenService(
+            SupabaseClient supabaseClient,
             @Value("${supabase.url}") String supabaseUrl,
-            @Value("${supabase.service_role_key}") String serviceRoleKey
+            @Value("${supabase.auth.verification-mode:local}") String verificationMode,
+            @Value("${supabase.auth.remote-fallback:true}") boolean remoteFallback,
+            @Value("${supabase.jwt_secret:}") String jwtSecret,
+            @Value("${supabase.auth.issuer:}") String issuer
     ) {
-        this.supabaseUrl = supabaseUrl;
-        this.serviceRoleKey = serviceRoleKey;
-        this.restClient = RestClient.create();
+        this.supabaseClient = supabaseClient;
+        this.supabaseUrl = stripTrailingSlash(supabaseUrl);
+
+        this.mode = VerificationMode.valueOf(verificationMode.trim().toUpperCase());
+        this.remoteFallback = remoteFallback;
+
+        String expectedIssuer = (issuer == null || issuer.isBlank())
+                ? this.supabaseUrl + "/auth/v1"
+                : stripTrailingSlash(issuer);
+
+        OAuth2TokenValidator<Jwt> validator = new DelegatingOAuth2TokenValidator<>(
+                JwtValidators.createDefaultWithIssuer(expectedIssuer),
+                // ✅ anon/service_role Keys sind auch gültige JWTs, haben aber kein "sub"
+                new JwtClaimValidator<String>(JwtClaimNames.SUB, sub -> sub != null && !sub.isBlank())
+        );
+
+        if (jwtSecret != null && !jwtSecret.isBlank()) {
+            NimbusJwtDecoder hmac = NimbusJwtDecoder
+                    .withSecretKey(new SecretKeySpec(jwtSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"))
+                    .macAlgorithm(MacAlgorithm.HS256)
+                    .build();
+            hmac.setJwtValidator(validator);
+            this.hmacDecoder = hmac;
+        } else {
+            this.hmacDecoder = null;
+        }
+
+        // JWKS wird vom Decoder im Speicher gehalten und nur bei unbekannter "kid" neu geladen
+        NimbusJwtDecoder jwks = NimbusJwtDecoder
+                .withJwkSetUri(this.supabaseUrl + "/auth/v1/.well-known/jwks.json")
+                .restOperations(supabaseClient.restTemplate())
+                .jwsAlgorithms(algs -> {
+                    algs.add(SignatureAlgorithm.RS256);
+                    algs.add(SignatureAlgorithm.ES256);
+                })
+                .build();
+        jwks.setJwtValidator(validator);
+        this.jwksDecoder = jwks;
     }
 
     /**
-     * Validiert den Bearer Token via Supabase Auth API und gibt die auth_user_id zurück.
+     * Validiert den Bearer Token und gibt die auth_user_id zurück.
+     * Endgültig abgelehnte Tokens führen zu einer {@link InvalidBearerTokenException}.
      */
     public String resolveUserIdOrThrow(String bearerToken) {
-        // ✅ generics, damit keine "raw type" Warnung entsteht
-        @SuppressWarnings("unchecked")
-        Map<String, Object> body = (Map<String, Object>) restClient.get()
-                .uri(supabaseUrl + "/auth/v1/user")
-                .header(HttpHeaders.AUTHORIZATION, "Bearer " + bearerToken)
-                .header("apikey", serviceRoleKey)
-                .accept(MediaType.APPLICATION_JSON)
-                .retrieve()
-                .body(Map.class);
+        if (mode == VerificationMode.LOCAL) {
+            try {
+                return resolveUserIdLocally(bearerToken);
+            } catch (LocalVerificationUnavailableException e) {
+                if (!remoteFallback) {
+                    throw new InvalidBearerTokenException("Token lokal nicht prüfbar: " + e.getMessage());
+                }
+            }
+        }
+        return resolveUserIdRemotely(bearerToken);
+    }
+
+    /**
+     * Prüft Signatur, exp/nbf, Issuer und "sub" ohne Netzwerkzugriff (außer beim ersten JWKS-Abruf).
+     */
+    String resolveUserIdLocally(String bearerToken) {
+        JWSAlgorithm alg = readAlgorithm(bearerToken);
+
+        JwtDecoder decoder;
+        if (JWSAlgorithm.HS256.equals(alg)) {
+            if (hmacDecoder == null) {
+                throw new LocalVerificationUnavailableException("kein supabase.jwt_secret für HS256 konfiguriert");
+            }
+            decoder = hmacDecoder;
+        } else if (JWSAlgorithm.RS256.equals(alg) || JWSAlgorithm.ES256.equals(alg)) {
+            decoder = jwksDecoder;
+        } else {
+            throw new InvalidBearerTokenException("Nicht unterstützter Algorithmus: " + alg);
+        }
+
+        try {
+            return decoder.decode(bearerToken).getSubject();
+        } catch (BadJwtException e) {
+            // Signatur, Ablauf oder Claims ungültig -> endgültig
+            throw new InvalidBearerTokenException(e.getMessage(), e);
+        } catch (JwtException e) {
+            // z. B. JWKS nicht erreichbar -> nicht die Schuld des Tokens
+            throw new LocalVerificationUnavailableException(e.getMessage());
+        }
+    }
+
+    /**
+     * Validiert den Bearer Token via Supabase Auth API und gibt die auth_user_id zurück.
+     */
+    String resolveUserIdRemotely(String bearerToken) {
+        Map<String, Object> body;
+        try {
+            // ✅ generics, damit keine "raw type" Warnung entsteht
+            @SuppressWarnings("unchecked")
+            Map<String, Object> response = (Map<String, Object>) supabaseClient
+                    .request(SupabaseOperation.TOKEN_VALIDATION, HttpMethod.GET, "auth.user", "/auth/v1/user")
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + bearerToken)
+                    .accept(MediaType.APPLICATION_JSON)
+                    .retrieve()
+                    .body(Map.class);
+            body = response;
+        } catch (HttpClientErrorException.Unauthorized | HttpClientErrorException.Forbidden e) {
+            throw new InvalidBearerTokenException("Token von Supabase abgelehnt (" + e.getStatusCode() + ")", e);
+        }
 
         if (body == null || body.get("id") == null) {
-            throw new IllegalArgumentException("Token ungültig (Supabase user id fehlt)");
+            throw new InvalidBearerTokenException("Token ungültig (Supabase user id fehlt)");
         }
 
         return body.get("id").toString(); // UUID String
     }
-}
\ No newline at end of file
+
+    private static JWSAlgorithm readAlgorithm(String token) {
+        try {
+            return JWSAlgorithm.parse(JWTParser.parse(token).getHeader().getAlgorithm().getName());
+        } catch (ParseException | RuntimeException e) {
+            throw new InvalidBearerTokenException("Token ist kein gültiges JWT");
+        }
+    }
+
+    private static String stripTrailingSlash(String url) {
+        if (url == null) return "";
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    /**
+     * Lokale Prüfung nicht möglich (fehlendes Key-Material) – kein Urteil über das Token selbst.
+     */
+    static class LocalVerificationUnavailableException extends RuntimeException {
+        LocalVerificationUnavailableException(String message) {
+            super(message);
+        }
+    }
+}
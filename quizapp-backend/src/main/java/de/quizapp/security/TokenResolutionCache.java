@@ -0,0 +1,171 @@
+package de.quizapp.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.nimbusds.jwt.JWTParser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache vor {@link SupabaseTokenService}:
+ * - positive Einträge leben max. {@code max-ttl}, aber nie länger als das exp des Tokens
+ * - abgelehnte Tokens werden kurz negativ gecacht
+ * - gleichzeitige Lookups desselben Tokens teilen sich einen Upstream-Call (single-flight)
+ */
+@Component
+public class TokenResolutionCache {
+
+    private final SupabaseTokenService tokenService;
+    private final Cache<String, Resolution> cache;
+    private final ConcurrentHashMap<String, CompletableFuture<Resolution>> inFlight = new ConcurrentHashMap<>();
+
+    private final long maxTtlNanos;
+    private final long negativeTtlNanos;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+
+    public TokenResolutionCache(
+            SupabaseTokenService tokenService,
+            MeterRegistry meterRegistry,
+            @Value("${app.auth.token-cache.max-size:10000}") long maxSize,
+            @Value("${app.auth.token-cache.max-ttl:5m}") Duration maxTtl,
+            @Value("${app.auth.token-cache.negative-ttl:10s}") Duration negativeTtl
+    ) {
+        this.tokenService = tokenService;
+        this.maxTtlNanos = maxTtl.toNanos();
+        this.negativeTtlNanos = negativeTtl.toNanos();
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.creating((String key, Resolution r) -> Duration.ofNanos(r.ttlNanos())))
+                .build();
+
+        this.hits = counter(meterRegistry, "hit");
+        this.misses = counter(meterRegistry, "miss");
+        this.coalesced = counter(meterRegistry, "coalesced");
+        Gauge.builder("auth.token.cache.size", cache, Cache::estimatedSize)
+                .description("Anzahl gecachter Token-Auflösungen (positiv + negativ)")
+                .register(meterRegistry);
+    }
+
+    public String resolveUserIdOrThrow(String bearerToken) {
+        String key = fingerprint(bearerToken);
+
+        Resolution cached = cache.getIfPresent(key);
+        if (cached != null) {
+            hits.increment();
+            return cached.userIdOrThrow();
+        }
+
+        CompletableFuture<Resolution> mine = new CompletableFuture<>();
+        CompletableFuture<Resolution> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.increment();
+            return await(running).userIdOrThrow();
+        }
+
+        try {
+            // Ein vorheriger Flight kann zwischen getIfPresent und putIfAbsent fertig geworden sein
+            Resolution resolved = cache.getIfPresent(key);
+            if (resolved != null) {
+                hits.increment();
+                mine.complete(resolved);
+                return resolved.userIdOrThrow();
+            }
+
+            misses.increment();
+            resolved = resolve(bearerToken);
+            if (resolved.ttlNanos() > 0) cache.put(key, resolved);
+            mine.complete(resolved);
+            return resolved.userIdOrThrow();
+        } catch (RuntimeException e) {
+            // Supabase nicht erreichbar o. ä. -> nicht cachen, Wartende bekommen denselben Fehler
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private Resolution resolve(String bearerToken) {
+        try {
+            String userId = tokenService.resolveUserIdOrThrow(bearerToken);
+            return Resolution.valid(userId, positiveTtlNanos(bearerToken));
+        } catch (InvalidBearerTokenException e) {
+            return Resolution.rejected(e.getMessage(), negativeTtlNanos);
+        }
+    }
+
+    /**
+     * Token ist an dieser Stelle bereits geprüft – exp wird nur noch für die TTL gelesen.
+     */
+    private long positiveTtlNanos(String bearerToken) {
+        try {
+            Date exp = JWTParser.parse(bearerToken).getJWTClaimsSet().getExpirationTime();
+            if (exp == null) return maxTtlNanos;
+            long untilExp = Duration.ofMillis(exp.getTime() - System.currentTimeMillis()).toNanos();
+            return Math.max(0, Math.min(maxTtlNanos, untilExp));
+        } catch (Exception e) {
+            return maxTtlNanos;
+        }
+    }
+
+    private static Resolution await(CompletableFuture<Resolution> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+
+    // Rohes Token soll nicht als Key im Heap liegen
+    private static String fingerprint(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder("auth.token.cache.requests")
+                .description("Token-Auflösungen nach Ergebnis (hit/miss/coalesced)")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private record Resolution(String userId, String error, long ttlNanos) {
+
+        static Resolution valid(String userId, long ttlNanos) {
+            return new Resolution(userId, null, ttlNanos);
+        }
+
+        static Resolution rejected(String error, long ttlNanos) {
+            return new Resolution(null, error, ttlNanos);
+        }
+
+        String userIdOrThrow() {
+            if (userId == null) throw new InvalidBearerTokenException(error);
+            return userId;
+        }
+    }
+}
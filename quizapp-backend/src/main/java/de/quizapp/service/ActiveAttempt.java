@@ -0,0 +1,126 @@
+package de.quizapp.service;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Spielstand eines laufenden Attempts im Speicher (aktuelle Generation).
+ * Beantwortet/richtig als Bitsets, Bit-Index = Index der Frage in {@link QuizSnapshot#questions()}.
+ *
+ * Änderungen nur unter {@link #lock()} – ReentrantLock statt synchronized, weil unter dem Lock DB-I/O läuft
+ * (kein Pinning von Virtual Threads).
+ */
+public final class ActiveAttempt {
+
+    private final UUID attemptId;
+    private final UUID userId;
+    private final QuizSnapshot quiz;
+    private final int generation;
+    private final Instant startedAt;
+
+    private final BitSet answered;
+    private final BitSet correct;
+    private final int[] selected;
+    private int currentPosition;
+
+    // answered_count in der DB – Guard für das Schreiben des gepackten Vektors
+    private int persistedAnswered;
+    // Antworten liegen in quiz_attempts.answer_vector statt in quiz_attempt_answers
+    private boolean packed;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    ActiveAttempt(UUID attemptId, UUID userId, QuizSnapshot quiz, int generation, Instant startedAt, int currentPosition,
+                  int persistedAnswered, boolean packed) {
+        this.attemptId = attemptId;
+        this.userId = userId;
+        this.quiz = quiz;
+        this.generation = generation;
+        this.startedAt = startedAt;
+        this.currentPosition = currentPosition;
+        this.persistedAnswered = persistedAnswered;
+        this.packed = packed;
+        this.answered = new BitSet(quiz.size());
+        this.correct = new BitSet(quiz.size());
+        this.selected = new int[quiz.size()];
+        Arrays.fill(selected, PackedAnswers.NONE);
+    }
+
+    public UUID attemptId() { return attemptId; }
+
+    public UUID userId() { return userId; }
+
+    public UUID quizId() { return quiz.quizId(); }
+
+    /** Snapshot, auf den sich die Bit-Indizes beziehen. */
+    public QuizSnapshot quiz() { return quiz; }
+
+    public int generation() { return generation; }
+
+    /** Start des aktuellen Durchlaufs. */
+    public Instant startedAt() { return startedAt; }
+
+    public int total() { return quiz.size(); }
+
+    public int currentPosition() { return currentPosition; }
+
+    public boolean isPacked() { return packed; }
+
+    int persistedAnswered() { return persistedAnswered; }
+
+    public boolean isAnswered(int ordinal) { return answered.get(ordinal); }
+
+    public boolean isCorrect(int ordinal) { return correct.get(ordinal); }
+
+    /** Gewählter Index oder null, wenn (noch) nicht beantwortet. */
+    public Integer selectedIndex(int ordinal) {
+        int s = selected[ordinal];
+        return s == PackedAnswers.NONE ? null : s;
+    }
+
+    public int answeredCount() { return answered.cardinality(); }
+
+    public int correctCount() { return correct.cardinality(); }
+
+    public boolean isFinished() {
+        return total() > 0 && answeredCount() >= total();
+    }
+
+    /** Kleinste offene Position (Fragen sind nach Position sortiert) oder null, wenn alles beantwortet ist. */
+    public Integer nextOpenPosition() {
+        int ordinal = answered.nextClearBit(0);
+        return ordinal < total() ? quiz.questions().get(ordinal).position() : null;
+    }
+
+    /** Aktueller Stand im gepackten Format. */
+    byte[] pack() {
+        return PackedAnswers.encode(quiz.version(), selected, correct);
+    }
+
+    void lock() { lock.lock(); }
+
+    void unlock() { lock.unlock(); }
+
+    /** Gespeicherte Antwort beim Laden übernehmen. */
+    void restore(int ordinal, int selectedIndex, boolean isCorrect) {
+        answered.set(ordinal);
+        selected[ordinal] = selectedIndex;
+        if (isCorrect) correct.set(ordinal);
+    }
+
+    /** Neue Antwort; gilt erst mit {@link #persisted} als geschrieben. */
+    void record(int ordinal, int selectedIndex, boolean isCorrect) {
+        restore(ordinal, selectedIndex, isCorrect);
+
+        Integer next = nextOpenPosition();
+        if (next != null) currentPosition = next;
+    }
+
+    void persisted(int answeredDelta, boolean asPacked) {
+        persistedAnswered += answeredDelta;
+        packed = packed || asPacked;
+    }
+}
@@ -0,0 +1,160 @@
+package de.quizapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.quizapp.repository.QuizAttemptRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Spielstand laufender Attempts im Speicher ({@link ActiveAttempt}), nach attemptId.
+ *
+ * Geladen wird einmal pro Spielsitzung (Attempt + Antworten der aktuellen Generation in einer Query),
+ * danach kommen nächste offene Position, finished und Score aus den Bitsets. Geschrieben wird weiter
+ * sofort in die DB (write-through); der Unique-Key auf quiz_attempt_answers bleibt die Wahrheit –
+ * widerspricht die DB dem Speicherstand, wird der Eintrag verworfen und neu geladen.
+ * Inaktive Attempts fallen nach idle-timeout heraus.
+ *
+ * Quelle beim Laden ist je Attempt entweder quiz_attempts.answer_vector (gepackt) oder quiz_attempt_answers.
+ *
+ * Der Stand ist pro Instanz: Neustart und Offline-Sync invalidieren hier – sofort und nochmal nach Abschluss
+ * der Transaktion (sonst lädt ein paralleler Leser die alte Generation wieder in den Cache).
+ * Neustarts auf anderen Instanzen: schreibende Pfade scheitern am Generation-Guard bzw. Insert-Konflikt und laden
+ * neu; Pfade, die ohne Schreibzugriff aus dem Speicher antworten (beendet / schon beantwortet), prüfen vorher
+ * die Generation gegen die DB ({@link #isStale}).
+ */
+@Component
+public class ActiveAttemptEngine {
+
+    /** Speicherformat für neue Antworten (app.answer-storage.mode). */
+    public enum AnswerStorage { ROWS, PACKED }
+
+    private final QuizAttemptRepository quizAttemptRepository;
+    private final QuizSnapshotCache quizSnapshots;
+    private final Cache<UUID, ActiveAttempt> active;
+    private final AnswerStorage storage;
+
+    public ActiveAttemptEngine(
+            QuizAttemptRepository quizAttemptRepository,
+            QuizSnapshotCache quizSnapshots,
+            MeterRegistry meterRegistry,
+            @Value("${app.active-attempts.max-attempts:100000}") long maxAttempts,
+            @Value("${app.active-attempts.idle-timeout:30m}") Duration idleTimeout,
+            @Value("${app.answer-storage.mode:rows}") String storage
+    ) {
+        this.quizAttemptRepository = quizAttemptRepository;
+        this.quizSnapshots = quizSnapshots;
+        this.storage = AnswerStorage.valueOf(storage.trim().toUpperCase());
+        this.active = Caffeine.newBuilder()
+                .maximumSize(maxAttempts)
+                .expireAfterAccess(idleTimeout)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, active, "attempt.active");
+    }
+
+    /** Stand des Attempts oder empty, wenn es ihn nicht gibt. */
+    public Optional<ActiveAttempt> find(UUID attemptId) {
+        if (attemptId == null) return Optional.empty();
+
+        ActiveAttempt cached = active.getIfPresent(attemptId);
+        if (cached != null && isCurrent(cached)) return Optional.of(cached);
+
+        // kein cache.get(key, loader): der lädt unter einem Monitor (siehe QuizSnapshotCache)
+        ActiveAttempt loaded = load(attemptId);
+        if (loaded == null) {
+            active.invalidate(attemptId);
+            return Optional.empty();
+        }
+
+        // paralleler Load desselben Attempts: der erste gewinnt, damit alle auf demselben Lock arbeiten
+        ActiveAttempt winner = active.asMap().merge(attemptId, loaded,
+                (existing, fresh) -> existing != cached && existing.quiz().version() == fresh.quiz().version() ? existing : fresh);
+        return Optional.of(winner);
+    }
+
+    public AnswerStorage storage() {
+        return storage;
+    }
+
+    /** Schon gepackte Attempts bleiben gepackt – auch wenn der Modus zurück auf rows gestellt wird. */
+    public boolean writesPacked(ActiveAttempt attempt) {
+        return storage == AnswerStorage.PACKED || attempt.isPacked();
+    }
+
+    /** Sofort und nach Abschluss der laufenden Transaktion entfernen (wie QuizSnapshotCache.invalidate). */
+    public void invalidate(UUID attemptId) {
+        active.invalidate(attemptId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    active.invalidate(attemptId);
+                }
+            });
+        }
+    }
+
+    /** Generation in der DB ist weiter (Neustart, evtl. auf einer anderen Instanz) oder der Attempt ist weg. */
+    public boolean isStale(ActiveAttempt a) {
+        return quizAttemptRepository.findGeneration(a.attemptId())
+                .map(g -> g != a.generation())
+                .orElse(true);
+    }
+
+    /** Rollback der laufenden Transaktion -> im Speicher gesetzte Bits gelten nicht mehr. */
+    public void invalidateOnRollback(UUID attemptId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) active.invalidate(attemptId);
+            }
+        });
+    }
+
+    // Quiz wurde bearbeitet -> Bit-Indizes passen nicht mehr zum Snapshot
+    private boolean isCurrent(ActiveAttempt a) {
+        return quizSnapshots.find(a.quizId())
+                .map(q -> q.version() == a.quiz().version())
+                .orElse(false);
+    }
+
+    private ActiveAttempt load(UUID attemptId) {
+        List<QuizAttemptRepository.ActiveStateRow> rows = quizAttemptRepository.findActiveState(attemptId);
+        if (rows.isEmpty()) return null;
+
+        QuizAttemptRepository.ActiveStateRow head = rows.get(0);
+        QuizSnapshot quiz = quizSnapshots.get(head.getQuizId());
+
+        byte[] vector = head.getAnswerVector();
+        ActiveAttempt state = new ActiveAttempt(attemptId, head.getUserId(), quiz, head.getGeneration(),
+                head.getStartedAt(), head.getCurrentPosition(), head.getAnsweredCount(), vector != null);
+
+        if (vector != null) {
+            // gepackt: Zeilen der aktuellen Generation sind schon im Vektor enthalten
+            PackedAnswers.Decoded packed = PackedAnswers.decode(vector);
+            if (packed.quizVersion() != quiz.version() || packed.selected().length != quiz.size()) return state;
+            for (int i = 0; i < packed.selected().length; i++) {
+                if (packed.selected()[i] != PackedAnswers.NONE) state.restore(i, packed.selected()[i], packed.correct().get(i));
+            }
+            return state;
+        }
+
+        for (QuizAttemptRepository.ActiveStateRow row : rows) {
+            if (row.getQuestionId() == null) continue; // noch keine Antworten (left join)
+            int ordinal = quiz.ordinalOf(row.getQuestionId());
+            if (ordinal >= 0) state.restore(ordinal, row.getSelectedIndex(), Boolean.TRUE.equals(row.getCorrect()));
+        }
+        return state;
+    }
+}
@@ -6,10 +6,8 @@ import de.quizapp.model.AdminUserView;
 import de.quizapp.model.User;
 import de.quizapp.repository.AdminUserViewRepository;
 import de.quizapp.repository.UserRepository;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.*;
 
@@ -18,18 +16,17 @@ public class AdminUserService {
 
     private final AdminUserViewRepository viewRepo;
     private final UserRepository userRepo;
+    private final SupabaseClient supabaseClient;
+    private final LeaderboardRanking leaderboard;
+    private final QuizLeaderboards quizLeaderboards;
 
-    private final RestTemplate restTemplate = new RestTemplate();
-
-    @Value("${SUPABASE_URL}")
-    private String supabaseUrl;
-
-    @Value("${SUPABASE_SERVICE_ROLE_KEY}")
-    private String supabaseServiceRoleKey;
-
-    public AdminUserService(AdminUserViewRepository viewRepo, UserRepository userRepo) {
+    public AdminUserService(AdminUserViewRepository viewRepo, UserRepository userRepo, SupabaseClient supabaseClient,
+                            LeaderboardRanking leaderboard, QuizLeaderboards quizLeaderboards) {
         this.viewRepo = viewRepo;
         this.userRepo = userRepo;
+        this.supabaseClient = supabaseClient;
+        this.leaderboard = leaderboard;
+        this.quizLeaderboards = quizLeaderboards;
     }
 
     public List<AdminUserView> list(String role, String firstName, String lastName) {
@@ -40,11 +37,15 @@ public class AdminUserService {
         User u = userRepo.findById(id)
                 .orElseThrow(() -> new RuntimeException("User nicht gefunden: " + id));
 
-        if (req.getRole() != null && !req.getRole().isBlank()) u.setRole(req.getRole());
+        boolean roleChanged = req.getRole() != null && !req.getRole().isBlank() && !req.getRole().equals(u.getRole());
+        if (roleChanged) u.setRole(req.getRole());
         if (req.getFirstName() != null) u.setFirstName(req.getFirstName());
         if (req.getLastName() != null) u.setLastName(req.getLastName());
 
         userRepo.save(u);
+        // Rolle kann sich geändert haben -> Eintrag in der Rangliste neu lesen
+        leaderboard.refreshUser(u.getAuthUserId());
+        if (roleChanged) quizLeaderboards.invalidateAll();
 
         // Email liegt in auth.users -> nur wenn authUserId vorhanden und Email gesetzt
         if (u.getAuthUserId() != null && req.getEmail() != null && !req.getEmail().isBlank()) {
@@ -59,6 +60,8 @@ public class AdminUserService {
         // Wenn Supabase Auth User existiert: im Auth löschen -> FK on delete cascade löscht public.users automatisch
         if (u.getAuthUserId() != null) {
             supabaseAdminDeleteAuthUser(u.getAuthUserId());
+            leaderboard.remove(u.getAuthUserId());
+            quizLeaderboards.invalidateAll();
             return;
         }
 
@@ -85,19 +88,12 @@ public class AdminUserService {
     // Supabase Auth Admin API
     // -----------------------
 
-    private HttpHeaders supabaseAdminHeaders() {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.set("apikey", supabaseServiceRoleKey);
-        headers.setBearerAuth(supabaseServiceRoleKey);
-        return headers;
-    }
-
     private void supabaseAdminUpdateAuthUser(UUID authUserId, Map<String, Object> body) {
-        String url = supabaseUrl + "/auth/v1/admin/users/" + authUserId;
-
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, supabaseAdminHeaders());
-        ResponseEntity<String> res = restTemplate.exchange(url, HttpMethod.PUT, entity, String.class);
+        ResponseEntity<String> res = supabaseClient
+                .admin(SupabaseOperation.ADMIN_WRITE, HttpMethod.PUT, "admin.users.update", "/auth/v1/admin/users/{id}", authUserId)
+                .body(body)
+                .retrieve()
+                .toEntity(String.class);
 
         if (!res.getStatusCode().is2xxSuccessful()) {
             throw new RuntimeException("Supabase Auth Update fehlgeschlagen: " + res.getBody());
@@ -105,10 +101,10 @@ public class AdminUserService {
     }
 
     private void supabaseAdminDeleteAuthUser(UUID authUserId) {
-        String url = supabaseUrl + "/auth/v1/admin/users/" + authUserId;
-
-        HttpEntity<Void> entity = new HttpEntity<>(supabaseAdminHeaders());
-        ResponseEntity<String> res = restTemplate.exchange(url, HttpMethod.DELETE, entity, String.class);
+        ResponseEntity<String> res = supabaseClient
+                .admin(SupabaseOperation.ADMIN_WRITE, HttpMethod.DELETE, "admin.users.delete", "/auth/v1/admin/users/{id}", authUserId)
+                .retrieve()
+                .toEntity(String.class);
 
         if (!res.getStatusCode().is2xxSuccessful()) {
             throw new RuntimeException("Supabase Auth Delete fehlgeschlagen: " + res.getBody());
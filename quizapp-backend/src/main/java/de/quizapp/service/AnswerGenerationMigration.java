@@ -0,0 +1,52 @@
+package de.quizapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Entfernt den alten Unique-Key (attempt_id, question_id) auf quiz_attempt_answers.
+ * ddl-auto=update legt nur den neuen Key (attempt_id, generation, question_id) an, löscht aber nie –
+ * mit dem alten Key würde die erste Antwort nach einem Neustart still am Konflikt scheitern.
+ * Idempotent; nur PostgreSQL (lokale H2-Schemas werden ohnehin neu erzeugt).
+ */
+@Component
+public class AnswerGenerationMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(AnswerGenerationMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AnswerGenerationMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void dropLegacyUniqueKey() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equalsIgnoreCase(product)) return;
+
+        List<String> legacy = jdbcTemplate.queryForList("""
+            select con.conname
+              from pg_constraint con
+              join pg_class t on t.oid = con.conrelid
+             where t.relname = 'quiz_attempt_answers'
+               and con.contype = 'u'
+               and (select array_agg(att.attname::text order by att.attname)
+                      from pg_attribute att
+                     where att.attrelid = con.conrelid
+                       and att.attnum = any(con.conkey)) = array['attempt_id', 'question_id']
+        """, String.class);
+
+        for (String name : legacy) {
+            jdbcTemplate.execute("alter table quiz_attempt_answers drop constraint \"" + name.replace("\"", "\"\"") + "\"");
+            log.info("Alter Unique-Key {} auf quiz_attempt_answers entfernt (jetzt pro Generation)", name);
+        }
+    }
+}
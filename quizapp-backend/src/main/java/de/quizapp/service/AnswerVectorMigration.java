@@ -0,0 +1,148 @@
+package de.quizapp.service;
+
+import de.quizapp.model.QuizAttemptAnswer;
+import de.quizapp.repository.QuizAttemptAnswerRepository;
+import de.quizapp.repository.QuizAttemptRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Überführt Antwortzeilen (quiz_attempt_answers) der aktuellen Generation ins gepackte Format
+ * (quiz_attempts.answer_vector) – nur bei app.answer-storage.mode=packed.
+ *
+ * Pro Chunk eine Transaktion: Vektor aus den Zeilen bauen -> setzen, falls noch keiner da ist -> Zeilen löschen.
+ * Hat ein Attempt schon einen Vektor (live im gepackten Modus weitergespielt), sind die Zeilen darin enthalten
+ * und werden nur gelöscht. Keyset über die attemptId, ein Lauf ist durch max-chunks begrenzt.
+ */
+@Component
+public class AnswerVectorMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(AnswerVectorMigration.class);
+    private static final UUID START = new UUID(0L, 0L);
+
+    private final QuizAttemptRepository quizAttemptRepository;
+    private final QuizAttemptAnswerRepository quizAttemptAnswerRepository;
+    private final QuizSnapshotCache quizSnapshots;
+    private final ActiveAttemptEngine activeAttempts;
+    private final TransactionTemplate tx;
+
+    private final int chunkSize;
+    private final int maxChunks;
+
+    private final ReentrantLock runLock = new ReentrantLock();
+    private final Counter packed;
+    private final Counter rowsRemoved;
+
+    // Keyset-Position über Läufe hinweg; am Ende der Tabelle wieder von vorn
+    private UUID cursor = START;
+
+    public AnswerVectorMigration(
+            QuizAttemptRepository quizAttemptRepository,
+            QuizAttemptAnswerRepository quizAttemptAnswerRepository,
+            QuizSnapshotCache quizSnapshots,
+            ActiveAttemptEngine activeAttempts,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.answer-storage.migration.chunk-size:200}") int chunkSize,
+            @Value("${app.answer-storage.migration.max-chunks:10}") int maxChunks
+    ) {
+        this.quizAttemptRepository = quizAttemptRepository;
+        this.quizAttemptAnswerRepository = quizAttemptAnswerRepository;
+        this.quizSnapshots = quizSnapshots;
+        this.activeAttempts = activeAttempts;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxChunks = Math.max(1, maxChunks);
+
+        this.packed = Counter.builder("attempt.answers.packed")
+                .description("Attempts, deren Antwortzeilen in den answer_vector überführt wurden")
+                .register(meterRegistry);
+        this.rowsRemoved = Counter.builder("attempt.answers.packed.rows")
+                .description("Antwortzeilen, die nach dem Packen gelöscht wurden")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.answer-storage.migration.interval:1m}")
+    public void migrate() {
+        if (activeAttempts.storage() != ActiveAttemptEngine.AnswerStorage.PACKED) return;
+        if (!runLock.tryLock()) return; // läuft schon
+        try {
+            int attempts = 0;
+            for (int chunk = 0; chunk < maxChunks; chunk++) {
+                List<QuizAttemptRepository.PackTarget> targets =
+                        quizAttemptRepository.findPackTargets(cursor, Limit.of(chunkSize));
+                if (targets.isEmpty()) {
+                    cursor = START;
+                    break;
+                }
+
+                List<UUID> done = new ArrayList<>(targets.size());
+                tx.executeWithoutResult(status -> {
+                    for (QuizAttemptRepository.PackTarget target : targets) {
+                        if (packOne(target)) done.add(target.getAttemptId());
+                    }
+                });
+
+                // Speicherstand erst nach dem Commit verwerfen – sonst könnte er zwischendurch alt nachgeladen werden
+                done.forEach(activeAttempts::invalidate);
+                attempts += done.size();
+                cursor = targets.get(targets.size() - 1).getAttemptId();
+            }
+
+            if (attempts > 0) log.info("Answer-Vektor-Migration: {} Attempts gepackt", attempts);
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    /** @return true, wenn Zeilen des Attempts gelöscht wurden (Vektor gesetzt oder schon vorhanden) */
+    private boolean packOne(QuizAttemptRepository.PackTarget target) {
+        UUID attemptId = target.getAttemptId();
+        int generation = target.getGeneration();
+
+        if (target.getAnswerVector() == null) {
+            // Quiz gelöscht -> nichts zu packen, Zeilen bleiben für den Rest der Aufräumlogik liegen
+            Optional<QuizSnapshot> quiz = quizSnapshots.find(target.getQuizId());
+            if (quiz.isEmpty()) return false;
+
+            byte[] vector = pack(quiz.get(), quizAttemptAnswerRepository.findByAttempt_IdAndGeneration(attemptId, generation));
+            // 0 = inzwischen live gepackt oder neu gestartet -> Zeilen sind im Vektor bzw. gehören dem Reaper
+            if (quizAttemptRepository.packAnswers(attemptId, generation, vector) == 0) return false;
+            packed.increment();
+        }
+
+        int removed = quizAttemptAnswerRepository.deleteByAttemptAndGeneration(attemptId, generation);
+        rowsRemoved.increment(removed);
+        return true;
+    }
+
+    private static byte[] pack(QuizSnapshot quiz, List<QuizAttemptAnswer> rows) {
+        int[] selected = new int[quiz.size()];
+        Arrays.fill(selected, PackedAnswers.NONE);
+        BitSet correct = new BitSet(quiz.size());
+
+        for (QuizAttemptAnswer a : rows) {
+            int ordinal = quiz.ordinalOf(a.getQuestion().getId());
+            if (ordinal < 0 || selected[ordinal] != PackedAnswers.NONE) continue; // Frage nicht mehr im Quiz
+            selected[ordinal] = a.getSelectedIndex();
+            if (a.isCorrect()) correct.set(ordinal);
+        }
+        return PackedAnswers.encode(quiz.version(), selected, correct);
+    }
+}
@@ -0,0 +1,108 @@
+package de.quizapp.service;
+
+import de.quizapp.repository.QuizAttemptAnswerRepository;
+import de.quizapp.repository.QuizAttemptRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Räumt Antworten alter Generationen (nach einem Neustart) im Hintergrund weg.
+ * Pro Chunk eine kurze Transaktion: IDs holen -> ins Archiv kopieren (mode=archive) -> löschen.
+ * Ein Lauf ist durch max-chunks begrenzt, der Rest folgt im nächsten Intervall.
+ */
+@Component
+public class AttemptAnswerReaper {
+
+    private static final Logger log = LoggerFactory.getLogger(AttemptAnswerReaper.class);
+
+    enum Mode { ARCHIVE, DELETE }
+
+    private final QuizAttemptRepository quizAttemptRepository;
+    private final QuizAttemptAnswerRepository quizAttemptAnswerRepository;
+    private final TransactionTemplate tx;
+
+    private final Mode mode;
+    private final int chunkSize;
+    private final int maxChunks;
+
+    private final ReentrantLock runLock = new ReentrantLock();
+    private final Counter reaped;
+
+    public AttemptAnswerReaper(
+            QuizAttemptRepository quizAttemptRepository,
+            QuizAttemptAnswerRepository quizAttemptAnswerRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.attempt-reaper.mode:archive}") String mode,
+            @Value("${app.attempt-reaper.chunk-size:500}") int chunkSize,
+            @Value("${app.attempt-reaper.max-chunks:20}") int maxChunks
+    ) {
+        this.quizAttemptRepository = quizAttemptRepository;
+        this.quizAttemptAnswerRepository = quizAttemptAnswerRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.mode = Mode.valueOf(mode.trim().toUpperCase());
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxChunks = Math.max(1, maxChunks);
+
+        this.reaped = Counter.builder("attempt.answers.reaped")
+                .description("Antworten alter Generationen, die archiviert bzw. gelöscht wurden")
+                .tag("mode", this.mode.name().toLowerCase())
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.attempt-reaper.interval:30s}")
+    public void reap() {
+        if (!runLock.tryLock()) return; // läuft schon
+        try {
+            int chunks = 0;
+            long rows = 0;
+
+            List<QuizAttemptRepository.ReapTarget> targets = quizAttemptRepository.findReapTargets(Limit.of(maxChunks));
+            for (QuizAttemptRepository.ReapTarget target : targets) {
+                while (chunks < maxChunks) {
+                    int done = reapChunk(target.getAttemptId(), target.getGeneration());
+                    if (done < 0) break; // Attempt ist sauber
+                    chunks++;
+                    rows += done;
+                }
+                if (chunks >= maxChunks) break;
+            }
+
+            if (rows > 0) log.debug("Reaper: {} Antworten alter Generationen in {} Chunks ({})", rows, chunks, mode);
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    /** @return Anzahl verarbeiteter Antworten oder -1, wenn für den Attempt nichts mehr übrig war */
+    private int reapChunk(UUID attemptId, int generation) {
+        Integer done = tx.execute(status -> {
+            List<UUID> ids = quizAttemptAnswerRepository.findStaleIds(attemptId, generation, Limit.of(chunkSize));
+            if (ids.isEmpty()) {
+                quizAttemptRepository.clearReapPending(attemptId, generation);
+                return -1;
+            }
+            if (mode == Mode.ARCHIVE) {
+                quizAttemptAnswerRepository.archiveByIds(ids, OffsetDateTime.now());
+            }
+            quizAttemptAnswerRepository.deleteByIds(ids);
+            return ids.size();
+        });
+
+        if (done != null && done > 0) reaped.increment(done);
+        return done == null ? -1 : done;
+    }
+}
@@ -0,0 +1,223 @@
+package de.quizapp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-Behind-Puffer für Navigations-/Heartbeat-Felder eines Attempts (current_position, total_questions, updated_at).
+ *
+ * GET-Requests schreiben nicht mehr selbst in die DB, sondern hinterlegen hier den neuesten Stand pro Attempt.
+ * Mehrere Updates desselben Attempts zwischen zwei Flushes werden zusammengefasst (latest wins) und dann
+ * als JDBC-Batch geschrieben – im Intervall und beim Shutdown.
+ *
+ * write-behind  = bei einem Absturz gehen max. {@code flush-interval} an Cursor-Updates verloren (Antworten nie)
+ * write-through = jedes Update sofort (altes Verhalten, aber ohne Entity-Load/Save)
+ */
+@Component
+public class AttemptCursorBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(AttemptCursorBuffer.class);
+
+    public enum Mode { WRITE_BEHIND, WRITE_THROUGH }
+
+    // Guard auf updated_at: ist der Attempt inzwischen neuer geschrieben worden (z. B. durch eine Antwort), gewinnt die DB
+    private static final String FLUSH_SQL = """
+            update quiz_attempts
+               set current_position = coalesce(?, current_position),
+                   total_questions = case when total_questions <= 0 then coalesce(?, total_questions) else total_questions end,
+                   updated_at = ?
+             where id = ?
+               and updated_at <= ?
+            """;
+
+    private record Pending(Integer currentPosition, Integer totalQuestions, Instant touchedAt) {
+
+        Pending merge(Pending newer) {
+            return new Pending(
+                    newer.currentPosition != null ? newer.currentPosition : currentPosition,
+                    newer.totalQuestions != null ? newer.totalQuestions : totalQuestions,
+                    newer.touchedAt.isAfter(touchedAt) ? newer.touchedAt : touchedAt
+            );
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate ownTransaction;
+    private final Mode mode;
+    private final int maxPending;
+
+    private final ConcurrentHashMap<UUID, Pending> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Counter recorded;
+    private final Counter written;
+    private final Counter skipped;
+    private final Timer flushTimer;
+
+    public AttemptCursorBuffer(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.attempt-cursor.mode:write-behind}") String mode,
+            @Value("${app.attempt-cursor.max-pending:10000}") int maxPending
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.mode = Mode.valueOf(mode.trim().toUpperCase().replace('-', '_'));
+        this.maxPending = maxPending;
+
+        this.recorded = Counter.builder("attempt.cursor.updates")
+                .description("Cursor-/Heartbeat-Updates aus Requests")
+                .register(meterRegistry);
+        this.written = Counter.builder("attempt.cursor.rows.written")
+                .description("tatsächlich geschriebene Attempt-Zeilen")
+                .register(meterRegistry);
+        this.skipped = Counter.builder("attempt.cursor.rows.skipped")
+                .description("Updates ohne Zeile: Attempt gelöscht oder inzwischen neuer geschrieben")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("attempt.cursor.flush").register(meterRegistry);
+
+        Gauge.builder("attempt.cursor.pending", pending, Map::size).register(meterRegistry);
+        // Updates pro geflushter Zeile (1.0 = nichts zusammengefasst)
+        Gauge.builder("attempt.cursor.coalescing.ratio", this, b -> {
+                    double flushed = b.written.count() + b.skipped.count();
+                    return flushed == 0 ? 0.0 : b.recorded.count() / flushed;
+                })
+                .register(meterRegistry);
+    }
+
+    public void recordPosition(UUID attemptId, int position) {
+        record(attemptId, new Pending(position, null, Instant.now()));
+    }
+
+    public void recordTotalQuestions(UUID attemptId, int total) {
+        record(attemptId, new Pending(null, total, Instant.now()));
+    }
+
+    /** Heartbeat: Attempt wurde fortgesetzt (sortiert ihn in "Weiterspielen" nach oben). */
+    public void touch(UUID attemptId) {
+        record(attemptId, new Pending(null, null, Instant.now()));
+    }
+
+    /** Noch nicht geschriebene Position – Reads müssen sie der DB vorziehen. */
+    public Optional<Integer> pendingPosition(UUID attemptId) {
+        Pending p = pending.get(attemptId);
+        return p == null ? Optional.empty() : Optional.ofNullable(p.currentPosition());
+    }
+
+    private void record(UUID attemptId, Pending update) {
+        recorded.increment();
+
+        if (mode == Mode.WRITE_THROUGH) {
+            write(List.of(Map.entry(attemptId, update)));
+            return;
+        }
+
+        pending.merge(attemptId, update, Pending::merge);
+        if (pending.size() >= maxPending) {
+            // Backpressure: nicht unbegrenzt puffern
+            flush();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.attempt-cursor.flush-interval:2s}")
+    public void flush() {
+        if (pending.isEmpty() || !flushLock.tryLock()) return; // nichts zu tun oder läuft schon
+        try {
+            drain();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flushLock.lock();
+        try {
+            drain();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void drain() {
+        List<Map.Entry<UUID, Pending>> batch = new ArrayList<>(pending.size());
+        for (UUID attemptId : pending.keySet()) {
+            Pending p = pending.remove(attemptId);
+            if (p != null) batch.add(Map.entry(attemptId, p));
+        }
+        if (batch.isEmpty()) return;
+
+        try {
+            flushTimer.record(() -> write(batch));
+        } catch (RuntimeException e) {
+            log.warn("Attempt-Cursor-Flush fehlgeschlagen ({} Attempts), nächster Versuch im nächsten Intervall: {}",
+                    batch.size(), e.getMessage());
+            // zurücklegen, ohne neuere Updates aus der Zwischenzeit zu überschreiben
+            for (Map.Entry<UUID, Pending> e2 : batch) {
+                pending.merge(e2.getKey(), e2.getValue(), (newer, failed) -> failed.merge(newer));
+            }
+        }
+    }
+
+    private void write(List<Map.Entry<UUID, Pending>> batch) {
+        // write-through bzw. Backpressure-Flush aus einem lesenden Request: dessen Read-only-Transaktion darf nicht schreiben
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            ownTransaction.executeWithoutResult(status -> writeBatch(batch));
+        } else {
+            writeBatch(batch);
+        }
+    }
+
+    private void writeBatch(List<Map.Entry<UUID, Pending>> batch) {
+        int[] updated = jdbcTemplate.batchUpdate(FLUSH_SQL, batch, batch.size(), (PreparedStatement ps, Map.Entry<UUID, Pending> e) -> {
+            Pending p = e.getValue();
+            Timestamp touchedAt = Timestamp.from(p.touchedAt());
+            setNullableInt(ps, 1, p.currentPosition());
+            setNullableInt(ps, 2, p.totalQuestions());
+            ps.setTimestamp(3, touchedAt);
+            ps.setObject(4, e.getKey());
+            ps.setTimestamp(5, touchedAt);
+        })[0];
+
+        // 0 = Attempt gelöscht oder updated_at-Guard griff; SUCCESS_NO_INFO (< 0) zählt als geschrieben
+        int misses = 0;
+        for (int count : updated) {
+            if (count == 0) misses++;
+        }
+        written.increment(updated.length - misses);
+        skipped.increment(misses);
+    }
+
+    private static void setNullableInt(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value == null) ps.setNull(index, Types.INTEGER);
+        else ps.setInt(index, value);
+    }
+}
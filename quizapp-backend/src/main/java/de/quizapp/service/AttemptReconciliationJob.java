@@ -0,0 +1,164 @@
+package de.quizapp.service;
+
+import de.quizapp.repository.QuizAttemptRepository;
+import de.quizapp.repository.QuizAttemptResultRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gleicht quiz_attempts im Hintergrund ab: total_questions (Altbestand), answered/correct_count gegen die
+ * Antwortzeilen, is_finished gegen die Zähler und fehlende Ergebnis-Zusammenfassungen.
+ *
+ * Läuft in Keyset-Chunks über die id (chunk-size Zeilen, eine Transaktion pro Chunk, set-basierte UPDATEs);
+ * ein Lauf ist durch max-chunks begrenzt und setzt beim nächsten Intervall an derselben Stelle fort.
+ * Attempts, die innerhalb von quiet-period geschrieben wurden, bleiben unberührt – dort zählen gerade Antworten.
+ * Ersetzt den einmaligen Zähler-Backfill beim Start.
+ */
+@Component
+public class AttemptReconciliationJob {
+
+    private static final Logger log = LoggerFactory.getLogger(AttemptReconciliationJob.class);
+    private static final UUID START = new UUID(0L, 0L);
+
+    private final QuizAttemptRepository quizAttemptRepository;
+    private final QuizAttemptResultRepository quizAttemptResultRepository;
+    private final LeaderboardRanking leaderboard;
+    private final TransactionTemplate tx;
+
+    private final int chunkSize;
+    private final int maxChunks;
+    private final Duration quietPeriod;
+
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    private final Counter scanned;
+    private final Counter passes;
+    private final Counter fixedTotals;
+    private final Counter fixedCounters;
+    private final Counter fixedFinished;
+    private final Counter fixedResults;
+    private final Timer chunkTimer;
+    // Fortschritt im aktuellen Durchgang über die Tabelle
+    private final AtomicLong passScanned = new AtomicLong();
+
+    // Keyset-Position über Läufe hinweg; am Ende der Tabelle wieder von vorn
+    private UUID cursor = START;
+
+    public AttemptReconciliationJob(
+            QuizAttemptRepository quizAttemptRepository,
+            QuizAttemptResultRepository quizAttemptResultRepository,
+            LeaderboardRanking leaderboard,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.attempt-reconcile.chunk-size:500}") int chunkSize,
+            @Value("${app.attempt-reconcile.max-chunks:20}") int maxChunks,
+            @Value("${app.attempt-reconcile.quiet-period:10m}") Duration quietPeriod
+    ) {
+        this.quizAttemptRepository = quizAttemptRepository;
+        this.quizAttemptResultRepository = quizAttemptResultRepository;
+        this.leaderboard = leaderboard;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxChunks = Math.max(1, maxChunks);
+        this.quietPeriod = quietPeriod;
+
+        this.scanned = Counter.builder("attempt.reconcile.scanned")
+                .description("Attempts, die der Abgleich geprüft hat")
+                .register(meterRegistry);
+        this.passes = Counter.builder("attempt.reconcile.passes")
+                .description("vollständige Durchgänge über quiz_attempts")
+                .register(meterRegistry);
+        this.fixedTotals = fixed(meterRegistry, "total_questions");
+        this.fixedCounters = fixed(meterRegistry, "counters");
+        this.fixedFinished = fixed(meterRegistry, "finished");
+        this.fixedResults = fixed(meterRegistry, "result");
+        this.chunkTimer = Timer.builder("attempt.reconcile.chunk").register(meterRegistry);
+        Gauge.builder("attempt.reconcile.pass.scanned", passScanned, AtomicLong::get)
+                .description("im aktuellen Durchgang bereits geprüfte Attempts")
+                .register(meterRegistry);
+    }
+
+    private static Counter fixed(MeterRegistry registry, String fix) {
+        return Counter.builder("attempt.reconcile.fixed")
+                .description("korrigierte Attempts")
+                .tag("fix", fix)
+                .register(registry);
+    }
+
+    @Scheduled(initialDelayString = "${app.attempt-reconcile.initial-delay:30s}",
+               fixedDelayString = "${app.attempt-reconcile.interval:5m}")
+    public void reconcile() {
+        if (!runLock.tryLock()) return; // läuft schon
+        try {
+            Instant quietBefore = Instant.now().minus(quietPeriod);
+            int fixes = 0;
+            boolean pointsChanged = false;
+
+            for (int chunk = 0; chunk < maxChunks; chunk++) {
+                List<UUID> ids = quizAttemptRepository.findIdsAfter(cursor, Limit.of(chunkSize));
+                if (ids.isEmpty()) {
+                    // Durchgang fertig -> nächster Lauf beginnt von vorn
+                    cursor = START;
+                    passScanned.set(0);
+                    passes.increment();
+                    break;
+                }
+
+                UUID after = cursor;
+                UUID upTo = ids.get(ids.size() - 1);
+                Fixes fixed = chunkTimer.record(() -> tx.execute(status -> reconcileChunk(after, upTo, quietBefore)));
+                if (fixed != null) {
+                    fixes += fixed.total();
+                    pointsChanged |= fixed.counters() > 0;
+                }
+
+                scanned.increment(ids.size());
+                passScanned.addAndGet(ids.size());
+                cursor = upTo;
+            }
+
+            // korrigierte correct_count ändern Punkte -> Rangliste neu aufbauen statt Einzel-Deltas
+            if (pointsChanged) leaderboard.resync();
+            if (fixes > 0) log.info("Attempt-Abgleich: {} Korrekturen (Fortschritt im Durchgang: {} Attempts)", fixes, passScanned.get());
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    private record Fixes(int totals, int counters, int finished, int results) {
+        int total() { return totals + counters + finished + results; }
+    }
+
+    private Fixes reconcileChunk(UUID after, UUID upTo, Instant quietBefore) {
+        // Reihenfolge: total -> Zähler -> finished (braucht beide) -> Zusammenfassung (braucht finished)
+        int totals = quizAttemptRepository.reconcileTotals(after, upTo, quietBefore);
+        int counters = quizAttemptRepository.reconcileCounters(after, upTo, quietBefore);
+        int finished = quizAttemptRepository.reconcileFinished(after, upTo, quietBefore);
+        int results = quizAttemptResultRepository.reconcileMissing(after, upTo, quietBefore);
+
+        fixedTotals.increment(totals);
+        fixedCounters.increment(counters);
+        fixedFinished.increment(finished);
+        fixedResults.increment(results);
+
+        // Speicherstand muss nicht verworfen werden: er kommt aus den Antworten selbst, nicht aus den Zählern
+        return new Fixes(totals, counters, finished, results);
+    }
+}
@@ -4,11 +4,9 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import de.quizapp.dto.LoginResponse;
 import de.quizapp.model.User;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.Map;
 import java.util.Optional;
@@ -17,17 +15,12 @@ import java.util.Optional;
 public class AuthService {
 
     private final UserService userService;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final SupabaseClient supabaseClient;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
-    @Value("${SUPABASE_URL}")
-    private String supabaseUrl;
-
-    @Value("${SUPABASE_SERVICE_ROLE_KEY}")
-    private String supabaseServiceRoleKey;
-
-    public AuthService(UserService userService) {
+    public AuthService(UserService userService, SupabaseClient supabaseClient) {
         this.userService = userService;
+        this.supabaseClient = supabaseClient;
     }
 
     public LoginResponse login(String email, String password) throws Exception {
@@ -40,24 +33,14 @@ public class AuthService {
                 "password", password
         );
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.set("apikey", supabaseServiceRoleKey);
-        headers.setBearerAuth(supabaseServiceRoleKey);
-
-        HttpEntity<Map<String, String>> entity = new HttpEntity<>(requestBody, headers);
-
-        String url = supabaseUrl + "/auth/v1/token?grant_type=password";
-
         ResponseEntity<String> response;
 
         try {
-            response = restTemplate.exchange(
-                    url,
-                    HttpMethod.POST,
-                    entity,
-                    String.class
-            );
+            response = supabaseClient
+                    .admin(SupabaseOperation.PASSWORD_GRANT, HttpMethod.POST, "auth.token", "/auth/v1/token?grant_type=password")
+                    .body(requestBody)
+                    .retrieve()
+                    .toEntity(String.class);
         } catch (HttpClientErrorException e) {
             throw new Exception("E-Mail oder Passwort ist falsch.");
         }
@@ -0,0 +1,177 @@
+package de.quizapp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-Behind-Puffer für leaderboard_daily_points: Punkte-Deltas pro (Benutzer, Tag) werden im Speicher
+ * zusammengefasst und im Intervall als JDBC-Batch addiert – keine zusätzliche Query im Antwort-Pfad.
+ * Ebenso der Beitrag jedes Durchlaufs pro Tag (leaderboard_run_points), in derselben Transaktion – beide Tabellen
+ * passen also immer zueinander, auch wenn ein Flush fehlschlägt.
+ *
+ * Addiert wird per UPDATE, fehlende Zeilen per INSERT ... ON CONFLICT DO NOTHING (ohne Konfliktziel, läuft auch auf H2);
+ * verliert der INSERT gegen eine andere Instanz, folgt ein zweites UPDATE.
+ * Bei einem Absturz gehen max. flush-interval an Zeitraum-Punkten verloren (Gesamtwertung und Antworten nie).
+ */
+@Component
+public class DailyPointsStore {
+
+    private static final Logger log = LoggerFactory.getLogger(DailyPointsStore.class);
+
+    private static final String ADD_SQL =
+            "update leaderboard_daily_points set points = points + ? where user_id = ? and score_day = ?";
+    private static final String INSERT_SQL =
+            "insert into leaderboard_daily_points (user_id, score_day, points) values (?, ?, ?) on conflict do nothing";
+
+    private static final String ADD_RUN_SQL =
+            "update leaderboard_run_points set points = points + ? where attempt_id = ? and generation = ? and score_day = ?";
+    private static final String INSERT_RUN_SQL =
+            "insert into leaderboard_run_points (attempt_id, generation, score_day, points) values (?, ?, ?, ?) on conflict do nothing";
+
+    private record Key(UUID userId, LocalDate day) {}
+
+    private record RunKey(UUID attemptId, int generation, LocalDate day) {}
+
+    /** Setzt die Schlüssel-Spalten ab index, liefert den nächsten freien Index. */
+    private interface KeyColumns<K> {
+        int bind(PreparedStatement ps, int index, K key) throws SQLException;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate ownTransaction;
+
+    private final ConcurrentHashMap<Key, Long> pending = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<RunKey, Long> pendingRuns = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Counter written;
+    private final Timer flushTimer;
+
+    public DailyPointsStore(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        this.written = Counter.builder("leaderboard.daily.rows.written")
+                .description("geschriebene Tages-Punkte-Zeilen")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("leaderboard.daily.flush").register(meterRegistry);
+        Gauge.builder("leaderboard.daily.pending", pending, Map::size).register(meterRegistry);
+    }
+
+    public void add(UUID userId, LocalDate day, long points) {
+        if (points == 0) return;
+        pending.merge(new Key(userId, day), points, Long::sum);
+    }
+
+    /** Beitrag eines Durchlaufs zu einem Tag – nur für den Neustart, der ihn zurücknimmt. */
+    public void addRun(UUID attemptId, int generation, LocalDate day, long points) {
+        if (points == 0) return;
+        pendingRuns.merge(new RunKey(attemptId, generation, day), points, Long::sum);
+    }
+
+    /** Wartet auf einen laufenden Flush – danach ist alles bis zum Aufruf Hinzugefügte in der DB (oder zurückgelegt). */
+    @Scheduled(fixedDelayString = "${app.leaderboard.daily-flush-interval:2s}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            if (!pending.isEmpty() || !pendingRuns.isEmpty()) drain();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private void drain() {
+        List<Map.Entry<Key, Long>> batch = take(pending);
+        List<Map.Entry<RunKey, Long>> runs = take(pendingRuns);
+        if (batch.isEmpty() && runs.isEmpty()) return;
+
+        try {
+            flushTimer.record(() -> ownTransaction.executeWithoutResult(status -> {
+                upsert(batch, ADD_SQL, INSERT_SQL, (ps, i, k) -> {
+                    ps.setObject(i, k.userId());
+                    ps.setDate(i + 1, Date.valueOf(k.day()));
+                    return i + 2;
+                });
+                upsert(runs, ADD_RUN_SQL, INSERT_RUN_SQL, (ps, i, k) -> {
+                    ps.setObject(i, k.attemptId());
+                    ps.setInt(i + 1, k.generation());
+                    ps.setDate(i + 2, Date.valueOf(k.day()));
+                    return i + 3;
+                });
+            }));
+            written.increment(batch.size() + runs.size());
+        } catch (RuntimeException e) {
+            log.warn("Tages-Punkte-Flush fehlgeschlagen ({} Zeilen), nächster Versuch im nächsten Intervall: {}",
+                    batch.size() + runs.size(), e.getMessage());
+            // Deltas zurücklegen – Addition ist kommutativ
+            batch.forEach(e2 -> pending.merge(e2.getKey(), e2.getValue(), Long::sum));
+            runs.forEach(e2 -> pendingRuns.merge(e2.getKey(), e2.getValue(), Long::sum));
+        }
+    }
+
+    private static <K> List<Map.Entry<K, Long>> take(ConcurrentHashMap<K, Long> from) {
+        List<Map.Entry<K, Long>> batch = new ArrayList<>(from.size());
+        for (K key : from.keySet()) {
+            Long points = from.remove(key);
+            if (points != null && points != 0) batch.add(Map.entry(key, points));
+        }
+        return batch;
+    }
+
+    /** UPDATE (points = points + ?), fehlende Zeilen per INSERT; addSql: Punkte zuerst, insertSql: Punkte zuletzt. */
+    private <K> void upsert(List<Map.Entry<K, Long>> batch, String addSql, String insertSql, KeyColumns<K> key) {
+        if (batch.isEmpty()) return;
+
+        int[] updated = jdbcTemplate.batchUpdate(addSql, batch, batch.size(), (ps, e) -> {
+            ps.setLong(1, e.getValue());
+            key.bind(ps, 2, e.getKey());
+        })[0];
+
+        List<Map.Entry<K, Long>> missing = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (updated[i] == 0) missing.add(batch.get(i));
+        }
+        if (missing.isEmpty()) return;
+
+        int[] inserted = jdbcTemplate.batchUpdate(insertSql, missing, missing.size(),
+                (ps, e) -> ps.setLong(key.bind(ps, 1, e.getKey()), e.getValue()))[0];
+
+        for (int i = 0; i < missing.size(); i++) {
+            if (inserted[i] != 0) continue;
+            // parallel von einer anderen Instanz angelegt -> doch addieren
+            Map.Entry<K, Long> e = missing.get(i);
+            jdbcTemplate.update(addSql, ps -> {
+                ps.setLong(1, e.getValue());
+                key.bind(ps, 2, e.getKey());
+            });
+        }
+    }
+}
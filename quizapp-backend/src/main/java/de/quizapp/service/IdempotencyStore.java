@@ -0,0 +1,126 @@
+package de.quizapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.quizapp.model.IdempotencyRecord;
+import de.quizapp.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gespeicherte Antworten zu Idempotency-Keys.
+ * - im Speicher begrenzt über max-size und ttl
+ * - optional zusätzlich in idempotency_keys (überlebt Neustarts, gilt für alle Instanzen)
+ * - laufende Ausführungen pro Key, damit parallele Duplikate auf das Ergebnis warten
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    public record StoredResponse(String requestFingerprint, int status, String contentType, byte[] body) {}
+
+    private final IdempotencyRecordRepository repository;
+    private final boolean persist;
+    private final Duration ttl;
+
+    private final Cache<String, StoredResponse> cache;
+    private final ConcurrentHashMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyStore(
+            IdempotencyRecordRepository repository,
+            MeterRegistry meterRegistry,
+            @Value("${app.idempotency.max-size:10000}") long maxSize,
+            @Value("${app.idempotency.ttl:24h}") Duration ttl,
+            @Value("${app.idempotency.persist:false}") boolean persist
+    ) {
+        this.repository = repository;
+        this.persist = persist;
+        this.ttl = ttl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+
+        Gauge.builder("idempotency.store.size", cache, Cache::estimatedSize)
+                .description("Anzahl gespeicherter Antworten im Speicher")
+                .register(meterRegistry);
+        Gauge.builder("idempotency.in_flight", inFlight, ConcurrentHashMap::size)
+                .description("Gerade laufende Requests mit Idempotency-Key")
+                .register(meterRegistry);
+    }
+
+    /** Fertige Antwort zum Key oder null. */
+    public StoredResponse find(String keyHash) {
+        StoredResponse cached = cache.getIfPresent(keyHash);
+        if (cached != null || !persist) return cached;
+
+        StoredResponse stored = repository.findById(keyHash)
+                .filter(r -> r.getCreatedAt().isAfter(OffsetDateTime.now().minus(ttl)))
+                .map(r -> new StoredResponse(
+                        r.getRequestFingerprint(),
+                        r.getStatus(),
+                        r.getContentType(),
+                        r.getBody() == null ? new byte[0] : r.getBody().getBytes(StandardCharsets.UTF_8)))
+                .orElse(null);
+        if (stored != null) cache.put(keyHash, stored);
+        return stored;
+    }
+
+    /**
+     * Reserviert den Key für diese Ausführung.
+     * @return null, wenn reserviert – sonst die bereits laufende Ausführung, auf die gewartet werden muss
+     */
+    public CompletableFuture<StoredResponse> claim(String keyHash, CompletableFuture<StoredResponse> mine) {
+        return inFlight.putIfAbsent(keyHash, mine);
+    }
+
+    /**
+     * Beendet die Ausführung. {@code response == null} -> nichts gespeichert, Wartende führen selbst aus.
+     */
+    public void complete(String keyHash, CompletableFuture<StoredResponse> mine, StoredResponse response) {
+        try {
+            if (response != null) {
+                cache.put(keyHash, response);
+                if (persist) persist(keyHash, response);
+            }
+        } finally {
+            inFlight.remove(keyHash, mine);
+            mine.complete(response);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval:1h}")
+    public void deleteExpired() {
+        if (!persist) return;
+        int deleted = repository.deleteOlderThan(OffsetDateTime.now().minus(ttl));
+        if (deleted > 0) log.debug("Idempotency-Keys aufgeräumt: {}", deleted);
+    }
+
+    private void persist(String keyHash, StoredResponse response) {
+        try {
+            IdempotencyRecord record = new IdempotencyRecord();
+            record.setKeyHash(keyHash);
+            record.setRequestFingerprint(response.requestFingerprint());
+            record.setStatus(response.status());
+            record.setContentType(response.contentType());
+            record.setBody(new String(response.body(), StandardCharsets.UTF_8));
+            record.setCreatedAt(OffsetDateTime.now());
+            repository.save(record);
+        } catch (RuntimeException e) {
+            // Antwort wurde schon erzeugt -> nicht den Request scheitern lassen, Speicher-Eintrag reicht lokal
+            log.warn("Idempotency-Key konnte nicht gespeichert werden: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package de.quizapp.service;
+
+import de.quizapp.repository.QuizAttemptRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Rangliste aller Anwender im Speicher (Punkte = Summe correct_count, wie bisher die GROUP-BY-Query).
+ *
+ * Einmal aus der DB aufgebaut (beim ersten Zugriff), danach inkrementell: jede gespeicherte richtige Antwort
+ * und jeder Neustart meldet sein Punkte-Delta nach dem Commit. Top-K, eigener Rang und Nachbarn kommen aus
+ * einer {@link RankedSkipList} in O(log n) statt Sortieren aller Anwender pro Aufruf.
+ *
+ * Der Stand ist pro Instanz; Schreibzugriffe anderer Instanzen, Korrekturen des Abgleichs und kleine
+ * Abweichungen durch parallele Neustarts gleicht der periodische Resync aus (app.leaderboard.resync-interval).
+ * Deltas, die während eines Aufbaus ankommen, werden nach dem Tausch auf den neuen Stand nachgespielt –
+ * die Query sieht Commits nach ihrem Start nicht.
+ */
+@Component
+public class LeaderboardRanking {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardRanking.class);
+
+    private final QuizAttemptRepository quizAttemptRepository;
+    private final LeaderboardWindows windows;
+
+    // scores: userId -> Punkte, Schlüssel für das Wiederfinden in der Skip-List
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<UUID, Long> scores = new HashMap<>();
+    private RankedSkipList ranks = new RankedSkipList();
+    // während eines Aufbaus: Änderungen für den neuen Stand (nur unter lock.writeLock())
+    private List<Runnable> replay;
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile boolean loaded;
+
+    private final Timer rebuildTimer;
+    private final Counter updates;
+
+    /** Eigener Rang mit Nachbarn; me == null, wenn der Benutzer nicht in der Rangliste steht (kein Anwender / keine Punkte im Zeitraum). */
+    record Position(RankedSkipList.Entry me, int totalPlayers, List<RankedSkipList.Entry> window) {}
+
+    public LeaderboardRanking(QuizAttemptRepository quizAttemptRepository, LeaderboardWindows windows,
+                              MeterRegistry meterRegistry) {
+        this.quizAttemptRepository = quizAttemptRepository;
+        this.windows = windows;
+        this.rebuildTimer = Timer.builder("leaderboard.rebuild")
+                .description("Aufbau der Rangliste aus der DB")
+                .register(meterRegistry);
+        this.updates = Counter.builder("leaderboard.updates")
+                .description("inkrementelle Punkte-Änderungen")
+                .register(meterRegistry);
+        Gauge.builder("leaderboard.players", this, r -> r.size())
+                .description("Anwender in der Rangliste")
+                .register(meterRegistry);
+    }
+
+    /* ===============================
+       LESEN
+       =============================== */
+
+    List<RankedSkipList.Entry> top(int limit) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return ranks.range(1, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    Position position(UUID userId, int neighbors) {
+        ensureLoaded();
+        Position p = readPosition(userId, neighbors);
+        if (p.me() != null) return p;
+
+        // nach dem Aufbau angelegt? -> einmal aus der DB nachziehen
+        refreshUser(userId);
+        return readPosition(userId, neighbors);
+    }
+
+    /** Nur der eigene Eintrag, ohne refreshUser-Fallback (Live-Updates fragen jeden Tick). */
+    Position peekPosition(UUID userId) {
+        ensureLoaded();
+        return readPosition(userId, 0);
+    }
+
+    private Position readPosition(UUID userId, int neighbors) {
+        lock.readLock().lock();
+        try {
+            return positionIn(scores, ranks, userId, neighbors);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Aufruf unter dem Lese-Lock des Besitzers von scores/ranks. */
+    static Position positionIn(Map<UUID, Long> scores, RankedSkipList ranks, UUID userId, int neighbors) {
+        Long points = scores.get(userId);
+        if (points == null) return new Position(null, ranks.size(), List.of());
+
+        List<RankedSkipList.Entry> window = ranks.around(userId, points, neighbors);
+        RankedSkipList.Entry me = window.stream().filter(e -> e.userId().equals(userId)).findFirst().orElse(null);
+        return new Position(me, ranks.size(), window);
+    }
+
+    /** Steht der Benutzer in der Rangliste (= Anwender)? Baut sie bei Bedarf auf. */
+    boolean isPlayer(UUID userId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return scores.containsKey(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return ranks.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /* ===============================
+       ÄNDERN
+       =============================== */
+
+    /**
+     * Neu erspielte Punkte eines Durchlaufs (ein Zeitpunkt pro richtiger Antwort): Gesamtwertung + Zeitraum-Wertungen,
+     * nach dem Commit. Nie negativ – zurückgenommen wird über {@link #withdrawEarnedAfterCommit}.
+     */
+    public void recordEarnedAfterCommit(UUID userId, UUID attemptId, int generation, List<Instant> earnedAt) {
+        if (earnedAt.isEmpty() || userId == null) return;
+        afterCommit(() -> {
+            boolean known = addPoints(userId, earnedAt.size());
+            // vor dem ersten Aufbau ist die Rolle unbekannt -> Zeitraum-Listen nehmen den Benutzer auf, ihr Aufbau filtert
+            windows.earn(userId, attemptId, generation, earnedAt, known || !loaded);
+        });
+    }
+
+    /**
+     * Neustart: Punkte des verworfenen Durchlaufs aus der Gesamtwertung und aus genau den Tagen nehmen, an denen er
+     * sie erspielt hat. Aufruf in der Transaktion des Neustarts, angewendet nach dem Commit.
+     */
+    public void withdrawEarnedAfterCommit(UUID userId, int points, UUID attemptId, int generation) {
+        if (userId == null) return;
+        Map<LocalDate, Long> byDay = windows.takeRun(attemptId, generation);
+        if (points <= 0 && byDay.isEmpty()) return;
+        afterCommit(() -> {
+            boolean known = addPoints(userId, -points);
+            windows.withdraw(userId, byDay, known || !loaded);
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /** @return true, wenn der Benutzer in der Rangliste steht */
+    boolean addPoints(UUID userId, long delta) {
+        lock.writeLock().lock();
+        try {
+            if (replay != null) replay.add(() -> applyDelta(userId, delta));
+            if (!loaded) return false; // noch nie aufgebaut -> der Aufbau liest den Stand aus der DB
+            if (!applyDelta(userId, delta)) return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        updates.increment();
+        return true;
+    }
+
+    /** Aufruf unter dem Schreib-Lock. */
+    private boolean applyDelta(UUID userId, long delta) {
+        Long old = scores.get(userId);
+        if (old == null) return false; // unbekannt (kein Anwender / nach dem Aufbau angelegt) -> refreshUser bzw. Resync
+        move(userId, old, old + delta);
+        return true;
+    }
+
+    /** Rolle oder Punkte eines Benutzers haben sich außerhalb des Spielpfads geändert -> einzeln neu lesen. */
+    public void refreshUser(UUID userId) {
+        if (!loaded || userId == null) return;
+
+        Optional<QuizAttemptRepository.LeaderboardScoreRow> row = quizAttemptRepository.getLeaderboardScore(userId);
+
+        lock.writeLock().lock();
+        try {
+            if (replay != null) replay.add(() -> applyRow(userId, row));
+            applyRow(userId, row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (row.isEmpty()) windows.remove(userId);
+    }
+
+    /** Aufruf unter dem Schreib-Lock. */
+    private void applyRow(UUID userId, Optional<QuizAttemptRepository.LeaderboardScoreRow> row) {
+        Long old = scores.get(userId);
+        if (row.isEmpty()) {
+            if (old != null) {
+                ranks.remove(userId, old);
+                scores.remove(userId);
+            }
+        } else if (old == null) {
+            ranks.insert(userId, row.get().getPoints());
+            scores.put(userId, row.get().getPoints());
+        } else {
+            move(userId, old, row.get().getPoints());
+        }
+    }
+
+    public void remove(UUID userId) {
+        if (userId == null) return;
+        windows.remove(userId);
+
+        lock.writeLock().lock();
+        try {
+            if (replay != null) replay.add(() -> removeLocked(userId));
+            removeLocked(userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(UUID userId) {
+        Long old = scores.remove(userId);
+        if (old != null) ranks.remove(userId, old);
+    }
+
+    private void move(UUID userId, long from, long to) {
+        if (from == to) return;
+        ranks.remove(userId, from);
+        ranks.insert(userId, to);
+        scores.put(userId, to);
+    }
+
+    /* ===============================
+       AUFBAU / RESYNC
+       =============================== */
+
+    @Scheduled(initialDelayString = "${app.leaderboard.resync-interval:15m}",
+               fixedDelayString = "${app.leaderboard.resync-interval:15m}")
+    public void resync() {
+        // noch nie gelesen -> nichts abzugleichen, der erste Zugriff baut auf
+        if (loaded) rebuild();
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        rebuildLock.lock();
+        try {
+            if (!loaded) rebuild();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void rebuild() {
+        rebuildLock.lock();
+        try {
+            // ab hier gemeldete Änderungen zusätzlich merken – ihr Commit kann nach dem Snapshot der Query liegen.
+            // (Lag ein Commit knapp davor und kam sein afterCommit erst jetzt, zählt er bis zum nächsten Resync doppelt.)
+            lock.writeLock().lock();
+            try {
+                replay = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            // DB-Query und Aufbau außerhalb des Schreib-Locks; Leser sehen bis zum Tausch den alten Stand
+            Map<UUID, Long> freshScores = new HashMap<>();
+            RankedSkipList freshRanks = new RankedSkipList();
+            try {
+                rebuildTimer.record(() -> {
+                    for (QuizAttemptRepository.LeaderboardScoreRow row : quizAttemptRepository.getLeaderboardScores()) {
+                        freshScores.put(row.getUserId(), row.getPoints());
+                        freshRanks.insert(row.getUserId(), row.getPoints());
+                    }
+                });
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    replay = null; // alter Stand hat alle Änderungen schon
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                scores = freshScores;
+                ranks = freshRanks;
+                loaded = true;
+                List<Runnable> missed = replay;
+                replay = null;
+                missed.forEach(Runnable::run);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.debug("Rangliste aufgebaut: {} Anwender", freshScores.size());
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+}
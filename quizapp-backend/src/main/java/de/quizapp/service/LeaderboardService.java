@@ -1,47 +1,122 @@
 package de.quizapp.service;
 
 import de.quizapp.dto.LeaderboardEntryDto;
-import de.quizapp.repository.QuizAttemptAnswerRepository;
+import de.quizapp.dto.LeaderboardPositionDto;
+import de.quizapp.dto.QuizLeaderboardEntryDto;
+import de.quizapp.model.User;
+import de.quizapp.repository.UserRepository;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class LeaderboardService {
 
-    private final QuizAttemptAnswerRepository answerRepository;
+    private static final int MAX_NEIGHBORS = 25;
 
-    public LeaderboardService(QuizAttemptAnswerRepository answerRepository) {
-        this.answerRepository = answerRepository;
+    private final LeaderboardRanking ranking;
+    private final LeaderboardWindows windows;
+    private final QuizLeaderboards quizLeaderboards;
+    private final QuizSnapshotCache quizSnapshots;
+    private final UserRepository userRepository;
+
+    public LeaderboardService(LeaderboardRanking ranking, LeaderboardWindows windows, QuizLeaderboards quizLeaderboards,
+                              QuizSnapshotCache quizSnapshots, UserRepository userRepository) {
+        this.ranking = ranking;
+        this.windows = windows;
+        this.quizLeaderboards = quizLeaderboards;
+        this.quizSnapshots = quizSnapshots;
+        this.userRepository = userRepository;
     }
 
-    public List<LeaderboardEntryDto> getLeaderboard(UUID currentUserId, int limit) {
+    public List<LeaderboardEntryDto> getLeaderboard(UUID currentUserId, int limit, LeaderboardWindow window) {
         int safeLimit = Math.max(1, Math.min(limit, 200));
 
-        List<QuizAttemptAnswerRepository.LeaderboardRow> rows = answerRepository.getLeaderboardRows();
+        // ✅ Rangfolge aus dem Speicher, aus der DB nur die Namen der angezeigten Einträge
+        return toDtos(rawTop(window, safeLimit), currentUserId);
+    }
 
-        List<LeaderboardEntryDto> out = new ArrayList<>();
-        int rank = 1;
+    public LeaderboardPositionDto getPosition(UUID currentUserId, int neighbors, LeaderboardWindow window) {
+        int safeNeighbors = Math.max(0, Math.min(neighbors, MAX_NEIGHBORS));
+
+        LeaderboardRanking.Position p = window == LeaderboardWindow.ALL
+                ? ranking.position(currentUserId, safeNeighbors)
+                : windows.position(window, currentUserId, safeNeighbors);
+        if (p.me() == null) return new LeaderboardPositionDto(null, p.totalPlayers(), List.of());
+
+        List<LeaderboardEntryDto> entries = toDtos(p.window(), currentUserId);
+        LeaderboardEntryDto me = entries.stream().filter(LeaderboardEntryDto::isCurrentUser).findFirst().orElse(null);
+        return new LeaderboardPositionDto(me, p.totalPlayers(), entries);
+    }
 
-        for (QuizAttemptAnswerRepository.LeaderboardRow r : rows) {
-            if (out.size() >= safeLimit) break;
+    /* ===============================
+       LIVE-UPDATES (LiveUpdateHub): reine Speicher-Lesezugriffe, Namen nur bei Änderungen
+       =============================== */
+
+    List<RankedSkipList.Entry> rawTop(LeaderboardWindow window, int limit) {
+        return window == LeaderboardWindow.ALL ? ranking.top(limit) : windows.top(window, limit);
+    }
+
+    /** Ohne Nachladen aus der DB (anders als getPosition) – läuft pro Abonnent und Tick. */
+    LeaderboardRanking.Position rawPosition(LeaderboardWindow window, UUID userId) {
+        return window == LeaderboardWindow.ALL ? ranking.peekPosition(userId) : windows.position(window, userId, 0);
+    }
+
+    List<LeaderboardEntryDto> entries(List<RankedSkipList.Entry> entries) {
+        return toDtos(entries, null);
+    }
 
-            UUID userId = r.getUserId();
-            long points = r.getPoints();
+    /** Bestenliste eines veröffentlichten Quiz: höchstens die im Speicher gehaltenen Top K (app.quiz-leaderboard.top-k). */
+    public List<QuizLeaderboardEntryDto> getQuizLeaderboard(UUID currentUserId, UUID quizId, int limit) {
+        if (!quizSnapshots.get(quizId).published()) throw new RuntimeException("Quiz ist nicht veröffentlicht");
+        int safeLimit = Math.max(1, Math.min(limit, quizLeaderboards.topK()));
 
-            String first = r.getFirstName() == null ? "" : r.getFirstName();
-            String last = r.getLastName() == null ? "" : r.getLastName();
-            String name = (first + " " + last).trim();
-            if (name.isBlank()) name = "Unbekannt";
+        List<QuizTopK.Entry> top = quizLeaderboards.top(quizId);
+        if (top.size() > safeLimit) top = top.subList(0, safeLimit);
+        if (top.isEmpty()) return List.of();
 
-            boolean isMe = currentUserId != null && currentUserId.equals(userId);
+        Map<UUID, User> users = usersById(top.stream().map(QuizTopK.Entry::userId).toList());
 
-            out.add(new LeaderboardEntryDto(rank, userId, name, points, isMe));
-            rank++;
+        List<QuizLeaderboardEntryDto> out = new ArrayList<>(top.size());
+        int rank = 1;
+        for (QuizTopK.Entry e : top) {
+            boolean isMe = currentUserId != null && currentUserId.equals(e.userId());
+            out.add(new QuizLeaderboardEntryDto(rank++, e.userId(), displayName(users.get(e.userId())),
+                    e.correctCount(), e.totalQuestions(), e.durationMillis(), e.finishedAt(), isMe));
         }
+        return out;
+    }
+
+    private List<LeaderboardEntryDto> toDtos(List<RankedSkipList.Entry> entries, UUID currentUserId) {
+        if (entries.isEmpty()) return List.of();
+
+        Map<UUID, User> users = usersById(entries.stream().map(RankedSkipList.Entry::userId).toList());
+
+        List<LeaderboardEntryDto> out = new ArrayList<>(entries.size());
+        for (RankedSkipList.Entry e : entries) {
+            boolean isMe = currentUserId != null && currentUserId.equals(e.userId());
 
+            out.add(new LeaderboardEntryDto(e.rank(), e.userId(), displayName(users.get(e.userId())), e.points(), isMe));
+        }
         return out;
     }
-}
\ No newline at end of file
+
+    private Map<UUID, User> usersById(List<UUID> ids) {
+        return userRepository
+                .findAllByAuthUserIdIn(ids)
+                .stream()
+                .collect(Collectors.toMap(User::getAuthUserId, Function.identity(), (a, b) -> a));
+    }
+
+    private static String displayName(User u) {
+        String first = u == null || u.getFirstName() == null ? "" : u.getFirstName();
+        String last = u == null || u.getLastName() == null ? "" : u.getLastName();
+        String name = (first + " " + last).trim();
+        return name.isBlank() ? "Unbekannt" : name;
+    }
+}
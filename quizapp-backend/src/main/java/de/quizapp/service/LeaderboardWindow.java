@@ -0,0 +1,32 @@
+package de.quizapp.service;
+
+/**
+ * Zeitraum einer Rangliste: ALL = Gesamtpunkte (correct_count), sonst die in den letzten {@link #days()} Tagen
+ * (inkl. heute) erspielten Punkte.
+ */
+public enum LeaderboardWindow {
+    ALL(0),
+    DAY(1),
+    WEEK(7),
+    MONTH(30);
+
+    private final int days;
+
+    LeaderboardWindow(int days) {
+        this.days = days;
+    }
+
+    public int days() {
+        return days;
+    }
+
+    /** Request-Parameter (all/day/week/month, Groß-/Kleinschreibung egal). */
+    public static LeaderboardWindow parse(String value) {
+        if (value == null || value.isBlank()) return ALL;
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unbekannter Zeitraum: " + value + " (all, day, week, month)");
+        }
+    }
+}
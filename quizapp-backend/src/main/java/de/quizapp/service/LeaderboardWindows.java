@@ -0,0 +1,413 @@
+package de.quizapp.service;
+
+import de.quizapp.model.LeaderboardDailyPoints;
+import de.quizapp.model.LeaderboardRunPoints;
+import de.quizapp.repository.LeaderboardDailyPointsRepository;
+import de.quizapp.repository.LeaderboardRunPointsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Zeitraum-Ranglisten (Tag/Woche/Monat) aus Tages-Buckets pro Benutzer. Punkte zählen für den Tag, an dem sie
+ * erspielt wurden; ein Neustart nimmt pro Tag genau zurück, was sein Durchlauf dort eingebracht hat
+ * ({@link LeaderboardRunPoints}).
+ *
+ * Jeder Benutzer mit Punkten im Zeitraum hat einen Ring aus {@link #RING_DAYS} Buckets (Slot = Tag mod Ring,
+ * jeder Slot merkt sich seinen Tag – ein veralteter Slot zählt als 0 und wird beim nächsten Schreiben überschrieben).
+ * Pro Zeitraum eine {@link RankedSkipList}, inkrementell bei jedem Delta; beim Tageswechsel werden die Listen aus
+ * den Ringen neu zusammengesetzt (Woche = 7 Buckets) und danach in einem Schritt getauscht – Leser sehen bis dahin
+ * den alten Stand und warten nie auf den Aufbau.
+ *
+ * Persistiert über {@link DailyPointsStore}; aufgebaut beim ersten Zugriff und im Resync-Intervall aus
+ * leaderboard_daily_points (deckt andere Instanzen ab).
+ */
+@Component
+public class LeaderboardWindows {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardWindows.class);
+
+    static final int RING_DAYS = LeaderboardWindow.MONTH.days();
+    private static final LeaderboardWindow[] WINDOWS = {LeaderboardWindow.DAY, LeaderboardWindow.WEEK, LeaderboardWindow.MONTH};
+
+    /** Tages-Buckets eines Benutzers; nur unter updateLock. */
+    private static final class Buckets {
+        final long[] day = new long[RING_DAYS];
+        final long[] points = new long[RING_DAYS];
+
+        Buckets() {
+            Arrays.fill(day, Long.MIN_VALUE);
+        }
+
+        void add(long epochDay, long p) {
+            int slot = (int) Math.floorMod(epochDay, (long) RING_DAYS);
+            if (day[slot] != epochDay) {
+                day[slot] = epochDay;
+                points[slot] = 0;
+            }
+            points[slot] += p;
+        }
+
+        long sum(long today, int days) {
+            long sum = 0;
+            for (long d = today - days + 1; d <= today; d++) {
+                int slot = (int) Math.floorMod(d, (long) RING_DAYS);
+                if (day[slot] == d) sum += points[slot];
+            }
+            return sum;
+        }
+    }
+
+    /** Rangliste eines Zeitraums; nur Benutzer mit Punkten > 0. */
+    private record Board(Map<UUID, Long> scores, RankedSkipList ranks) {
+
+        Board() {
+            this(new HashMap<>(), new RankedSkipList());
+        }
+
+        void add(UUID userId, long delta) {
+            Long old = scores.get(userId);
+            long now = (old == null ? 0 : old) + delta;
+            if (old != null) ranks.remove(userId, old);
+            if (now > 0) {
+                ranks.insert(userId, now);
+                scores.put(userId, now);
+            } else {
+                scores.remove(userId);
+            }
+        }
+    }
+
+    private final LeaderboardDailyPointsRepository dailyPointsRepository;
+    private final LeaderboardRunPointsRepository runPointsRepository;
+    private final DailyPointsStore store;
+    private final Clock clock;
+    private final Timer rolloverTimer;
+
+    // Schreiber (Deltas, Tageswechsel, Tausch nach dem Aufbau) nacheinander; Leser nur über lock.readLock()
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // ein Aufbau zur Zeit; Flush + DB-Query laufen außerhalb von updateLock
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    private Map<UUID, Buckets> buckets = new HashMap<>();
+    // während eines Aufbaus: Änderungen, die erst nach dem Tausch angewendet werden (nur unter updateLock)
+    private List<Runnable> deferred;
+    private Map<LeaderboardWindow, Board> boards = emptyBoards();
+    private volatile long today;
+    private volatile boolean loaded;
+    // letzter Tag, für den alte Zeilen gelöscht wurden
+    private long prunedFor = Long.MIN_VALUE;
+
+    @Autowired
+    public LeaderboardWindows(
+            LeaderboardDailyPointsRepository dailyPointsRepository,
+            LeaderboardRunPointsRepository runPointsRepository,
+            DailyPointsStore store,
+            MeterRegistry meterRegistry,
+            @Value("${app.leaderboard.zone:Europe/Berlin}") String zone
+    ) {
+        this(dailyPointsRepository, runPointsRepository, store, meterRegistry, Clock.system(ZoneId.of(zone)));
+    }
+
+    LeaderboardWindows(LeaderboardDailyPointsRepository dailyPointsRepository, LeaderboardRunPointsRepository runPointsRepository,
+                       DailyPointsStore store, MeterRegistry meterRegistry, Clock clock) {
+        this.dailyPointsRepository = dailyPointsRepository;
+        this.runPointsRepository = runPointsRepository;
+        this.store = store;
+        this.clock = clock;
+        this.rolloverTimer = Timer.builder("leaderboard.windows.rollover")
+                .description("Neuaufbau der Zeitraum-Ranglisten beim Tageswechsel")
+                .register(meterRegistry);
+    }
+
+    /* ===============================
+       LESEN
+       =============================== */
+
+    List<RankedSkipList.Entry> top(LeaderboardWindow window, int limit) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return boards.get(window).ranks().range(1, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    LeaderboardRanking.Position position(LeaderboardWindow window, UUID userId, int neighbors) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Board board = boards.get(window);
+            return LeaderboardRanking.positionIn(board.scores(), board.ranks(), userId, neighbors);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /* ===============================
+       ÄNDERN
+       =============================== */
+
+    /**
+     * Erspielte Punkte eines Durchlaufs (nach dem Commit): ein Zeitpunkt pro Punkt, gebucht auf dessen Tag.
+     * Der Beitrag pro Tag wird zusätzlich für den Durchlauf vermerkt, damit ein Neustart genau ihn zurücknehmen kann.
+     * Immer persistiert; im Speicher nur für Benutzer der Rangliste (Anwender).
+     */
+    void earn(UUID userId, UUID attemptId, int generation, List<Instant> earnedAt, boolean ranked) {
+        Map<LocalDate, Long> byDay = new TreeMap<>();
+        for (Instant at : earnedAt) byDay.merge(LocalDate.ofInstant(at, clock.getZone()), 1L, Long::sum);
+        byDay.forEach((day, points) -> {
+            if (!inRing(day)) return;
+            store.addRun(attemptId, generation, day, points);
+            record(userId, day, points, ranked);
+        });
+    }
+
+    /**
+     * Neustart, in dessen Transaktion: was der verworfene Durchlauf pro Tag eingebracht hat. Die Beiträge werden
+     * dabei gelöscht (Rollback -> bleiben stehen); zurückgenommen wird nach dem Commit über {@link #withdraw}.
+     */
+    Map<LocalDate, Long> takeRun(UUID attemptId, int generation) {
+        // gepufferte Beiträge zuerst in die DB, sonst fehlen die letzten Antworten
+        store.flush();
+        Map<LocalDate, Long> byDay = new TreeMap<>();
+        for (LeaderboardRunPoints row : runPointsRepository.findByAttemptIdAndGeneration(attemptId, generation)) {
+            byDay.merge(row.getDay(), row.getPoints(), Long::sum);
+        }
+        if (!byDay.isEmpty()) runPointsRepository.deleteRun(attemptId, generation);
+        return byDay;
+    }
+
+    /** Gegenstück zu {@link #earn}: Punkte eines verworfenen Durchlaufs aus genau den Tagen nehmen, die er gefüllt hat. */
+    void withdraw(UUID userId, Map<LocalDate, Long> byDay, boolean ranked) {
+        byDay.forEach((day, points) -> {
+            if (inRing(day)) record(userId, day, -points, ranked);
+        });
+    }
+
+    // Tag schon aus dem Ring gefallen -> zählt in keinem Zeitraum mehr
+    private boolean inRing(LocalDate day) {
+        return day.toEpochDay() > LocalDate.now(clock).toEpochDay() - RING_DAYS;
+    }
+
+    private void record(UUID userId, LocalDate day, long points, boolean ranked) {
+        if (points == 0) return;
+
+        updateLock.lock();
+        try {
+            // Aufbau läuft: Delta weder in den Puffer (die DB-Query darf es nicht sehen) noch in den alten Stand
+            if (deferred != null) {
+                deferred.add(() -> applyLocked(userId, day, points, ranked));
+                return;
+            }
+            applyLocked(userId, day, points, ranked);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    void remove(UUID userId) {
+        updateLock.lock();
+        try {
+            // sofort aus dem alten Stand und – falls ein Aufbau läuft – noch einmal aus dem neuen
+            if (deferred != null) deferred.add(() -> removeLocked(userId));
+            removeLocked(userId);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private void applyLocked(UUID userId, LocalDate day, long points, boolean ranked) {
+        store.add(userId, day, points);
+        if (!loaded || !ranked) return;
+
+        long now = LocalDate.now(clock).toEpochDay();
+        if (now > today) rolloverLocked(now);
+
+        long epochDay = day.toEpochDay();
+        buckets.computeIfAbsent(userId, id -> new Buckets()).add(epochDay, points);
+        lock.writeLock().lock();
+        try {
+            for (LeaderboardWindow w : WINDOWS) {
+                if (epochDay > today - w.days() && epochDay <= today) boards.get(w).add(userId, points);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(UUID userId) {
+        if (buckets.remove(userId) == null) return;
+        lock.writeLock().lock();
+        try {
+            for (Board board : boards.values()) {
+                Long old = board.scores().remove(userId);
+                if (old != null) board.ranks().remove(userId, old);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /* ===============================
+       TAGESWECHSEL / AUFBAU
+       =============================== */
+
+    @Scheduled(fixedDelayString = "${app.leaderboard.rollover-check:1m}")
+    public void rollover() {
+        if (!loaded) return;
+        long now = LocalDate.now(clock).toEpochDay();
+
+        if (now > today) {
+            updateLock.lock();
+            try {
+                if (now > today) rolloverLocked(now);
+            } finally {
+                updateLock.unlock();
+            }
+        }
+
+        // Tage, die aus dem Ring gefallen sind, braucht auch der nächste Aufbau nicht mehr (einmal pro Tag)
+        if (prunedFor < now) {
+            LocalDate oldest = LocalDate.ofEpochDay(now - RING_DAYS + 1);
+            dailyPointsRepository.deleteBefore(oldest);
+            runPointsRepository.deleteBefore(oldest);
+            prunedFor = now;
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.leaderboard.resync-interval:15m}",
+               fixedDelayString = "${app.leaderboard.resync-interval:15m}")
+    public void resync() {
+        if (loaded) reload(true);
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) reload(false);
+    }
+
+    /**
+     * Aufbau aus der DB wie {@link LeaderboardRanking#rebuild}: Flush, Query und neue Listen ohne updateLock,
+     * Deltas bleiben nur kurz stehen. Was währenddessen ankommt, wird zurückgestellt (nicht gepuffert, also auch
+     * nicht in der Query) und nach dem Tausch angewendet – nichts fehlt, nichts zählt doppelt.
+     */
+    private void reload(boolean force) {
+        reloadLock.lock();
+        try {
+            if (loaded && !force) return; // paralleler erster Zugriff hat schon aufgebaut
+
+            updateLock.lock();
+            try {
+                deferred = new ArrayList<>();
+            } finally {
+                updateLock.unlock();
+            }
+
+            Map<UUID, Buckets> fresh = new HashMap<>();
+            Map<LeaderboardWindow, Board> built;
+            long now = LocalDate.now(clock).toEpochDay();
+            try {
+                // gepufferte Deltas (alle vor dem Zurückstellen) zuerst in die DB, sonst fehlen sie nach dem Aufbau
+                store.flush();
+                for (LeaderboardDailyPoints row : dailyPointsRepository.findAnwenderSince(LocalDate.ofEpochDay(now - RING_DAYS + 1))) {
+                    fresh.computeIfAbsent(row.getUserId(), id -> new Buckets()).add(row.getDay().toEpochDay(), row.getPoints());
+                }
+                built = build(fresh, now);
+            } catch (RuntimeException e) {
+                updateLock.lock();
+                try {
+                    replayDeferredLocked(); // auf den alten Stand
+                } finally {
+                    updateLock.unlock();
+                }
+                throw e;
+            }
+
+            updateLock.lock();
+            try {
+                buckets = fresh;
+                swapLocked(built, now);
+                loaded = true;
+                replayDeferredLocked();
+            } finally {
+                updateLock.unlock();
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private void replayDeferredLocked() {
+        List<Runnable> missed = deferred;
+        deferred = null;
+        missed.forEach(Runnable::run);
+    }
+
+    /** Listen aus den Ringen neu zusammensetzen und tauschen. Aufruf unter updateLock. */
+    private void rolloverLocked(long newToday) {
+        swapLocked(build(buckets, newToday), newToday);
+    }
+
+    /** Listen aus den Ringen; Benutzer ohne Punkte im Ring fallen dabei aus {@code from}. */
+    private Map<LeaderboardWindow, Board> build(Map<UUID, Buckets> from, long newToday) {
+        return rolloverTimer.record(() -> {
+            Map<LeaderboardWindow, Board> built = emptyBoards();
+            Iterator<Map.Entry<UUID, Buckets>> it = from.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<UUID, Buckets> e = it.next();
+                boolean active = false;
+                for (LeaderboardWindow w : WINDOWS) {
+                    long points = e.getValue().sum(newToday, w.days());
+                    if (points <= 0) continue;
+                    built.get(w).scores().put(e.getKey(), points);
+                    built.get(w).ranks().insert(e.getKey(), points);
+                    active = true;
+                }
+                // nichts mehr im Ring -> Speicher freigeben
+                if (!active) it.remove();
+            }
+            return built;
+        });
+    }
+
+    private void swapLocked(Map<LeaderboardWindow, Board> fresh, long newToday) {
+        lock.writeLock().lock();
+        try {
+            boards = fresh;
+            today = newToday;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Zeitraum-Ranglisten für {} aufgebaut: {} Benutzer im Monat", LocalDate.ofEpochDay(newToday),
+                fresh.get(LeaderboardWindow.MONTH).scores().size());
+    }
+
+    private static Map<LeaderboardWindow, Board> emptyBoards() {
+        Map<LeaderboardWindow, Board> m = new EnumMap<>(LeaderboardWindow.class);
+        for (LeaderboardWindow w : WINDOWS) m.put(w, new Board());
+        return m;
+    }
+}
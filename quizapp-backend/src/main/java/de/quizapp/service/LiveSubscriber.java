@@ -0,0 +1,139 @@
+package de.quizapp.service;
+
+import de.quizapp.dto.LiveLeaderboardDto;
+import de.quizapp.dto.LiveRankDto;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Eine SSE-Verbindung mit begrenztem Puffer. Frames tragen einen Schlüssel; ein neuer Frame mit gleichem Schlüssel
+ * ersetzt den noch nicht gesendeten (veralteten) – ein langsamer Client bekommt so nur den neuesten Stand.
+ * Läuft der Puffer trotzdem über, fällt der älteste Frame weg.
+ *
+ * Ranglisten-Deltas sind nicht ersetzbar (jedes setzt das vorige voraus): steht schon eines an, ging eines
+ * verloren oder fehlt dem Abonnenten die vorige Version, wird stattdessen die vollständige Liste eingereiht.
+ */
+final class LiveSubscriber {
+
+    /** event == null -> SSE-Kommentar (Heartbeat). */
+    record Frame(String event, Object data) {}
+
+    static final String TOP = "leaderboard";
+
+    final SseEmitter emitter;
+    final UUID userId;
+    final LeaderboardWindow window;
+
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Frame> pending = new LinkedHashMap<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private boolean needsFull = true; // erste Rangliste immer vollständig
+    // zuletzt eingereihte Ranglisten-Version (-1 = noch keine); geschrieben unter lock
+    private volatile long topVersion = -1;
+    // onCompletion/onTimeout/onError und ein fehlgeschlagenes Senden können parallel schließen
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    // zuletzt eingereihter eigener Rang – nur vom Tick gelesen/geschrieben
+    LiveRankDto lastRank;
+
+    LiveSubscriber(SseEmitter emitter, UUID userId, LeaderboardWindow window, int capacity) {
+        this.emitter = emitter;
+        this.userId = userId;
+        this.window = window;
+        this.capacity = Math.max(2, capacity);
+    }
+
+    /** @return Anzahl verworfener Frames (ersetzt oder übergelaufen) */
+    int offer(String key, Frame frame) {
+        lock.lock();
+        try {
+            int dropped = pending.remove(key) != null ? 1 : 0;
+            pending.put(key, frame);
+            return dropped + trim();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rangliste in Version {@code version}: Delta nur, wenn der Abonnent genau die vorige Version hat und nichts
+     * ansteht bzw. verloren ging, sonst vollständig. Eine schon eingereihte (oder ältere) Version wird ignoriert.
+     */
+    int offerTop(long version, LiveLeaderboardDto delta, LiveLeaderboardDto full) {
+        lock.lock();
+        try {
+            if (version <= topVersion) return 0;
+            boolean replace = pending.containsKey(TOP);
+            LiveLeaderboardDto data = needsFull || replace || topVersion != version - 1 ? full : delta;
+            needsFull = false;
+            topVersion = version;
+            pending.remove(TOP);
+            pending.put(TOP, new Frame(TOP, data));
+            return (replace ? 1 : 0) + trim();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long topVersion() {
+        return topVersion;
+    }
+
+    private int trim() {
+        int dropped = 0;
+        Iterator<Map.Entry<String, Frame>> it = pending.entrySet().iterator();
+        while (pending.size() > capacity && it.hasNext()) {
+            if (it.next().getKey().equals(TOP)) needsFull = true;
+            it.remove();
+            dropped++;
+        }
+        return dropped;
+    }
+
+    Frame poll() {
+        lock.lock();
+        try {
+            Iterator<Frame> it = pending.values().iterator();
+            if (!it.hasNext()) return null;
+            Frame f = it.next();
+            it.remove();
+            return f;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Genau ein Sender pro Verbindung: true = Aufrufer muss den Puffer leeren. */
+    boolean startDrain() {
+        return !closed.get() && draining.compareAndSet(false, true);
+    }
+
+    /** Puffer leer -> Sender beendet sich; true, wenn zwischenzeitlich etwas kam und er weitermachen muss. */
+    boolean finishDrain() {
+        draining.set(false);
+        boolean more;
+        lock.lock();
+        try {
+            more = !pending.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+        return more && startDrain();
+    }
+
+    /** @return true nur für den ersten Aufrufer (zählt die Verbindung genau einmal ab) */
+    boolean close() {
+        return closed.compareAndSet(false, true);
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+}
@@ -0,0 +1,289 @@
+package de.quizapp.service;
+
+import de.quizapp.dto.LeaderboardEntryDto;
+import de.quizapp.dto.LiveLeaderboardDto;
+import de.quizapp.dto.LiveProgressDto;
+import de.quizapp.dto.LiveRankDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ein Publisher im Prozess für alle SSE-Verbindungen (GET /api/live) statt Polling der Ranglisten-Endpunkte.
+ *
+ * - Rangliste: einmal pro Tick werden die Top K je abonniertem Zeitraum aus dem Speicher gelesen; nur bei Änderung
+ *   werden Namen geladen und ein Delta an alle Abonnenten verteilt. Der eigene Rang wird pro Abonnent verglichen
+ *   (O(log n) im Speicher) und nur bei Änderung gesendet.
+ * - Fortschritt: nach dem Commit einer Antwort an die Verbindungen desselben Benutzers.
+ *
+ * Jede Verbindung hat einen begrenzten Puffer ({@link LiveSubscriber}); gesendet wird auf Virtual Threads,
+ * ein langsamer Client blockiert nur seinen eigenen Sender. Eine ruhende Verbindung hält keinen Thread
+ * (SseEmitter ist asynchron) – nur ihren Eintrag hier.
+ */
+@Component
+public class LiveUpdateHub {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveUpdateHub.class);
+
+    private final LeaderboardService leaderboardService;
+    private final int topK;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+
+    private final Map<UUID, Set<LiveSubscriber>> byUser = new ConcurrentHashMap<>();
+    private final AtomicInteger count = new AtomicInteger();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    // letzte verteilte Top K je Zeitraum (nur vom Tick geschrieben); version zählt jede Änderung hoch
+    private final Map<LeaderboardWindow, TopState> lastTop = new ConcurrentHashMap<>();
+
+    private final Counter framesSent;
+    private final Counter framesDropped;
+
+    private record TopState(List<RankedSkipList.Entry> entries, long version, LiveLeaderboardDto full, LiveLeaderboardDto delta) {}
+
+    public LiveUpdateHub(
+            LeaderboardService leaderboardService,
+            MeterRegistry meterRegistry,
+            @Value("${app.live.top-k:10}") int topK,
+            @Value("${app.live.buffer-size:32}") int bufferSize,
+            @Value("${app.live.max-subscribers:10000}") int maxSubscribers,
+            @Value("${app.live.timeout:30m}") Duration timeout
+    ) {
+        this.leaderboardService = leaderboardService;
+        this.topK = Math.max(1, Math.min(topK, 200));
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeout.toMillis();
+
+        this.framesSent = Counter.builder("live.frames")
+                .description("gesendete SSE-Frames")
+                .tag("result", "sent")
+                .register(meterRegistry);
+        this.framesDropped = Counter.builder("live.frames")
+                .description("verworfene SSE-Frames (veraltet oder Puffer voll)")
+                .tag("result", "dropped")
+                .register(meterRegistry);
+        Gauge.builder("live.subscribers", count, AtomicInteger::get)
+                .description("offene SSE-Verbindungen")
+                .register(meterRegistry);
+    }
+
+    /* ===============================
+       VERBINDUNGEN
+       =============================== */
+
+    /** @return null, wenn das Limit offener Verbindungen erreicht ist */
+    public SseEmitter subscribe(UUID userId, LeaderboardWindow window) {
+        if (count.incrementAndGet() > maxSubscribers) {
+            count.decrementAndGet();
+            return null;
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        LiveSubscriber s = new LiveSubscriber(emitter, userId, window, bufferSize);
+        emitter.onCompletion(() -> remove(s));
+        emitter.onTimeout(() -> remove(s));
+        emitter.onError(e -> remove(s));
+        byUser.compute(userId, (id, set) -> {
+            Set<LiveSubscriber> subs = set != null ? set : ConcurrentHashMap.newKeySet();
+            subs.add(s);
+            return subs;
+        });
+
+        // Zeitraum schon beobachtet -> sofort den bekannten Stand, sonst kommt er mit dem nächsten Tick.
+        // Erst registriert, dann gelesen: ändert ein paralleler Tick den Stand, ohne uns schon zu kennen,
+        // sieht der nächste Tick unsere ältere Version und schickt die vollständige Liste nach.
+        TopState top = lastTop.get(window);
+        if (top != null) {
+            framesDropped.increment(s.offerTop(top.version(), top.full(), top.full()));
+            schedule(s);
+        }
+        return emitter;
+    }
+
+    private void remove(LiveSubscriber s) {
+        if (!s.close()) return;
+        count.decrementAndGet();
+        byUser.computeIfPresent(s.userId, (id, set) -> {
+            set.remove(s);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    /* ===============================
+       FORTSCHRITT
+       =============================== */
+
+    /** Nach dem Commit an die eigenen Verbindungen (Rollback -> nichts). */
+    public void progressAfterCommit(UUID userId, LiveProgressDto progress) {
+        if (userId == null || !byUser.containsKey(userId)) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publishProgress(userId, progress);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publishProgress(userId, progress);
+            }
+        });
+    }
+
+    private void publishProgress(UUID userId, LiveProgressDto progress) {
+        Set<LiveSubscriber> subs = byUser.get(userId);
+        if (subs == null) return;
+        for (LiveSubscriber s : subs) {
+            // pro Durchlauf zählt nur der neueste Stand
+            framesDropped.increment(s.offer("progress:" + progress.attemptId(), new LiveSubscriber.Frame("progress", progress)));
+            schedule(s);
+        }
+    }
+
+    /* ===============================
+       RANGLISTE (TICK)
+       =============================== */
+
+    @Scheduled(initialDelayString = "${app.live.tick:1s}", fixedDelayString = "${app.live.tick:1s}")
+    public void tick() {
+        if (count.get() == 0) return;
+
+        Map<LeaderboardWindow, List<LiveSubscriber>> byWindow = new EnumMap<>(LeaderboardWindow.class);
+        for (Set<LiveSubscriber> subs : byUser.values()) {
+            for (LiveSubscriber s : subs) byWindow.computeIfAbsent(s.window, w -> new ArrayList<>()).add(s);
+        }
+
+        for (Map.Entry<LeaderboardWindow, List<LiveSubscriber>> e : byWindow.entrySet()) {
+            try {
+                publishWindow(e.getKey(), e.getValue());
+            } catch (RuntimeException ex) {
+                log.warn("Live-Rangliste {} fehlgeschlagen: {}", e.getKey(), ex.getMessage());
+            }
+        }
+    }
+
+    private void publishWindow(LeaderboardWindow window, List<LiveSubscriber> subs) {
+        String name = window.name().toLowerCase();
+
+        List<RankedSkipList.Entry> top = leaderboardService.rawTop(window, topK);
+        TopState state = lastTop.get(window);
+        if (state == null || !state.entries().equals(top)) {
+            // Namen nur bei Änderung aus der DB, einmal für alle Abonnenten
+            List<LeaderboardEntryDto> entries = leaderboardService.entries(top);
+            LiveLeaderboardDto full = new LiveLeaderboardDto(name, true, entries, List.of());
+            LiveLeaderboardDto delta = delta(name, state, top, entries);
+            state = new TopState(top, state == null ? 0 : state.version() + 1, full, delta);
+            lastTop.put(window, state);
+        }
+
+        // jeder, der diese Version noch nicht hat – auch wer zwischen zwei Ticks abonniert und einen älteren Stand bekam
+        for (LiveSubscriber s : subs) {
+            if (s.topVersion() >= state.version()) continue;
+            framesDropped.increment(s.offerTop(state.version(), state.delta(), state.full()));
+            schedule(s);
+        }
+
+        for (LiveSubscriber s : subs) {
+            LeaderboardRanking.Position p = leaderboardService.rawPosition(window, s.userId);
+            LiveRankDto rank = p.me() == null
+                    ? new LiveRankDto(name, null, null, p.totalPlayers())
+                    : new LiveRankDto(name, p.me().rank(), p.me().points(), p.totalPlayers());
+            if (!rank.equals(s.lastRank)) {
+                s.lastRank = rank;
+                framesDropped.increment(s.offer("rank", new LiveSubscriber.Frame("rank", rank)));
+                schedule(s);
+            }
+        }
+    }
+
+    /** Geänderte/neue Einträge gegenüber dem letzten Tick + aus den Top K gefallene Benutzer. */
+    private static LiveLeaderboardDto delta(String window, TopState prev, List<RankedSkipList.Entry> top,
+                                           List<LeaderboardEntryDto> entries) {
+        if (prev == null) return new LiveLeaderboardDto(window, true, entries, List.of());
+
+        Map<UUID, RankedSkipList.Entry> before = new HashMap<>();
+        for (RankedSkipList.Entry e : prev.entries()) before.put(e.userId(), e);
+
+        List<LeaderboardEntryDto> changed = new ArrayList<>();
+        Set<UUID> still = new HashSet<>();
+        for (int i = 0; i < top.size(); i++) {
+            RankedSkipList.Entry e = top.get(i);
+            still.add(e.userId());
+            if (!e.equals(before.get(e.userId()))) changed.add(entries.get(i));
+        }
+        List<UUID> removed = before.keySet().stream().filter(id -> !still.contains(id)).toList();
+        return new LiveLeaderboardDto(window, false, changed, removed);
+    }
+
+    /* ===============================
+       SENDEN
+       =============================== */
+
+    @Scheduled(initialDelayString = "${app.live.heartbeat:25s}", fixedDelayString = "${app.live.heartbeat:25s}")
+    public void heartbeat() {
+        // hält Proxies offen und erkennt tote Verbindungen (Senden schlägt fehl -> entfernen)
+        for (Set<LiveSubscriber> subs : byUser.values()) {
+            for (LiveSubscriber s : subs) {
+                s.offer("ping", new LiveSubscriber.Frame(null, "ping"));
+                schedule(s);
+            }
+        }
+    }
+
+    private void schedule(LiveSubscriber s) {
+        if (s.startDrain()) senders.execute(() -> drain(s));
+    }
+
+    private void drain(LiveSubscriber s) {
+        do {
+            LiveSubscriber.Frame f;
+            while (!s.isClosed() && (f = s.poll()) != null) {
+                try {
+                    s.emitter.send(f.event() == null
+                            ? SseEmitter.event().comment(String.valueOf(f.data()))
+                            : SseEmitter.event().name(f.event()).data(f.data(), MediaType.APPLICATION_JSON));
+                    framesSent.increment();
+                } catch (IOException | IllegalStateException e) {
+                    // Client weg / Emitter schon abgeschlossen
+                    remove(s);
+                    s.emitter.completeWithError(e);
+                    return;
+                }
+            }
+        } while (!s.isClosed() && s.finishDrain());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (Set<LiveSubscriber> subs : byUser.values()) {
+            for (LiveSubscriber s : subs) s.emitter.complete();
+        }
+        senders.shutdownNow();
+    }
+}
@@ -4,9 +4,8 @@ import de.quizapp.dto.UpdateProfileRequest;
 import de.quizapp.dto.UserProfileDto;
 import de.quizapp.model.AdminUserView;
 import de.quizapp.model.User;
+import de.quizapp.model.UserStats;
 import de.quizapp.repository.AdminUserViewRepository;
-import de.quizapp.repository.QuizAttemptAnswerRepository;
-import de.quizapp.repository.QuizAttemptRepository;
 import de.quizapp.repository.UserRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,21 +17,18 @@ public class ProfileService {
 
     private final UserRepository userRepository;
     private final AdminUserViewRepository adminUserViewRepository;
-    private final QuizAttemptAnswerRepository answerRepository;
-    private final QuizAttemptRepository attemptRepository;
+    private final UserStatsCounter userStats;
     private final UserService userService; // enthält updateSupabaseUser()
 
     public ProfileService(
             UserRepository userRepository,
             AdminUserViewRepository adminUserViewRepository,
-            QuizAttemptAnswerRepository answerRepository,
-            QuizAttemptRepository attemptRepository,
+            UserStatsCounter userStats,
             UserService userService
     ) {
         this.userRepository = userRepository;
         this.adminUserViewRepository = adminUserViewRepository;
-        this.answerRepository = answerRepository;
-        this.attemptRepository = attemptRepository;
+        this.userStats = userStats;
         this.userService = userService;
     }
 
@@ -45,15 +41,17 @@ public class ProfileService {
                 .map(AdminUserView::getEmail)
                 .orElse("");
 
-        long points = answerRepository.getTotalPointsForUser(authUserId);
-        long finished = attemptRepository.countByUserIdAndFinishedTrue(authUserId);
+        // ✅ Kennzahlen aus der mitgeführten user_stats-Zeile (PK-Lookup statt Summe über alle Attempts)
+        UserStats stats = userStats.get(authUserId);
 
         return new UserProfileDto(
                 u.getFirstName() == null ? "" : u.getFirstName(),
                 u.getLastName() == null ? "" : u.getLastName(),
                 email == null ? "" : email,
-                points,
-                finished
+                stats.getPoints(),
+                stats.getFinishedQuizzes(),
+                stats.getAttempts(),
+                stats.getLastActivityAt()
         );
     }
 
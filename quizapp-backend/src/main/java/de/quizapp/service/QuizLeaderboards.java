@@ -0,0 +1,135 @@
+package de.quizapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.quizapp.model.QuizAttemptResult;
+import de.quizapp.repository.QuizAttemptResultRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bestenliste pro Quiz ({@link QuizTopK}) aus den Ergebnis-Zusammenfassungen (quiz_attempt_results).
+ *
+ * Aufgebaut beim ersten Lesen eines Quiz (eine Query: bestes Ergebnis pro Benutzer, Top K), danach bei jedem
+ * beendeten Durchlauf nach dem Commit ergänzt. Ergebnisse sind unveränderlich – auch ein Neustart nimmt keins zurück,
+ * die Liste wächst also nur. Verworfen wird ein Quiz nur bei invalidate/invalidateAll; läuft dabei gerade ein Aufbau,
+ * lässt ein Zähler pro Quiz (gestreift, wie der Invalidierungs-Zähler im {@link QuizSnapshotCache}) ihn nicht im Cache.
+ * Speicher: max-quizzes × top-k Einträge.
+ */
+@Component
+public class QuizLeaderboards {
+
+    private final QuizAttemptResultRepository quizAttemptResultRepository;
+    private final LeaderboardRanking ranking;
+    private final Cache<UUID, QuizTopK> boards;
+    private final int k;
+    // Invalidieren pro Quiz-Streifen – begrenzter Speicher statt eines Zählers pro Quiz
+    private final AtomicLongArray invalidations = new AtomicLongArray(64);
+
+    public QuizLeaderboards(
+            QuizAttemptResultRepository quizAttemptResultRepository,
+            LeaderboardRanking ranking,
+            MeterRegistry meterRegistry,
+            @Value("${app.quiz-leaderboard.top-k:10}") int k,
+            @Value("${app.quiz-leaderboard.max-quizzes:10000}") long maxQuizzes
+    ) {
+        this.quizAttemptResultRepository = quizAttemptResultRepository;
+        this.ranking = ranking;
+        this.k = Math.max(1, k);
+        this.boards = Caffeine.newBuilder()
+                .maximumSize(maxQuizzes)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, boards, "quiz.leaderboards");
+    }
+
+    public int topK() {
+        return k;
+    }
+
+    /** Bestenliste, bestes Ergebnis zuerst. */
+    List<QuizTopK.Entry> top(UUID quizId) {
+        QuizTopK board = boards.getIfPresent(quizId);
+        if (board == null) {
+            // kein cache.get(key, loader): der lädt unter einem Monitor (siehe QuizSnapshotCache)
+            QuizTopK fresh = new QuizTopK(k);
+            board = boards.asMap().putIfAbsent(quizId, fresh);
+            if (board == null) {
+                board = fresh;
+                load(quizId, fresh);
+            }
+        }
+
+        try {
+            board.awaitLoaded();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+        return board.ranked();
+    }
+
+    /** Durchlauf beendet -> nach dem Commit in die Bestenliste (nur wenn das Quiz gerade im Speicher ist). */
+    public void offerAfterCommit(UUID quizId, QuizTopK.Entry entry) {
+        afterCommit(() -> {
+            QuizTopK board = boards.getIfPresent(quizId);
+            // nur Anwender, wie beim Aufbau (Rolle kennt die globale Rangliste)
+            if (board != null && ranking.isPlayer(entry.userId())) board.offer(entry);
+        });
+    }
+
+    public void invalidate(UUID quizId) {
+        invalidations.incrementAndGet(stripe(quizId));
+        boards.invalidate(quizId);
+    }
+
+    /** Rolle eines Benutzers geändert / Benutzer gelöscht -> betrifft potenziell jede Liste. */
+    public void invalidateAll() {
+        for (int i = 0; i < invalidations.length(); i++) invalidations.incrementAndGet(i);
+        boards.invalidateAll();
+    }
+
+    private void load(UUID quizId, QuizTopK board) {
+        long seen = invalidations.get(stripe(quizId));
+        try {
+            // Ergebnisse, die während des Ladens beendet werden, landen per offer() schon in board – offer ist idempotent
+            for (QuizAttemptResult row : quizAttemptResultRepository.findBestPerUser(quizId, k)) {
+                board.offer(new QuizTopK.Entry(row.getAttemptId(), row.getUserId(), row.getCorrectCount(),
+                        row.getTotalQuestions(), row.getDurationMillis(), row.getFinishedAt()));
+            }
+            // währenddessen invalidiert -> Ergebnis nur für die wartenden Leser, der nächste baut neu auf
+            if (seen != invalidations.get(stripe(quizId))) boards.asMap().remove(quizId, board);
+            board.loaded();
+        } catch (RuntimeException e) {
+            boards.asMap().remove(quizId, board);
+            board.failed(e);
+            throw e;
+        }
+    }
+
+    private int stripe(UUID quizId) {
+        return Math.floorMod(quizId.hashCode(), invalidations.length());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -3,9 +3,18 @@ package de.quizapp.service;
 import de.quizapp.dto.*;
 import de.quizapp.model.*;
 import de.quizapp.repository.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -16,76 +25,124 @@ public class QuizPlayService {
     private final QuizQuestionRepository quizQuestionRepository;
     private final QuizAttemptRepository quizAttemptRepository;
     private final QuizAttemptAnswerRepository quizAttemptAnswerRepository;
+    private final QuizAttemptResultRepository quizAttemptResultRepository;
+    private final QuizSnapshotCache quizSnapshots;
+    private final AttemptCursorBuffer attemptCursors;
+    private final ActiveAttemptEngine activeAttempts;
+    private final LeaderboardRanking leaderboard;
+    private final QuizLeaderboards quizLeaderboards;
+    private final UserStatsCounter userStats;
+    private final LiveUpdateHub live;
+    private final EntityManager entityManager;
 
     public QuizPlayService(
             QuizRepository quizRepository,
             QuizQuestionRepository quizQuestionRepository,
             QuizAttemptRepository quizAttemptRepository,
-            QuizAttemptAnswerRepository quizAttemptAnswerRepository
+            QuizAttemptAnswerRepository quizAttemptAnswerRepository,
+            QuizAttemptResultRepository quizAttemptResultRepository,
+            QuizSnapshotCache quizSnapshots,
+            AttemptCursorBuffer attemptCursors,
+            ActiveAttemptEngine activeAttempts,
+            LeaderboardRanking leaderboard,
+            QuizLeaderboards quizLeaderboards,
+            UserStatsCounter userStats,
+            LiveUpdateHub live,
+            EntityManager entityManager
     ) {
         this.quizRepository = quizRepository;
         this.quizQuestionRepository = quizQuestionRepository;
         this.quizAttemptRepository = quizAttemptRepository;
         this.quizAttemptAnswerRepository = quizAttemptAnswerRepository;
+        this.quizAttemptResultRepository = quizAttemptResultRepository;
+        this.quizSnapshots = quizSnapshots;
+        this.attemptCursors = attemptCursors;
+        this.activeAttempts = activeAttempts;
+        this.leaderboard = leaderboard;
+        this.quizLeaderboards = quizLeaderboards;
+        this.userStats = userStats;
+        this.live = live;
+        this.entityManager = entityManager;
     }
 
     /* ===============================
        QUIZZES (NEW / RESUMABLE / RESTART)
        =============================== */
 
-    public List<QuizListItemDto> getNewPublishedQuizzesForUser(UUID userId) {
+    @Transactional(readOnly = true)
+    public QuizFeedPage getNewPublishedQuizzesForUser(UUID userId, String cursor, int size) {
         // ✅ nur veröffentlicht + noch nicht begonnen (egal ob finished oder nicht)
-        return quizRepository.findByIsPublishedTrueOrderByCreatedAtDesc()
-                .stream()
-                .filter(q -> !quizAttemptRepository.existsByUserIdAndQuizId(userId, q.getId()))
-                .map(q -> new QuizListItemDto(q.getId(), q.getTitle(), q.isPublished()))
+        int safeSize = Math.max(1, Math.min(size, 100));
+
+        // eine Zeile mehr laden -> wissen, ob es eine nächste Seite gibt
+        Limit limit = Limit.of(safeSize + 1);
+        List<QuizRepository.FeedRow> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = quizRepository.findNewForUser(userId, limit);
+        } else {
+            FeedCursor after = FeedCursor.decode(cursor);
+            rows = quizRepository.findNewForUserAfter(userId, after.at(), after.id(), limit);
+        }
+
+        boolean hasMore = rows.size() > safeSize;
+        if (hasMore) rows = rows.subList(0, safeSize);
+
+        List<QuizListItemDto> items = rows.stream()
+                .map(r -> new QuizListItemDto(r.getId(), r.getTitle(), true))
                 .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (hasMore) {
+            QuizRepository.FeedRow last = rows.get(rows.size() - 1);
+            nextCursor = new FeedCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return new QuizFeedPage(items, nextCursor);
     }
 
-    public List<ResumableQuizDto> getResumableQuizzesForUser(UUID userId) {
-        // ✅ WICHTIG: NICHT nur finished=false, sondern alle Attempts
-        List<QuizAttempt> attempts = quizAttemptRepository.findByUserIdOrderByUpdatedAtDesc(userId);
+    @Transactional(readOnly = true)
+    public ResumableQuizPage getResumableQuizzesForUser(UUID userId, String cursor, int size) {
+        // ✅ WICHTIG: NICHT nur finished=false, sondern pro Quiz der neueste Attempt (egal ob finished oder nicht)
+        int safeSize = Math.max(1, Math.min(size, 100));
 
-        // Pro Quiz nur den neuesten Attempt (egal ob finished oder nicht)
-        Map<UUID, QuizAttempt> latestByQuiz = new LinkedHashMap<>();
-        for (QuizAttempt a : attempts) {
-            if (a.getQuizId() == null) continue;
-            latestByQuiz.putIfAbsent(a.getQuizId(), a);
+        // eine Zeile mehr laden -> wissen, ob es eine nächste Seite gibt
+        Limit limit = Limit.of(safeSize + 1);
+        List<QuizAttemptRepository.ResumableRow> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = quizAttemptRepository.findLatestPerQuiz(userId, limit);
+        } else {
+            FeedCursor after = FeedCursor.decode(cursor);
+            rows = quizAttemptRepository.findLatestPerQuizAfter(userId, after.at().toInstant(), after.id(), limit);
         }
 
-        List<ResumableQuizDto> result = new ArrayList<>();
+        boolean hasMore = rows.size() > safeSize;
+        if (hasMore) rows = rows.subList(0, safeSize);
 
-        for (QuizAttempt a : latestByQuiz.values()) {
-            UUID quizId = a.getQuizId();
-            Quiz quiz = quizRepository.findById(quizId).orElse(null);
+        List<ResumableQuizDto> result = new ArrayList<>(rows.size());
 
-            int total = safeTotalQuestions(a, quizId);
-            int answered = (int) quizAttemptAnswerRepository.countByAttempt_Id(a.getId());
-            if (answered > total) answered = total;
+        for (QuizAttemptRepository.ResumableRow row : rows) {
+            UUID quizId = row.getQuizId();
 
-            int correctCount = (int) quizAttemptAnswerRepository.countByAttempt_IdAndCorrectTrue(a.getId());
+            // Altbestand ohne total_questions -> aus dem Snapshot (Speicher), nicht per Query
+            int total = row.getTotalQuestions();
+            if (total <= 0) total = quizSnapshots.find(quizId).map(QuizSnapshot::size).orElse(0);
+
+            int answered = Math.min(row.getAnsweredCount(), total);
+            int correctCount = row.getCorrectCount();
             int wrongCount = Math.max(0, answered - correctCount);
 
             boolean finished = (total > 0 && answered >= total);
-
-            // ✅ DB-Flag reparieren, falls es „hinterherhinkt“
-            if (a.isFinished() != finished) {
-                a.setFinished(finished);
-                a.setUpdatedAt(Instant.now());
-                quizAttemptRepository.save(a);
-            }
-
             int percent = total > 0 ? (int) Math.round((answered * 100.0) / total) : 0;
 
             ResumableQuizDto dto = new ResumableQuizDto();
             dto.setQuizId(quizId);
-            dto.setAttemptId(a.getId());
-            dto.setQuizTitle(quiz != null ? quiz.getTitle() : "Quiz");
+            dto.setAttemptId(row.getAttemptId());
+            dto.setQuizTitle(row.getQuizTitle() != null ? row.getQuizTitle() : "Quiz");
 
             dto.setTotalQuestions(total);
             dto.setAnsweredQuestions(answered);
 
-            // ✅ Score aus echten Daten ableiten (robuster als altes attempt.score)
+            // ✅ Score aus den Zählern ableiten (robuster als altes attempt.score)
             dto.setScore(correctCount);
 
             dto.setFinished(finished);
@@ -96,12 +153,18 @@ public class QuizPlayService {
             result.add(dto);
         }
 
-        return result;
+        String nextCursor = null;
+        if (hasMore) {
+            QuizAttemptRepository.ResumableRow last = rows.get(rows.size() - 1);
+            nextCursor = new FeedCursor(last.getUpdatedAt().atOffset(ZoneOffset.UTC), last.getAttemptId()).encode();
+        }
+
+        return new ResumableQuizPage(result, nextCursor);
     }
 
+    @Transactional
     public AttemptStartedDto restartAttempt(UUID userId, UUID quizId) {
-        Quiz quiz = quizRepository.findById(quizId)
-                .orElseThrow(() -> new RuntimeException("Quiz nicht gefunden"));
+        QuizSnapshot quiz = quizSnapshots.get(quizId);
 
         QuizAttempt a = quizAttemptRepository
                 .findTopByUserIdAndQuizIdOrderByUpdatedAtDesc(userId, quizId)
@@ -114,45 +177,46 @@ public class QuizPlayService {
             return startOrResumeAttempt(userId, req);
         }
 
-        // ✅ Antworten löschen -> wirklich Neustart
-        List<QuizAttemptAnswer> answers = quizAttemptAnswerRepository.findByAttempt_Id(a.getId());
-        quizAttemptAnswerRepository.deleteAll(answers);
-
-        a.setCurrentPosition(0);
-        a.setScore(0);
-        a.setFinished(false);
-        a.setUpdatedAt(Instant.now());
-        quizAttemptRepository.save(a);
-
         int total = safeTotalQuestions(a, quizId);
-        return new AttemptStartedDto(a.getId(), quiz.getTitle(), total, 0);
+        int generation = a.getGeneration();
+
+        // ✅ neue Generation statt Antworten löschen -> Neustart unabhängig von der Anzahl Antworten,
+        // alte Antworten räumt AttemptAnswerReaper im Hintergrund ins Archiv
+        quizAttemptRepository.startNextGeneration(a.getId(), Instant.now());
+        // Ergebnis des alten Durchlaufs bleibt stehen (Auswertungen, Quiz-Bestenliste), zählt im Profil aber nicht mehr
+        userStats.record(userId, -a.getCorrectCount(), a.isFinished() ? -1 : 0, 0);
+        live.progressAfterCommit(userId, new LiveProgressDto(a.getId(), quizId, 0, total, 0, false));
+        activeAttempts.invalidate(a.getId());
+        // Neustart setzt die Punkte des Attempts zurück – auch in den Zeitraum-Wertungen (sonst Punkte-Farming)
+        leaderboard.withdrawEarnedAfterCommit(userId, a.getCorrectCount(), a.getId(), generation);
+        return new AttemptStartedDto(a.getId(), quiz.title(), total, 0);
     }
 
     /* ===============================
        ATTEMPT START / RESUME
        =============================== */
 
+    @Transactional
     public AttemptStartedDto startOrResumeAttempt(UUID userId, StartAttemptRequest req) {
         if (req == null || req.getQuizId() == null) throw new RuntimeException("quizId fehlt");
 
         UUID quizId = req.getQuizId();
-        Quiz quiz = quizRepository.findById(quizId).orElseThrow(() -> new RuntimeException("Quiz nicht gefunden"));
-        if (!quiz.isPublished()) throw new RuntimeException("Quiz ist nicht veröffentlicht");
+        QuizSnapshot quiz = quizSnapshots.get(quizId);
+        if (!quiz.published()) throw new RuntimeException("Quiz ist nicht veröffentlicht");
 
         Optional<QuizAttempt> existing = quizAttemptRepository.findTopByUserIdAndQuizIdOrderByUpdatedAtDesc(userId, quizId);
 
         // ✅ Resume nur wenn nicht finished – sonst bleibt es ein „beendetes Ergebnis“
         if (existing.isPresent() && !existing.get().isFinished()) {
             QuizAttempt a = existing.get();
-            a.setUpdatedAt(Instant.now());
-            quizAttemptRepository.save(a);
+            // ✅ Heartbeat über den Write-Behind-Puffer statt UPDATE im Request
+            attemptCursors.touch(a.getId());
 
             int total = safeTotalQuestions(a, quizId);
-            int correctCount = (int) quizAttemptAnswerRepository.countByAttempt_IdAndCorrectTrue(a.getId());
-            return new AttemptStartedDto(a.getId(), quiz.getTitle(), total, correctCount);
+            return new AttemptStartedDto(a.getId(), quiz.title(), total, a.getCorrectCount());
         }
 
-        int total = (int) quizQuestionRepository.countByQuiz_Id(quizId);
+        int total = quiz.size();
 
         QuizAttempt attempt = new QuizAttempt();
         attempt.setUserId(userId);
@@ -164,14 +228,17 @@ public class QuizPlayService {
         attempt.setCreatedAt(Instant.now());
         attempt.setUpdatedAt(Instant.now());
 
-        QuizAttempt saved = quizAttemptRepository.save(attempt);
-        return new AttemptStartedDto(saved.getId(), quiz.getTitle(), total, 0);
+        QuizAttempt saved = quizAttemptRepository.saveAndFlush(attempt);
+        // nach dem Flush: legt ein Aggregat die Zeile an, zählt der neue Attempt schon mit
+        userStats.record(userId, 0, 0, 1);
+        return new AttemptStartedDto(saved.getId(), quiz.title(), total, 0);
     }
 
     /* ===============================
        META
        =============================== */
 
+    @Transactional(readOnly = true)
     public AttemptMetaDto getAttemptMeta(UUID userId, UUID attemptId) {
         QuizAttempt attempt = quizAttemptRepository.findById(attemptId)
                 .orElseThrow(() -> new RuntimeException("Attempt nicht gefunden"));
@@ -181,107 +248,163 @@ public class QuizPlayService {
         UUID quizId = attempt.getQuizId();
         if (quizId == null) throw new RuntimeException("Attempt hat kein quizId");
 
-        Quiz quiz = quizRepository.findById(quizId).orElseThrow(() -> new RuntimeException("Quiz nicht gefunden"));
+        QuizSnapshot quiz = quizSnapshots.get(quizId);
 
         int total = safeTotalQuestions(attempt, quizId);
 
-        int answered = (int) quizAttemptAnswerRepository.countByAttempt_Id(attemptId);
-        if (answered > total) answered = total;
+        int answered = Math.min(attempt.getAnsweredCount(), total);
+        int correctCount = attempt.getCorrectCount();
 
-        int correctCount = (int) quizAttemptAnswerRepository.countByAttempt_IdAndCorrectTrue(attemptId);
-
-        return new AttemptMetaDto(attemptId, quizId, quiz.getTitle(), total, answered, correctCount);
+        return new AttemptMetaDto(attemptId, quizId, quiz.title(), total, answered, correctCount);
     }
 
     /* ===============================
        OVERVIEW
        =============================== */
 
+    // ohne Transaktion: warm kommt alles aus dem Speicher, kalt reicht die eine Lade-Query -> kein Connection-Checkout pro Aufruf
     public AttemptOverviewDto getAttemptOverview(UUID userId, UUID attemptId) {
+        // ✅ aus dem Spielstand im Speicher statt alle Antworten zu laden
+        ActiveAttempt attempt = activeAttempts.find(attemptId)
+                .orElseThrow(() -> new RuntimeException("Attempt nicht gefunden"));
+
+        if (!Objects.equals(attempt.userId(), userId)) throw new RuntimeException("Kein Zugriff auf diesen Attempt");
+
+        QuizSnapshot quiz = attempt.quiz();
+        if (quiz.isEmpty()) throw new RuntimeException("Quiz hat keine Fragen");
+
+        List<AttemptOverviewDto.Item> items = new ArrayList<>(quiz.size());
+        for (int i = 0; i < quiz.size(); i++) {
+            boolean answered = attempt.isAnswered(i);
+            Boolean correct = answered ? attempt.isCorrect(i) : null;
+            items.add(new AttemptOverviewDto.Item(quiz.questions().get(i).position(), answered, correct));
+        }
+
+        return new AttemptOverviewDto(attemptId, quiz.size(), attempt.answeredCount(), items);
+    }
+
+    /* ===============================
+       BUNDLE (alle Fragen + Antwortstand, mit ETag)
+       =============================== */
+
+    /** Bundle + starker ETag (Quiz-Version + Antwortstand des Attempts). */
+    public record AttemptBundle(String etag, AttemptBundleDto body) {}
+
+    @Transactional(readOnly = true)
+    public AttemptBundle getAttemptBundle(UUID userId, UUID attemptId) {
         QuizAttempt attempt = quizAttemptRepository.findById(attemptId)
                 .orElseThrow(() -> new RuntimeException("Attempt nicht gefunden"));
 
         if (!Objects.equals(attempt.getUserId(), userId)) throw new RuntimeException("Kein Zugriff auf diesen Attempt");
 
-        List<QuizQuestion> questions = quizQuestionRepository.findByQuiz_IdOrderByPositionAsc(attempt.getQuizId());
-        if (questions.isEmpty()) throw new RuntimeException("Quiz hat keine Fragen");
+        QuizSnapshot quiz = requireQuestions(attempt.getQuizId());
 
-        Map<UUID, QuizAttemptAnswer> byQuestion = quizAttemptAnswerRepository.findByAttempt_Id(attemptId)
-                .stream()
-                .collect(Collectors.toMap(a -> a.getQuestion().getId(), a -> a, (a, b) -> a));
+        Map<UUID, StoredAnswer> byQuestion = storedAnswers(attempt, quiz);
+
+        List<AttemptBundleDto.QuestionDto> questions = new ArrayList<>(quiz.size());
+        List<AttemptBundleDto.AnswerStateDto> answers = new ArrayList<>(quiz.size());
+
+        // Antwortstand kompakt für den ETag: "-" = offen, sonst gewählter Index + "+"/"x"
+        StringBuilder state = new StringBuilder(quiz.size() * 2);
+        int correctCount = 0;
 
-        List<AttemptOverviewDto.Item> items = new ArrayList<>();
-        for (QuizQuestion q : questions) {
-            QuizAttemptAnswer a = byQuestion.get(q.getId());
-            boolean answered = (a != null);
-            Boolean correct = answered ? a.isCorrect() : null;
-            items.add(new AttemptOverviewDto.Item(q.getPosition(), answered, correct));
+        for (QuizSnapshot.Question q : quiz.questions()) {
+            questions.add(new AttemptBundleDto.QuestionDto(q.id(), q.position(), q.question(), q.options()));
+
+            StoredAnswer a = byQuestion.get(q.id());
+            if (a == null) {
+                answers.add(new AttemptBundleDto.AnswerStateDto(q.position(), false, null, null));
+                state.append('-');
+            } else {
+                answers.add(new AttemptBundleDto.AnswerStateDto(q.position(), true, a.selectedIndex(), a.correct()));
+                state.append(a.selectedIndex()).append(a.correct() ? '+' : 'x');
+                if (a.correct()) correctCount++;
+            }
         }
 
-        return new AttemptOverviewDto(attemptId, questions.size(), byQuestion.size(), items);
+        int total = quiz.size();
+        int answered = byQuestion.size();
+        int position = attemptCursors.pendingPosition(attemptId).orElse(attempt.getCurrentPosition());
+
+        AttemptBundleDto body = new AttemptBundleDto(
+                attemptId,
+                quiz.quizId(),
+                quiz.title(),
+                quiz.version(),
+                total,
+                Math.min(answered, total),
+                correctCount,
+                position,
+                total > 0 && answered >= total,
+                questions,
+                answers
+        );
+
+        // starker ETag: alles, was im Body variiert (Quiz-Version, Antwortstand, Position)
+        state.append('@').append(position);
+        String etag = quiz.quizId() + "-v" + quiz.version() + "-"
+                + DigestUtils.md5DigestAsHex(state.toString().getBytes(StandardCharsets.UTF_8));
+
+        return new AttemptBundle(etag, body);
     }
 
     /* ===============================
        CURRENT QUESTION (+ Bewertung wenn schon beantwortet)
        =============================== */
 
+    @Transactional(readOnly = true)
     public CurrentQuestionDto getCurrentQuestion(UUID userId, UUID attemptId) {
         QuizAttempt attempt = quizAttemptRepository.findById(attemptId)
                 .orElseThrow(() -> new RuntimeException("Attempt nicht gefunden"));
 
         if (!Objects.equals(attempt.getUserId(), userId)) throw new RuntimeException("Kein Zugriff auf diesen Attempt");
 
-        List<QuizQuestion> questions = quizQuestionRepository.findByQuiz_IdOrderByPositionAsc(attempt.getQuizId());
-        if (questions.isEmpty()) throw new RuntimeException("Quiz hat keine Fragen");
+        QuizSnapshot quiz = requireQuestions(attempt.getQuizId());
 
-        int position = attempt.getCurrentPosition();
-        QuizQuestion question = questions.stream()
-                .filter(q -> q.getPosition() == position)
-                .findFirst()
-                .orElse(questions.get(0));
+        int position = attemptCursors.pendingPosition(attemptId).orElse(attempt.getCurrentPosition());
+        QuizSnapshot.Question question = quiz.at(position);
+        if (question == null) question = quiz.first();
 
         return buildQuestionDto(attempt, question);
     }
 
+    @Transactional(readOnly = true)
     public CurrentQuestionDto getQuestionByPosition(UUID userId, UUID attemptId, int position) {
         QuizAttempt attempt = quizAttemptRepository.findById(attemptId)
                 .orElseThrow(() -> new RuntimeException("Attempt nicht gefunden"));
 
         if (!Objects.equals(attempt.getUserId(), userId)) throw new RuntimeException("Kein Zugriff auf diesen Attempt");
 
-        List<QuizQuestion> questions = quizQuestionRepository.findByQuiz_IdOrderByPositionAsc(attempt.getQuizId());
-        if (questions.isEmpty()) throw new RuntimeException("Quiz hat keine Fragen");
-
-        QuizQuestion question = questions.stream()
-                .filter(q -> q.getPosition() == position)
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Frage nicht gefunden"));
+        QuizSnapshot.Question question = requireQuestions(attempt.getQuizId()).at(position);
+        if (question == null) throw new RuntimeException("Frage nicht gefunden");
 
-        attempt.setCurrentPosition(position);
-        attempt.setUpdatedAt(Instant.now());
-        quizAttemptRepository.save(attempt);
+        // ✅ Navigation ist ein Read – Cursor wird gepuffert und gebündelt geschrieben
+        attemptCursors.recordPosition(attemptId, position);
 
         return buildQuestionDto(attempt, question);
     }
 
-    private CurrentQuestionDto buildQuestionDto(QuizAttempt attempt, QuizQuestion question) {
+    private CurrentQuestionDto buildQuestionDto(QuizAttempt attempt, QuizSnapshot.Question question) {
         CurrentQuestionDto dto = new CurrentQuestionDto(
-                question.getId(),
-                question.getPosition(),
-                question.getQuestion(),
-                Arrays.asList(question.getOptionA(), question.getOptionB(), question.getOptionC(), question.getOptionD())
+                question.id(),
+                question.position(),
+                question.question(),
+                question.options()
         );
 
-        Optional<QuizAttemptAnswer> answerOpt =
-                quizAttemptAnswerRepository.findByAttempt_IdAndQuestion_Id(attempt.getId(), question.getId());
+        // gepackt: Antwort steht schon im geladenen Attempt, sonst eine Zeile nachschlagen
+        Optional<StoredAnswer> answerOpt = attempt.getAnswerVector() != null
+                ? Optional.ofNullable(unpack(attempt, quizSnapshots.get(attempt.getQuizId())).get(question.id()))
+                : quizAttemptAnswerRepository.findByAttempt_IdAndGenerationAndQuestion_Id(attempt.getId(), attempt.getGeneration(), question.id())
+                        .map(StoredAnswer::of);
 
         if (answerOpt.isPresent()) {
-            QuizAttemptAnswer a = answerOpt.get();
+            StoredAnswer a = answerOpt.get();
             dto.setAnswered(true);
-            dto.setSelectedIndex(a.getSelectedIndex());
-            dto.setCorrectIndex(question.getCorrectIndex());
-            dto.setCorrect(a.isCorrect());
-            dto.setExplanation(question.getExplanation());
+            dto.setSelectedIndex(a.selectedIndex());
+            dto.setCorrectIndex(question.correctIndex());
+            dto.setCorrect(a.correct());
+            dto.setExplanation(question.explanation());
         } else {
             dto.setAnswered(false);
         }
@@ -293,94 +416,457 @@ public class QuizPlayService {
        ANSWER (niemals überschreiben)
        =============================== */
 
+    // Antwortmöglichkeiten A–D
+    private static final int OPTION_COUNT = 4;
+
+    private static void requireOption(int selectedIndex) {
+        if (selectedIndex < 0 || selectedIndex >= OPTION_COUNT) {
+            throw new RuntimeException("selectedIndex muss zwischen 0 und " + (OPTION_COUNT - 1) + " liegen");
+        }
+    }
+
+    @Transactional
     public AnswerResultDto answer(UUID userId, UUID attemptId, AnswerRequest req) {
         if (req == null || req.getQuestionId() == null) throw new RuntimeException("questionId fehlt");
+        if (req.getSelectedIndex() == null) throw new RuntimeException("selectedIndex fehlt");
+        requireOption(req.getSelectedIndex());
 
-        QuizAttempt attempt = quizAttemptRepository.findById(attemptId)
+        // 1) Spielstand aus dem Speicher – aus der DB nur beim ersten Zugriff der Sitzung
+        ActiveAttempt attempt = activeAttempts.find(attemptId)
                 .orElseThrow(() -> new RuntimeException("Attempt nicht gefunden"));
 
-        if (!Objects.equals(attempt.getUserId(), userId)) throw new RuntimeException("Kein Zugriff auf diesen Attempt");
-        if (attempt.isFinished()) throw new RuntimeException("Attempt ist bereits beendet");
+        if (!Objects.equals(attempt.userId(), userId)) throw new RuntimeException("Kein Zugriff auf diesen Attempt");
+
+        attempt.lock();
+        try {
+            // ✅ Frage muss zum Quiz des Attempts gehören
+            QuizSnapshot quiz = attempt.quiz();
+            QuizSnapshot.Question question = quiz.byId(req.getQuestionId());
+            if (question == null) throw new RuntimeException("Frage nicht gefunden");
+            int ordinal = quiz.ordinalOf(question.id());
+
+            // Antwort ohne Schreibzugriff nur, wenn der Speicherstand noch zur aktuellen Generation gehört
+            if ((attempt.isFinished() || attempt.isAnswered(ordinal)) && activeAttempts.isStale(attempt)) {
+                activeAttempts.invalidate(attemptId);
+                return answer(userId, attemptId, req);
+            }
 
-        QuizQuestion question = quizQuestionRepository.findById(req.getQuestionId())
-                .orElseThrow(() -> new RuntimeException("Frage nicht gefunden"));
+            if (attempt.isFinished()) throw new RuntimeException("Attempt ist bereits beendet");
 
-        Optional<QuizAttemptAnswer> existing =
-                quizAttemptAnswerRepository.findByAttempt_IdAndQuestion_Id(attemptId, question.getId());
+            // ✅ WICHTIG: niemals überschreiben – gespeicherte Bewertung zurückgeben
+            if (attempt.isAnswered(ordinal)) return answerResult(attempt, question, attempt.isCorrect(ordinal));
 
-        // ✅ WICHTIGER FIX: wenn schon beantwortet -> finished ggf. speichern
-        if (existing.isPresent()) {
-            QuizAttemptAnswer a = existing.get();
+            int selected = req.getSelectedIndex();
+            boolean correct = (selected == question.correctIndex());
 
-            boolean finished = isFinished(attemptId, attempt.getQuizId(), attempt);
-            attempt.setUpdatedAt(Instant.now());
-            quizAttemptRepository.save(attempt);
+            if (activeAttempts.writesPacked(attempt)) return answerPacked(attempt, question, ordinal, selected, correct);
 
-            Integer nextPos = finished ? null : findNextUnansweredPosition(attemptId, attempt.getQuizId());
-            int correctCount = (int) quizAttemptAnswerRepository.countByAttempt_IdAndCorrectTrue(attemptId);
+            // 2) Insert – bei Konflikt (schon beantwortet) passiert nichts
+            int inserted = quizAttemptAnswerRepository.insertIfAbsent(
+                    UUID.randomUUID(), attemptId, attempt.generation(), question.id(), selected, correct, OffsetDateTime.now());
 
-            return new AnswerResultDto(
-                    a.isCorrect(),
-                    question.getCorrectIndex(),
-                    question.getExplanation(),
-                    correctCount,
-                    finished,
-                    nextPos
+            if (inserted == 0) {
+                // Speicherstand war veraltet (andere Instanz, paralleler Sync) -> neu laden, die DB gilt
+                activeAttempts.invalidate(attemptId);
+                ActiveAttempt fresh = activeAttempts.find(attemptId)
+                        .orElseThrow(() -> new RuntimeException("Attempt nicht gefunden"));
+                int freshOrdinal = fresh.quiz().ordinalOf(question.id());
+                boolean storedCorrect = freshOrdinal >= 0 && fresh.isAnswered(freshOrdinal) ? fresh.isCorrect(freshOrdinal) : correct;
+                return answerResult(fresh, question, storedCorrect);
+            }
+
+            // 3) Speicherstand nachziehen, Zähler atomar in der DB hochzählen; finished/score leiten sich daraus ab
+            activeAttempts.invalidateOnRollback(attemptId);
+            attempt.record(ordinal, selected, correct);
+
+            int updated = quizAttemptRepository.recordAnswers(
+                    attemptId,
+                    attempt.generation(),
+                    1,
+                    correct ? 1 : 0,
+                    attempt.total(),
+                    attempt.currentPosition(),
+                    Instant.now()
             );
+            // paralleler Neustart: Generation ist weiter, Antwort zählt nicht mehr (Rollback nimmt auch den Insert zurück)
+            if (updated == 0) {
+                activeAttempts.invalidate(attemptId);
+                throw new RuntimeException("Antwort konnte nicht gespeichert werden, bitte erneut senden");
+            }
+
+            attempt.persisted(1, false);
+            if (correct) leaderboard.recordEarnedAfterCommit(userId, attemptId, attempt.generation(), List.of(Instant.now()));
+            boolean finishedNow = attempt.isFinished() && recordResult(attemptId, attempt.generation(), attempt.startedAt());
+            userStats.record(userId, correct ? 1 : 0, finishedNow ? 1 : 0, 0);
+            publishProgress(attempt);
+
+            return answerResult(attempt, question, correct);
+        } finally {
+            attempt.unlock();
         }
+    }
 
-        int selected = req.getSelectedIndex();
-        boolean correct = (selected == question.getCorrectIndex());
+    /** Gepacktes Format: Vektor + Zähler in einem UPDATE statt Insert + Update. Aufruf unter attempt.lock(). */
+    private AnswerResultDto answerPacked(ActiveAttempt attempt, QuizSnapshot.Question question, int ordinal, int selected, boolean correct) {
+        UUID attemptId = attempt.attemptId();
+        int expectedAnswered = attempt.persistedAnswered();
 
-        QuizAttemptAnswer answer = new QuizAttemptAnswer();
-        answer.setAttempt(attempt);
-        answer.setQuestion(question);
-        answer.setSelectedIndex(selected);
-        answer.setCorrect(correct);
+        activeAttempts.invalidateOnRollback(attemptId);
+        attempt.record(ordinal, selected, correct);
 
-        quizAttemptAnswerRepository.save(answer);
+        int updated = quizAttemptRepository.recordPackedAnswers(
+                attemptId,
+                attempt.generation(),
+                expectedAnswered,
+                attempt.pack(),
+                1,
+                correct ? 1 : 0,
+                attempt.total(),
+                attempt.currentPosition(),
+                Instant.now()
+        );
+
+        if (updated == 0) {
+            // andere Instanz oder Neustart war schneller -> Stand aus der DB; schon beantwortet = gespeicherte Bewertung
+            activeAttempts.invalidate(attemptId);
+            ActiveAttempt fresh = activeAttempts.find(attemptId)
+                    .orElseThrow(() -> new RuntimeException("Attempt nicht gefunden"));
+            int freshOrdinal = fresh.quiz().ordinalOf(question.id());
+            if (freshOrdinal < 0 || !fresh.isAnswered(freshOrdinal)) {
+                throw new RuntimeException("Antwort konnte nicht gespeichert werden, bitte erneut senden");
+            }
+            return answerResult(fresh, question, fresh.isCorrect(freshOrdinal));
+        }
 
-        boolean finished = isFinished(attemptId, attempt.getQuizId(), attempt);
-        Integer nextPos = finished ? null : findNextUnansweredPosition(attemptId, attempt.getQuizId());
-        if (nextPos != null) attempt.setCurrentPosition(nextPos);
+        attempt.persisted(1, true);
+        if (correct) leaderboard.recordEarnedAfterCommit(attempt.userId(), attemptId, attempt.generation(), List.of(Instant.now()));
+        boolean finishedNow = attempt.isFinished() && recordResult(attemptId, attempt.generation(), attempt.startedAt());
+        userStats.record(attempt.userId(), correct ? 1 : 0, finishedNow ? 1 : 0, 0);
+        publishProgress(attempt);
+        return answerResult(attempt, question, correct);
+    }
 
-        attempt.setUpdatedAt(Instant.now());
-        quizAttemptRepository.save(attempt);
+    /**
+     * Übergang auf finished: unveränderliche Zusammenfassung für Ergebnisseite und Profil (No-Op, falls schon da).
+     * @return true, wenn dieser Aufruf die Zusammenfassung geschrieben hat
+     */
+    private boolean recordResult(UUID attemptId, int generation, Instant startedAt) {
+        Instant now = Instant.now();
+        long durationMillis = startedAt != null ? Math.max(0, Duration.between(startedAt, now).toMillis()) : 0;
+        if (quizAttemptResultRepository.insertIfFinished(attemptId, generation, durationMillis, now) == 0) return false;
+
+        // ✅ Zähler aus der gerade geschriebenen Zeile (maßgeblich, auch wenn der Speicherstand hinterherhinkt)
+        quizAttemptResultRepository.findById(new QuizAttemptResult.Key(attemptId, generation)).ifPresent(r -> quizLeaderboards.offerAfterCommit(
+                r.getQuizId(),
+                new QuizTopK.Entry(r.getAttemptId(), r.getUserId(), r.getCorrectCount(), r.getTotalQuestions(),
+                        r.getDurationMillis(), r.getFinishedAt())
+        ));
+        return true;
+    }
 
-        int correctCount = (int) quizAttemptAnswerRepository.countByAttempt_IdAndCorrectTrue(attemptId);
+    /** Live-Fortschritt an die eigenen SSE-Verbindungen (nach dem Commit). */
+    private void publishProgress(ActiveAttempt attempt) {
+        live.progressAfterCommit(attempt.userId(), new LiveProgressDto(attempt.attemptId(), attempt.quizId(),
+                attempt.answeredCount(), attempt.total(), attempt.correctCount(), attempt.isFinished()));
+    }
 
+    private static AnswerResultDto answerResult(ActiveAttempt attempt, QuizSnapshot.Question question, boolean correct) {
+        boolean finished = attempt.isFinished();
         return new AnswerResultDto(
                 correct,
-                question.getCorrectIndex(),
-                question.getExplanation(),
-                correctCount,
+                question.correctIndex(),
+                question.explanation(),
+                attempt.correctCount(),
                 finished,
-                nextPos
+                finished ? null : attempt.nextOpenPosition()
         );
     }
 
+    /* ===============================
+       ANSWER BATCH (Offline-Sync)
+       =============================== */
+
+    private static final int MAX_BATCH_ANSWERS = 200;
+
+    @Transactional
+    public AnswerBatchResultDto answerBatch(UUID userId, UUID attemptId, AnswerBatchRequest req) {
+        if (req == null || req.answers() == null || req.answers().isEmpty()) throw new RuntimeException("answers fehlt");
+        if (req.answers().size() > MAX_BATCH_ANSWERS) throw new RuntimeException("Maximal " + MAX_BATCH_ANSWERS + " Antworten pro Sync");
+        // ✅ ganzen Batch prüfen, bevor irgendetwas geschrieben oder im Speicher gesetzt wird
+        for (AnswerBatchRequest.Item item : req.answers()) {
+            if (item == null || item.questionId() == null || item.selectedIndex() == null) {
+                throw new RuntimeException("questionId/selectedIndex fehlt");
+            }
+            requireOption(item.selectedIndex());
+        }
+
+        QuizAttempt attempt = quizAttemptRepository.findById(attemptId)
+                .orElseThrow(() -> new RuntimeException("Attempt nicht gefunden"));
+
+        if (!Objects.equals(attempt.getUserId(), userId)) throw new RuntimeException("Kein Zugriff auf diesen Attempt");
+        if (attempt.isFinished()) throw new RuntimeException("Attempt ist bereits beendet");
+
+        if (attempt.getAnswerVector() != null || activeAttempts.storage() == ActiveAttemptEngine.AnswerStorage.PACKED) {
+            return answerBatchPacked(attemptId, attempt.getGeneration(), req, true);
+        }
+
+        QuizSnapshot quiz = quizSnapshots.get(attempt.getQuizId());
+        OffsetDateTime now = OffsetDateTime.now();
+        OffsetDateTime startedAt = attempt.getStartedAt().atOffset(ZoneOffset.UTC);
+
+        // pro Frage gewinnt die erste Antwort im Batch (niemals überschreiben – auch nicht innerhalb des Batches)
+        Map<UUID, UUID> generatedIds = new LinkedHashMap<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (AnswerBatchRequest.Item item : req.answers()) {
+            QuizSnapshot.Question q = quiz.byId(item.questionId());
+            if (q == null || generatedIds.containsKey(q.id())) continue;
+
+            // Client-Zeit übernehmen, aber nur innerhalb des Durchlaufs (nicht vor dem Start, nie in der Zukunft)
+            OffsetDateTime answeredAt = item.answeredAt() == null || item.answeredAt().isAfter(now) ? now
+                    : item.answeredAt().isBefore(startedAt) ? startedAt
+                    : item.answeredAt();
+
+            UUID id = UUID.randomUUID();
+            generatedIds.put(q.id(), id);
+            rows.add(new Object[]{id, q.id(), item.selectedIndex(), item.selectedIndex() == q.correctIndex(), answeredAt});
+        }
+
+        if (!rows.isEmpty()) {
+            insertAnswersIfAbsent(attemptId, attempt.getGeneration(), rows);
+        }
+
+        // Stand nach dem Insert: wer hat "gewonnen" (unsere id = neu eingefügt), was ist noch offen?
+        Map<UUID, QuizAttemptAnswer> stored = quizAttemptAnswerRepository.findByAttempt_IdAndGeneration(attemptId, attempt.getGeneration())
+                .stream()
+                .collect(Collectors.toMap(a -> a.getQuestion().getId(), a -> a, (a, b) -> a));
+
+        List<AnswerBatchResultDto.ItemResult> results = new ArrayList<>(req.answers().size());
+        int applied = 0;
+        int appliedCorrect = 0;
+        // Zeitraum-Wertungen: jede richtige Antwort zählt für den Tag, an dem sie gegeben wurde
+        List<Instant> earnedAt = new ArrayList<>();
+        for (AnswerBatchRequest.Item item : req.answers()) {
+            QuizSnapshot.Question q = quiz.byId(item.questionId());
+            if (q == null) {
+                results.add(new AnswerBatchResultDto.ItemResult(item.questionId(), null,
+                        AnswerBatchResultDto.Status.UNKNOWN_QUESTION, null, null, null));
+                continue;
+            }
+
+            QuizAttemptAnswer a = stored.get(q.id());
+            UUID ourId = generatedIds.remove(q.id()); // nur beim ersten Vorkommen gesetzt
+            boolean isApplied = a != null && ourId != null && ourId.equals(a.getId());
+            if (isApplied) {
+                applied++;
+                if (a.isCorrect()) {
+                    appliedCorrect++;
+                    earnedAt.add(a.getAnsweredAt().toInstant());
+                }
+            }
+
+            results.add(new AnswerBatchResultDto.ItemResult(
+                    q.id(),
+                    q.position(),
+                    isApplied ? AnswerBatchResultDto.Status.APPLIED : AnswerBatchResultDto.Status.DUPLICATE,
+                    a != null ? a.isCorrect() : null,
+                    q.correctIndex(),
+                    q.explanation()
+            ));
+        }
+
+        Integer nextPos = null;
+        for (QuizSnapshot.Question q : quiz.questions()) {
+            if (!stored.containsKey(q.id())) {
+                nextPos = q.position();
+                break;
+            }
+        }
+
+        int total = quiz.size();
+        if (applied > 0) {
+            int updated = quizAttemptRepository.recordAnswers(
+                    attemptId,
+                    attempt.getGeneration(),
+                    applied,
+                    appliedCorrect,
+                    total,
+                    nextPos != null ? nextPos : attempt.getCurrentPosition(),
+                    Instant.now()
+            );
+            // paralleler Neustart (Generation weiter) oder Attempt weg -> ganzer Batch zurück, auch die Inserts
+            if (updated == 0) {
+                activeAttempts.invalidate(attemptId);
+                throw new RuntimeException("Antworten konnten nicht gespeichert werden, bitte erneut synchronisieren");
+            }
+            leaderboard.recordEarnedAfterCommit(userId, attemptId, attempt.getGeneration(), earnedAt);
+        }
+
+        // Spielstand im Speicher neu aufbauen – invalidate() verwirft ihn zusätzlich nach Commit/Rollback,
+        // damit ein paralleler Zugriff keinen Stand von vor diesem Batch zurück in den Cache legt
+        activeAttempts.invalidate(attemptId);
+
+        int answered = Math.min(stored.size(), total);
+        int score = (int) stored.values().stream().filter(QuizAttemptAnswer::isCorrect).count();
+        boolean finished = total > 0 && answered >= total;
+        boolean finishedNow = applied > 0 && finished && recordResult(attemptId, attempt.getGeneration(), attempt.getStartedAt());
+        if (applied > 0) {
+            userStats.record(userId, appliedCorrect, finishedNow ? 1 : 0, 0);
+            live.progressAfterCommit(userId, new LiveProgressDto(attemptId, attempt.getQuizId(), answered, total, score, finished));
+        }
+
+        return new AnswerBatchResultDto(results, score, answered, total, finished, finished ? null : nextPos);
+    }
+
+    /** Gepacktes Format: alle neuen Antworten im Speicherstand setzen, dann ein UPDATE (Client-Zeitpunkte entfallen). */
+    private AnswerBatchResultDto answerBatchPacked(UUID attemptId, int generation, AnswerBatchRequest req, boolean retry) {
+        ActiveAttempt attempt = activeAttempts.find(attemptId)
+                .orElseThrow(() -> new RuntimeException("Attempt nicht gefunden"));
+
+        attempt.lock();
+        try {
+            // Speicherstand einer älteren Generation (Neustart auf einer anderen Instanz) -> einmal neu laden
+            if (attempt.generation() != generation) {
+                activeAttempts.invalidate(attemptId);
+                if (!retry) throw new RuntimeException("Attempt wurde neu gestartet, bitte erneut synchronisieren");
+                return answerBatchPacked(attemptId, generation, req, false);
+            }
+            if (attempt.isFinished()) throw new RuntimeException("Attempt ist bereits beendet");
+
+            QuizSnapshot quiz = attempt.quiz();
+            int expectedAnswered = attempt.persistedAnswered();
+            activeAttempts.invalidateOnRollback(attemptId);
+
+            List<AnswerBatchResultDto.ItemResult> results = new ArrayList<>(req.answers().size());
+            int applied = 0;
+            int appliedCorrect = 0;
+            for (AnswerBatchRequest.Item item : req.answers()) {
+                QuizSnapshot.Question q = quiz.byId(item.questionId());
+                if (q == null) {
+                    results.add(new AnswerBatchResultDto.ItemResult(item.questionId(), null,
+                            AnswerBatchResultDto.Status.UNKNOWN_QUESTION, null, null, null));
+                    continue;
+                }
+
+                int ordinal = quiz.ordinalOf(q.id());
+                boolean isApplied = !attempt.isAnswered(ordinal);
+                if (isApplied) {
+                    boolean correct = item.selectedIndex() == q.correctIndex();
+                    attempt.record(ordinal, item.selectedIndex(), correct);
+                    applied++;
+                    if (correct) appliedCorrect++;
+                }
+
+                results.add(new AnswerBatchResultDto.ItemResult(
+                        q.id(),
+                        q.position(),
+                        isApplied ? AnswerBatchResultDto.Status.APPLIED : AnswerBatchResultDto.Status.DUPLICATE,
+                        attempt.isCorrect(ordinal),
+                        q.correctIndex(),
+                        q.explanation()
+                ));
+            }
+
+            if (applied > 0) {
+                int updated = quizAttemptRepository.recordPackedAnswers(
+                        attemptId,
+                        attempt.generation(),
+                        expectedAnswered,
+                        attempt.pack(),
+                        applied,
+                        appliedCorrect,
+                        attempt.total(),
+                        attempt.currentPosition(),
+                        Instant.now()
+                );
+                if (updated == 0) {
+                    activeAttempts.invalidate(attemptId);
+                    throw new RuntimeException("Antworten konnten nicht gespeichert werden, bitte erneut synchronisieren");
+                }
+                attempt.persisted(applied, true);
+                leaderboard.recordEarnedAfterCommit(attempt.userId(), attemptId, attempt.generation(),
+                        Collections.nCopies(appliedCorrect, Instant.now()));
+                boolean finishedNow = attempt.isFinished() && recordResult(attemptId, attempt.generation(), attempt.startedAt());
+                userStats.record(attempt.userId(), appliedCorrect, finishedNow ? 1 : 0, 0);
+                publishProgress(attempt);
+            }
+
+            boolean finished = attempt.isFinished();
+            return new AnswerBatchResultDto(results, attempt.correctCount(), attempt.answeredCount(), attempt.total(),
+                    finished, finished ? null : attempt.nextOpenPosition());
+        } finally {
+            attempt.unlock();
+        }
+    }
+
+    /** Ein Multi-Row-INSERT für den ganzen Batch; bereits beantwortete Fragen werden übersprungen. */
+    private void insertAnswersIfAbsent(UUID attemptId, int generation, List<Object[]> rows) {
+        StringBuilder sql = new StringBuilder(
+                "insert into quiz_attempt_answers (id, attempt_id, generation, question_id, selected_index, is_correct, answered_at) values ");
+        for (int i = 0; i < rows.size(); i++) {
+            if (i > 0) sql.append(", ");
+            sql.append("(:id").append(i).append(", :attemptId, :generation, :q").append(i)
+                    .append(", :s").append(i).append(", :c").append(i).append(", :t").append(i).append(')');
+        }
+        sql.append(" on conflict do nothing");
+
+        Query insert = entityManager.createNativeQuery(sql.toString());
+        insert.setParameter("attemptId", attemptId);
+        insert.setParameter("generation", generation);
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            insert.setParameter("id" + i, row[0]);
+            insert.setParameter("q" + i, row[1]);
+            insert.setParameter("s" + i, row[2]);
+            insert.setParameter("c" + i, row[3]);
+            insert.setParameter("t" + i, row[4]);
+        }
+        insert.executeUpdate();
+    }
+
     /* ===============================
        RESULT
        =============================== */
 
+    @Transactional(readOnly = true)
     public AttemptResultDto getAttemptResult(UUID userId, UUID attemptId) {
+        // ✅ beendet: eine Zeile aus quiz_attempt_results (aktuelle Generation), nichts wird neu gezählt
+        Optional<QuizAttemptResult> summary = quizAttemptResultRepository.findCurrent(attemptId);
+        if (summary.isPresent()) {
+            QuizAttemptResult r = summary.get();
+            if (!Objects.equals(r.getUserId(), userId)) throw new RuntimeException("Kein Zugriff auf diesen Attempt");
+
+            QuizSnapshot quiz = quizSnapshots.find(r.getQuizId()).orElse(null);
+            return new AttemptResultDto(
+                    attemptId,
+                    r.getQuizId(),
+                    quiz != null ? quiz.title() : "Quiz",
+                    r.getTotalQuestions(),
+                    r.getCorrectCount(),
+                    r.getWrongCount(),
+                    r.getCorrectCount(),
+                    r.getDurationMillis(),
+                    r.getFinishedAt()
+            );
+        }
+
+        // laufender Durchlauf: Zwischenstand aus den Zählern
         QuizAttempt attempt = quizAttemptRepository.findById(attemptId)
                 .orElseThrow(() -> new RuntimeException("Attempt nicht gefunden"));
 
         if (!Objects.equals(attempt.getUserId(), userId)) throw new RuntimeException("Kein Zugriff auf diesen Attempt");
 
         UUID quizId = attempt.getQuizId();
-        Quiz quiz = quizId != null ? quizRepository.findById(quizId).orElse(null) : null;
+        QuizSnapshot quiz = quizSnapshots.find(quizId).orElse(null);
 
         int total = safeTotalQuestions(attempt, quizId);
-        int correctAnswers = (int) quizAttemptAnswerRepository.countByAttempt_IdAndCorrectTrue(attemptId);
-        int answered = (int) quizAttemptAnswerRepository.countByAttempt_Id(attemptId);
+        int correctAnswers = attempt.getCorrectCount();
+        int answered = attempt.getAnsweredCount();
         int wrongAnswers = Math.max(0, answered - correctAnswers);
 
         return new AttemptResultDto(
                 attemptId,
                 quizId,
-                quiz != null ? quiz.getTitle() : "Quiz",
+                quiz != null ? quiz.title() : "Quiz",
                 total,
                 correctAnswers,
                 wrongAnswers,
@@ -392,75 +878,135 @@ public class QuizPlayService {
        REVIEW
        =============================== */
 
+    /** Alle beantworteten Fragen eines Attempts, aufsteigend nach Position – eine Join-Query. */
+    @Transactional(readOnly = true)
+    public List<ReviewQuestionDto> getReview(UUID userId, UUID attemptId) {
+        QuizAttempt attempt = quizAttemptRepository.findById(attemptId)
+                .orElseThrow(() -> new RuntimeException("Attempt nicht gefunden"));
+
+        if (!Objects.equals(attempt.getUserId(), userId)) throw new RuntimeException("Kein Zugriff auf diesen Attempt");
+
+        // gepackt: Fragen kommen aus dem Snapshot, Antworten aus dem Vektor -> keine weitere Query
+        if (attempt.getAnswerVector() != null) {
+            QuizSnapshot quiz = quizSnapshots.get(attempt.getQuizId());
+            Map<UUID, StoredAnswer> answers = unpack(attempt, quiz);
+            List<ReviewQuestionDto> review = new ArrayList<>(answers.size());
+            for (QuizSnapshot.Question q : quiz.questions()) {
+                StoredAnswer a = answers.get(q.id());
+                if (a == null) continue;
+                review.add(new ReviewQuestionDto(q.id(), q.position(), q.question(), q.options(),
+                        a.selectedIndex(), q.correctIndex(), a.correct(), q.explanation()));
+            }
+            return review;
+        }
+
+        return quizAttemptAnswerRepository.findReviewByAttemptId(attemptId, attempt.getGeneration())
+                .stream()
+                .map(a -> {
+                    QuizQuestion q = a.getQuestion();
+                    return new ReviewQuestionDto(
+                            q.getId(),
+                            q.getPosition(),
+                            q.getQuestion(),
+                            Arrays.asList(q.getOptionA(), q.getOptionB(), q.getOptionC(), q.getOptionD()),
+                            a.getSelectedIndex(),
+                            q.getCorrectIndex(),
+                            a.isCorrect(),
+                            q.getExplanation()
+                    );
+                })
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
     public ReviewQuestionDto getReviewQuestion(UUID userId, UUID attemptId, int position) {
         QuizAttempt attempt = quizAttemptRepository.findById(attemptId)
                 .orElseThrow(() -> new RuntimeException("Attempt nicht gefunden"));
 
         if (!Objects.equals(attempt.getUserId(), userId)) throw new RuntimeException("Kein Zugriff auf diesen Attempt");
 
-        List<QuizQuestion> questions = quizQuestionRepository.findByQuiz_IdOrderByPositionAsc(attempt.getQuizId());
-        if (questions.isEmpty()) throw new RuntimeException("Quiz hat keine Fragen");
-
-        QuizQuestion q = questions.stream()
-                .filter(x -> x.getPosition() == position)
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Frage nicht gefunden"));
-
-        QuizAttemptAnswer a = quizAttemptAnswerRepository
-                .findByAttempt_IdAndQuestion_Id(attemptId, q.getId())
-                .orElseThrow(() -> new RuntimeException("Frage wurde noch nicht beantwortet"));
-
-        return new ReviewQuestionDto(
-                q.getId(),
-                q.getPosition(),
-                q.getQuestion(),
-                Arrays.asList(q.getOptionA(), q.getOptionB(), q.getOptionC(), q.getOptionD()),
-                a.getSelectedIndex(),
-                q.getCorrectIndex(),
-                a.isCorrect(),
-                q.getExplanation()
-        );
+        // ✅ Frage aus dem Snapshot, nur ihre Antwort laden (gepackt: aus dem Vektor, keine weitere Query)
+        QuizSnapshot quiz = requireQuestions(attempt.getQuizId());
+        QuizSnapshot.Question q = quiz.at(position);
+        if (q == null) throw new RuntimeException("Frage nicht gefunden");
+
+        StoredAnswer a = attempt.getAnswerVector() != null
+                ? unpack(attempt, quiz).get(q.id())
+                : quizAttemptAnswerRepository
+                        .findByAttempt_IdAndGenerationAndQuestion_Id(attemptId, attempt.getGeneration(), q.id())
+                        .map(StoredAnswer::of)
+                        .orElse(null);
+        if (a == null) throw new RuntimeException("Frage wurde noch nicht beantwortet");
+
+        return new ReviewQuestionDto(q.id(), q.position(), q.question(), q.options(),
+                a.selectedIndex(), q.correctIndex(), a.correct(), q.explanation());
     }
 
     /* ===============================
        Helpers
        =============================== */
 
-    private int safeTotalQuestions(QuizAttempt attempt, UUID quizId) {
-        int total = attempt.getTotalQuestions();
-        if (total <= 0 && quizId != null) {
-            total = (int) quizQuestionRepository.countByQuiz_Id(quizId);
-            attempt.setTotalQuestions(total);
-            quizAttemptRepository.save(attempt);
+    /** Opaker Cursor für Keyset-Seiten ("Neue Quizzes", "Fortsetzen"): letzte (Zeitstempel, id) der vorherigen Seite. */
+    private record FeedCursor(OffsetDateTime at, UUID id) {
+
+        String encode() {
+            String raw = at.toString() + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static FeedCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int sep = raw.lastIndexOf('|');
+                return new FeedCursor(OffsetDateTime.parse(raw.substring(0, sep)), UUID.fromString(raw.substring(sep + 1)));
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Ungültiger Cursor");
+            }
         }
-        return total;
     }
 
-    private boolean isFinished(UUID attemptId, UUID quizId, QuizAttempt attempt) {
-        int total = safeTotalQuestions(attempt, quizId);
-        int answeredCount = (int) quizAttemptAnswerRepository.countByAttempt_Id(attemptId);
+    /** Gespeicherte Antwort unabhängig vom Format (Zeile oder gepackter Vektor). */
+    private record StoredAnswer(int selectedIndex, boolean correct) {
+        static StoredAnswer of(QuizAttemptAnswer a) {
+            return new StoredAnswer(a.getSelectedIndex(), a.isCorrect());
+        }
+    }
+
+    private Map<UUID, StoredAnswer> storedAnswers(QuizAttempt attempt, QuizSnapshot quiz) {
+        if (attempt.getAnswerVector() != null) return unpack(attempt, quiz);
 
-        boolean finished = (total > 0 && answeredCount >= total);
-        attempt.setFinished(finished);
-        return finished;
+        Map<UUID, StoredAnswer> byQuestion = new HashMap<>();
+        for (QuizAttemptAnswer a : quizAttemptAnswerRepository.findByAttempt_IdAndGeneration(attempt.getId(), attempt.getGeneration())) {
+            byQuestion.putIfAbsent(a.getQuestion().getId(), StoredAnswer.of(a));
+        }
+        return byQuestion;
     }
 
-    private Integer findNextUnansweredPosition(UUID attemptId, UUID quizId) {
-        if (quizId == null) return null;
+    // gepackt gegen eine ältere Quiz-Version -> Fragen wurden ersetzt, Antworten gelten nicht mehr
+    private static Map<UUID, StoredAnswer> unpack(QuizAttempt attempt, QuizSnapshot quiz) {
+        PackedAnswers.Decoded packed = PackedAnswers.decode(attempt.getAnswerVector());
+        if (packed.quizVersion() != quiz.version() || packed.selected().length != quiz.size()) return Map.of();
 
-        List<QuizQuestion> questions = quizQuestionRepository.findByQuiz_IdOrderByPositionAsc(quizId);
-        if (questions.isEmpty()) return null;
+        Map<UUID, StoredAnswer> byQuestion = new HashMap<>();
+        for (int i = 0; i < packed.selected().length; i++) {
+            if (packed.selected()[i] == PackedAnswers.NONE) continue;
+            byQuestion.put(quiz.questions().get(i).id(), new StoredAnswer(packed.selected()[i], packed.correct().get(i)));
+        }
+        return byQuestion;
+    }
 
-        Set<UUID> answeredQuestionIds = quizAttemptAnswerRepository.findByAttempt_Id(attemptId)
-                .stream()
-                .map(a -> a.getQuestion().getId())
-                .collect(Collectors.toSet());
+    private QuizSnapshot requireQuestions(UUID quizId) {
+        QuizSnapshot quiz = quizSnapshots.get(quizId);
+        if (quiz.isEmpty()) throw new RuntimeException("Quiz hat keine Fragen");
+        return quiz;
+    }
 
-        for (QuizQuestion q : questions) {
-            if (!answeredQuestionIds.contains(q.getId())) {
-                return q.getPosition();
-            }
+    private int safeTotalQuestions(QuizAttempt attempt, UUID quizId) {
+        int total = attempt.getTotalQuestions();
+        if (total <= 0 && quizId != null) {
+            total = quizSnapshots.find(quizId).map(QuizSnapshot::size).orElse(0);
+            if (total > 0) attemptCursors.recordTotalQuestions(attempt.getId(), total);
         }
-        return null;
+        return total;
     }
-}
\ No newline at end of file
+}
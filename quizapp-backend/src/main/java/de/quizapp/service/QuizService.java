@@ -3,6 +3,7 @@ package de.quizapp.service;
 import de.quizapp.dto.*;
 import de.quizapp.model.Quiz;
 import de.quizapp.model.QuizQuestion;
+import de.quizapp.repository.QuizAttemptResultRepository;
 import de.quizapp.repository.QuizQuestionRepository;
 import de.quizapp.repository.QuizRepository;
 import jakarta.persistence.EntityManager;
@@ -18,16 +19,25 @@ public class QuizService {
 
     private final QuizRepository quizRepository;
     private final QuizQuestionRepository quizQuestionRepository;
+    private final QuizAttemptResultRepository quizAttemptResultRepository;
     private final EntityManager entityManager;
+    private final QuizSnapshotCache quizSnapshots;
+    private final QuizLeaderboards quizLeaderboards;
 
     public QuizService(
             QuizRepository quizRepository,
             QuizQuestionRepository quizQuestionRepository,
-            EntityManager entityManager
+            QuizAttemptResultRepository quizAttemptResultRepository,
+            EntityManager entityManager,
+            QuizSnapshotCache quizSnapshots,
+            QuizLeaderboards quizLeaderboards
     ) {
         this.quizRepository = quizRepository;
         this.quizQuestionRepository = quizQuestionRepository;
+        this.quizAttemptResultRepository = quizAttemptResultRepository;
         this.entityManager = entityManager;
+        this.quizSnapshots = quizSnapshots;
+        this.quizLeaderboards = quizLeaderboards;
     }
 
     @Transactional
@@ -126,6 +136,7 @@ public class QuizService {
 
         quiz.setTitle(body.title());
         quiz.setPublished(Boolean.TRUE.equals(body.isPublished()));
+        quiz.setContentVersion(quiz.getContentVersion() + 1);
 
         // ✅ RICHTIG: Repo-Methode geht über quiz.id (Relation)
         quizQuestionRepository.deleteByQuizId(quizId);
@@ -153,9 +164,17 @@ public class QuizService {
         }
 
         quizRepository.save(quiz);
+
+        // ✅ Play-Pfad sieht nach dem Commit den neuen Stand
+        quizSnapshots.invalidate(quizId);
     }
 
+    @Transactional
     public void deleteQuiz(UUID quizId) {
         quizRepository.deleteById(quizId);
+        // ✅ Ergebnisse haben keinen Fremdschlüssel -> mit dem Quiz löschen, sonst bleiben sie als "Quiz" stehen
+        quizAttemptResultRepository.deleteByQuizId(quizId);
+        quizSnapshots.invalidate(quizId);
+        quizLeaderboards.invalidate(quizId);
     }
 }
\ No newline at end of file
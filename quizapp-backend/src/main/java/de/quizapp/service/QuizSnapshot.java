@@ -0,0 +1,104 @@
+package de.quizapp.service;
+
+import de.quizapp.model.Quiz;
+import de.quizapp.model.QuizQuestion;
+
+import java.util.*;
+
+/**
+ * Unveränderlicher Stand eines Quiz für den Spielablauf.
+ * Fragen liegen als Array nach Position -> Lookup in O(1) ohne DB.
+ */
+public final class QuizSnapshot {
+
+    public record Question(
+            UUID id,
+            int position,
+            String question,
+            List<String> options,
+            int correctIndex,
+            String explanation
+    ) {}
+
+    private final UUID quizId;
+    private final String title;
+    private final boolean published;
+    private final long version;
+
+    // Index = Position; null bei Lücken in den Positionen
+    private final Question[] byPosition;
+    private final Map<UUID, Question> byId;
+    // Index in ordered -> Bit-Index für ActiveAttempt
+    private final Map<UUID, Integer> ordinalById;
+    private final List<Question> ordered;
+
+    private QuizSnapshot(UUID quizId, String title, boolean published, long version, List<Question> ordered) {
+        this.quizId = quizId;
+        this.title = title;
+        this.published = published;
+        this.version = version;
+        this.ordered = List.copyOf(ordered);
+
+        int maxPosition = -1;
+        for (Question q : ordered) maxPosition = Math.max(maxPosition, q.position());
+        this.byPosition = new Question[maxPosition + 1];
+
+        Map<UUID, Question> ids = new HashMap<>();
+        Map<UUID, Integer> ordinals = new HashMap<>();
+        for (int i = 0; i < ordered.size(); i++) {
+            Question q = ordered.get(i);
+            if (q.position() >= 0) byPosition[q.position()] = q;
+            ids.put(q.id(), q);
+            ordinals.put(q.id(), i);
+        }
+        this.byId = Map.copyOf(ids);
+        this.ordinalById = Map.copyOf(ordinals);
+    }
+
+    static QuizSnapshot of(Quiz quiz, List<QuizQuestion> questionsByPosition) {
+        List<Question> questions = new ArrayList<>(questionsByPosition.size());
+        for (QuizQuestion q : questionsByPosition) {
+            questions.add(new Question(
+                    q.getId(),
+                    q.getPosition(),
+                    q.getQuestion(),
+                    Collections.unmodifiableList(Arrays.asList(q.getOptionA(), q.getOptionB(), q.getOptionC(), q.getOptionD())),
+                    q.getCorrectIndex(),
+                    q.getExplanation()
+            ));
+        }
+        return new QuizSnapshot(quiz.getId(), quiz.getTitle(), quiz.isPublished(), quiz.getContentVersion(), questions);
+    }
+
+    public UUID quizId() { return quizId; }
+
+    public String title() { return title; }
+
+    public boolean published() { return published; }
+
+    /** Inhaltsversion des Quiz (quizzes.content_version). */
+    public long version() { return version; }
+
+    public int size() { return ordered.size(); }
+
+    public boolean isEmpty() { return ordered.isEmpty(); }
+
+    /** Fragen aufsteigend nach Position. */
+    public List<Question> questions() { return ordered; }
+
+    public Question first() { return ordered.isEmpty() ? null : ordered.get(0); }
+
+    public Question at(int position) {
+        return (position >= 0 && position < byPosition.length) ? byPosition[position] : null;
+    }
+
+    public Question byId(UUID questionId) {
+        return questionId == null ? null : byId.get(questionId);
+    }
+
+    /** Index in {@link #questions()} oder -1, wenn die Frage nicht zum Quiz gehört. */
+    public int ordinalOf(UUID questionId) {
+        Integer ordinal = questionId == null ? null : ordinalById.get(questionId);
+        return ordinal == null ? -1 : ordinal;
+    }
+}
@@ -0,0 +1,117 @@
+package de.quizapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.quizapp.repository.QuizQuestionRepository;
+import de.quizapp.repository.QuizRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-Memory Cache der {@link QuizSnapshot}s für den Play-Pfad.
+ * Begrenzt über die Gesamtzahl gecachter Fragen; invalidiert von QuizService bei Update/Delete.
+ */
+@Component
+public class QuizSnapshotCache {
+
+    private final QuizRepository quizRepository;
+    private final QuizQuestionRepository quizQuestionRepository;
+    private final Cache<UUID, QuizSnapshot> cache;
+    private final ConcurrentHashMap<UUID, CompletableFuture<QuizSnapshot>> inFlight = new ConcurrentHashMap<>();
+    // zählt Invalidierungen; ein Load, der eine Invalidierung überlebt hat, wird nicht gecacht
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public QuizSnapshotCache(
+            QuizRepository quizRepository,
+            QuizQuestionRepository quizQuestionRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.quiz-snapshots.max-questions:50000}") long maxQuestions
+    ) {
+        this.quizRepository = quizRepository;
+        this.quizQuestionRepository = quizQuestionRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxQuestions)
+                .weigher((UUID id, QuizSnapshot s) -> s.size() + 1)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "quiz.snapshots");
+    }
+
+    public QuizSnapshot get(UUID quizId) {
+        return find(quizId).orElseThrow(() -> new RuntimeException("Quiz nicht gefunden"));
+    }
+
+    /**
+     * Laden bewusst nicht über cache.get(key, loader): Caffeine lädt dort innerhalb von ConcurrentHashMap.compute,
+     * also unter einem Monitor – JDBC-I/O würde einen Virtual Thread an seinen Carrier pinnen.
+     * Stattdessen Single-Flight über CompletableFutures (wie im TokenResolutionCache).
+     */
+    public Optional<QuizSnapshot> find(UUID quizId) {
+        if (quizId == null) return Optional.empty();
+
+        QuizSnapshot cached = cache.getIfPresent(quizId);
+        if (cached != null) return Optional.of(cached);
+
+        CompletableFuture<QuizSnapshot> mine = new CompletableFuture<>();
+        CompletableFuture<QuizSnapshot> running = inFlight.putIfAbsent(quizId, mine);
+        if (running != null) return Optional.ofNullable(await(running));
+
+        try {
+            long seen = invalidations.get();
+            QuizSnapshot loaded = load(quizId);
+            // null für unbekannte Quizzes -> wird nicht gecacht
+            if (loaded != null && seen == invalidations.get()) cache.put(quizId, loaded);
+            mine.complete(loaded);
+            return Optional.ofNullable(loaded);
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(quizId, mine);
+        }
+    }
+
+    /**
+     * Sofort und nochmal nach dem Commit entfernen – sonst könnte ein paralleler Leser
+     * den alten Stand zwischen Invalidierung und Commit wieder in den Cache laden.
+     */
+    public void invalidate(UUID quizId) {
+        invalidations.incrementAndGet();
+        cache.invalidate(quizId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidations.incrementAndGet();
+                    cache.invalidate(quizId);
+                }
+            });
+        }
+    }
+
+    private static QuizSnapshot await(CompletableFuture<QuizSnapshot> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+
+    private QuizSnapshot load(UUID quizId) {
+        return quizRepository.findById(quizId)
+                .map(quiz -> QuizSnapshot.of(quiz, quizQuestionRepository.findByQuiz_IdOrderByPositionAsc(quizId)))
+                .orElse(null);
+    }
+}
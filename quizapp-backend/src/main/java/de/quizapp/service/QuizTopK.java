@@ -0,0 +1,96 @@
+package de.quizapp.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Beste K Ergebnisse eines Quiz, ein Eintrag pro Benutzer (sein bestes).
+ * Min-Heap mit dem schwächsten Eintrag oben -> ein neues Ergebnis kostet O(log K), Speicher bleibt O(K).
+ *
+ * Reihenfolge: mehr richtige Antworten, dann kürzere Dauer (unbekannt = am langsamsten), dann früher beendet.
+ */
+final class QuizTopK {
+
+    record Entry(UUID attemptId, UUID userId, int correctCount, int totalQuestions, Long durationMillis, Instant finishedAt) {}
+
+    /** "Besser" zuerst. */
+    static final Comparator<Entry> RANKING = Comparator
+            .comparingInt(Entry::correctCount).reversed()
+            .thenComparing(Entry::durationMillis, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Entry::finishedAt, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Entry::attemptId);
+
+    private final int k;
+    private final PriorityQueue<Entry> heap;
+    private final Map<UUID, Entry> byUser = new HashMap<>();
+    // kein synchronized: Leser warten ggf. auf den Load (siehe ready)
+    private final ReentrantLock lock = new ReentrantLock();
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+
+    QuizTopK(int k) {
+        this.k = k;
+        this.heap = new PriorityQueue<>(k + 1, RANKING.reversed());
+    }
+
+    void offer(Entry e) {
+        lock.lock();
+        try {
+            Entry current = byUser.get(e.userId());
+            if (current != null) {
+                if (RANKING.compare(e, current) >= 0) return; // bisheriges Ergebnis ist mindestens so gut
+                heap.remove(current);
+            } else if (heap.size() >= k) {
+                Entry weakest = heap.peek();
+                if (RANKING.compare(e, weakest) >= 0) return;
+                heap.poll();
+                byUser.remove(weakest.userId());
+            }
+            heap.add(e);
+            byUser.put(e.userId(), e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean contains(UUID attemptId) {
+        lock.lock();
+        try {
+            return heap.stream().anyMatch(e -> e.attemptId().equals(attemptId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Einträge, bestes zuerst. */
+    List<Entry> ranked() {
+        lock.lock();
+        try {
+            List<Entry> out = new ArrayList<>(heap);
+            out.sort(RANKING);
+            return out;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void loaded() {
+        ready.complete(null);
+    }
+
+    void failed(Throwable t) {
+        ready.completeExceptionally(t);
+    }
+
+    /** Wartet, bis der erste Aufbau aus der DB durch ist. */
+    void awaitLoaded() {
+        ready.join();
+    }
+}
@@ -0,0 +1,168 @@
+package de.quizapp.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Indizierte Skip-List für Ranglisten: sortiert nach Punkten absteigend, bei Gleichstand nach userId.
+ * Jeder Zeiger kennt seine Spannweite (übersprungene Einträge) -> Einfügen, Entfernen, Rang eines Eintrags
+ * und Eintrag an Rang r in O(log n), Bereiche ab Rang r in O(log n + k).
+ *
+ * Nicht threadsicher – Zugriff nur unter dem Lock von {@link LeaderboardRanking}.
+ */
+final class RankedSkipList {
+
+    private static final int MAX_LEVEL = 32;
+    private static final int LEVEL_ODDS = 4; // p = 1/4 wie in Redis-Sorted-Sets
+
+    /** Eintrag mit Rang (1-basiert, lückenlos). */
+    record Entry(int rank, UUID userId, long points) {}
+
+    private static final class Node {
+        final UUID userId;
+        final long points;
+        final Node[] next;
+        final int[] span;
+
+        Node(UUID userId, long points, int level) {
+            this.userId = userId;
+            this.points = points;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+    }
+
+    private final Node head = new Node(null, 0, MAX_LEVEL);
+    private final SplittableRandom random = new SplittableRandom();
+    private int level = 1;
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    void insert(UUID userId, long points) {
+        Node[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && compare(x.next[i], points, userId) < 0) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            for (int i = level; i < nodeLevel; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                head.span[i] = size;
+            }
+            level = nodeLevel;
+        }
+
+        Node node = new Node(userId, points, nodeLevel);
+        for (int i = 0; i < nodeLevel; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = (rank[0] - rank[i]) + 1;
+        }
+        for (int i = nodeLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+        size++;
+    }
+
+    /** @return false, wenn es den Eintrag (userId mit genau diesen Punkten) nicht gibt */
+    boolean remove(UUID userId, long points) {
+        Node[] update = new Node[MAX_LEVEL];
+
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && compare(x.next[i], points, userId) < 0) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        Node target = x.next[0];
+        if (target == null || compare(target, points, userId) != 0) return false;
+
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == target) {
+                update[i].span[i] += target.span[i] - 1;
+                update[i].next[i] = target.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            head.span[level - 1] = 0;
+            level--;
+        }
+        size--;
+        return true;
+    }
+
+    /** Rang (1-basiert) oder 0, wenn es den Eintrag nicht gibt. */
+    int rank(UUID userId, long points) {
+        int rank = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && compare(x.next[i], points, userId) <= 0) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+            if (x != head && x.userId.equals(userId)) return rank;
+        }
+        return 0;
+    }
+
+    /** Bis zu count Einträge ab Rang fromRank (1-basiert). */
+    List<Entry> range(int fromRank, int count) {
+        if (fromRank < 1 || fromRank > size || count <= 0) return List.of();
+
+        Node x = head;
+        int traversed = 0;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.span[i] <= fromRank) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+            if (traversed == fromRank) break;
+        }
+
+        List<Entry> out = new ArrayList<>(Math.min(count, size - fromRank + 1));
+        for (int rank = fromRank; x != null && out.size() < count; rank++, x = x.next[0]) {
+            out.add(new Entry(rank, x.userId, x.points));
+        }
+        return out;
+    }
+
+    /** Eintrag mit je bis zu neighbors Einträgen davor und danach; leer, wenn es ihn nicht gibt. */
+    List<Entry> around(UUID userId, long points, int neighbors) {
+        int rank = rank(userId, points);
+        if (rank == 0) return List.of();
+        int from = Math.max(1, rank - neighbors);
+        return range(from, rank - from + 1 + neighbors);
+    }
+
+    /** <0: node steht vor (points, userId), 0: gleich, >0: dahinter. */
+    private static int compare(Node node, long points, UUID userId) {
+        if (node.points != points) return node.points > points ? -1 : 1;
+        return node.userId.compareTo(userId);
+    }
+
+    private int randomLevel() {
+        int l = 1;
+        while (l < MAX_LEVEL && random.nextInt(LEVEL_ODDS) == 0) l++;
+        return l;
+    }
+}
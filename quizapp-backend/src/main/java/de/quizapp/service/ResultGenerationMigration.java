@@ -0,0 +1,53 @@
+package de.quizapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Erweitert den Primärschlüssel von quiz_attempt_results von (attempt_id) auf (attempt_id, generation).
+ * ddl-auto=update ändert bestehende Schlüssel nicht – mit dem alten würde das Ergebnis eines neu gestarteten und
+ * erneut beendeten Durchlaufs still am Konflikt scheitern.
+ * Idempotent; nur PostgreSQL (lokale H2-Schemas werden ohnehin neu erzeugt).
+ */
+@Component
+public class ResultGenerationMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(ResultGenerationMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ResultGenerationMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void widenPrimaryKey() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equalsIgnoreCase(product)) return;
+
+        List<String> legacy = jdbcTemplate.queryForList("""
+            select con.conname
+              from pg_constraint con
+              join pg_class t on t.oid = con.conrelid
+             where t.relname = 'quiz_attempt_results'
+               and con.contype = 'p'
+               and (select array_agg(att.attname::text order by att.attname)
+                      from pg_attribute att
+                     where att.attrelid = con.conrelid
+                       and att.attnum = any(con.conkey)) = array['attempt_id']
+        """, String.class);
+
+        for (String name : legacy) {
+            jdbcTemplate.execute("alter table quiz_attempt_results drop constraint \"" + name.replace("\"", "\"\"")
+                    + "\", add primary key (attempt_id, generation)");
+            log.info("Primärschlüssel {} auf quiz_attempt_results erweitert (jetzt pro Generation)", name);
+        }
+    }
+}
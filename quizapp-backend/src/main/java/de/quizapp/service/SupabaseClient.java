@@ -0,0 +1,203 @@
+package de.quizapp.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Gemeinsamer HTTP-Client für alle Supabase-Aufrufe (Auth, Admin API, JWKS).
+ * Ein Connection-Pool mit Keep-Alive und festen Timeouts, damit ein langsames Supabase
+ * keine Tomcat-Threads unbegrenzt blockiert. Pro Endpoint wird ein Latenz-Histogramm
+ * ({@code supabase.client.requests}) geschrieben. Jeder Call läuft durch Circuit Breaker
+ * und Bulkhead seiner {@link SupabaseOperation}.
+ */
+@Component
+public class SupabaseClient {
+
+    /** Request-Attribut mit dem logischen Endpoint-Namen (Metrik-Tag). */
+    public static final String ENDPOINT_ATTRIBUTE = SupabaseClient.class.getName() + ".endpoint";
+
+    /** Request-Attribut mit der {@link SupabaseOperation}; ohne Attribut (JWKS) gilt TOKEN_VALIDATION. */
+    public static final String OPERATION_ATTRIBUTE = SupabaseClient.class.getName() + ".operation";
+
+    private final String serviceRoleKey;
+    private final MeterRegistry meterRegistry;
+    private final SupabaseResilience resilience;
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final RestClient restClient;
+    private final RestTemplate restTemplate;
+
+    public SupabaseClient(
+            @Value("${supabase.url}") String supabaseUrl,
+            @Value("${supabase.service_role_key}") String serviceRoleKey,
+            MeterRegistry meterRegistry,
+            SupabaseResilience resilience,
+            @Value("${supabase.http.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${supabase.http.read-timeout:5s}") Duration readTimeout,
+            @Value("${supabase.http.pool-acquire-timeout:1s}") Duration poolAcquireTimeout,
+            @Value("${supabase.http.max-connections:50}") int maxConnections,
+            @Value("${supabase.http.keep-alive:30s}") Duration keepAlive
+    ) {
+        this.serviceRoleKey = serviceRoleKey;
+        this.meterRegistry = meterRegistry;
+        this.resilience = resilience;
+
+        // Supabase ist genau eine Route -> max pro Route = max gesamt
+        this.connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+
+        TimeValue maxKeepAlive = TimeValue.of(keepAlive);
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(poolAcquireTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                // Keep-Alive vom Server respektieren, aber nach oben begrenzen
+                .setKeepAliveStrategy((response, context) -> {
+                    TimeValue announced = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return TimeValue.isPositive(announced) && announced.compareTo(maxKeepAlive) < 0 ? announced : maxKeepAlive;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(maxKeepAlive)
+                .build();
+
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        ClientHttpRequestInterceptor guarded = this::guardedRequest;
+        ClientHttpRequestInterceptor timing = this::timeRequest;
+
+        this.restClient = RestClient.builder()
+                .requestFactory(requestFactory)
+                .baseUrl(stripTrailingSlash(supabaseUrl))
+                .defaultHeader("apikey", serviceRoleKey)
+                .requestInterceptor(guarded)
+                .requestInterceptor(timing)
+                .build();
+
+        // für Komponenten, die RestOperations erwarten (z. B. JWKS-Abruf im NimbusJwtDecoder)
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.restTemplate.getInterceptors().add(guarded);
+        this.restTemplate.getInterceptors().add(timing);
+
+        registerPoolGauge("leased", PoolStats::getLeased);
+        registerPoolGauge("available", PoolStats::getAvailable);
+        registerPoolGauge("pending", PoolStats::getPending);
+    }
+
+    /**
+     * Request mit apikey-Header; Authorization setzt der Aufrufer selbst.
+     */
+    public RestClient.RequestBodySpec request(SupabaseOperation operation, HttpMethod method, String endpoint,
+                                              String uriTemplate, Object... uriVariables) {
+        return restClient.method(method)
+                .uri(uriTemplate, uriVariables)
+                .attribute(OPERATION_ATTRIBUTE, operation)
+                .attribute(ENDPOINT_ATTRIBUTE, endpoint);
+    }
+
+    /**
+     * Request gegen die Auth Admin API (Service-Role-Key als Bearer).
+     */
+    public RestClient.RequestBodySpec admin(SupabaseOperation operation, HttpMethod method, String endpoint,
+                                            String uriTemplate, Object... uriVariables) {
+        return request(operation, method, endpoint, uriTemplate, uriVariables)
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(h -> h.setBearerAuth(serviceRoleKey));
+    }
+
+    public RestTemplate restTemplate() {
+        return restTemplate;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+    private ClientHttpResponse guardedRequest(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        Object operationAttr = request.getAttributes().get(OPERATION_ATTRIBUTE);
+        SupabaseOperation operation = operationAttr instanceof SupabaseOperation op ? op : SupabaseOperation.TOKEN_VALIDATION;
+
+        SupabaseResilience.Permit permit = resilience.acquire(operation);
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            int status = response.getStatusCode().value();
+            if (status >= 500 || status == 429) permit.failure();
+            else permit.success();
+            return response;
+        } catch (IOException | RuntimeException e) {
+            permit.failure();
+            throw e;
+        }
+    }
+
+    private ClientHttpResponse timeRequest(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        Object endpointAttr = request.getAttributes().get(ENDPOINT_ATTRIBUTE);
+        String endpoint = endpointAttr != null ? endpointAttr.toString() : request.getURI().getPath();
+
+        long start = System.nanoTime();
+        String outcome = "IO_ERROR";
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            outcome = String.valueOf(response.getStatusCode().value());
+            return response;
+        } finally {
+            Timer.builder("supabase.client.requests")
+                    .description("Latenz der Supabase-Aufrufe pro Endpoint")
+                    .tag("endpoint", endpoint)
+                    .tag("method", request.getMethod().name())
+                    .tag("status", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    private void registerPoolGauge(String state, ToDoubleFunction<PoolStats> value) {
+        Gauge.builder("supabase.client.pool.connections", connectionManager, cm -> value.applyAsDouble(cm.getTotalStats()))
+                .tag("state", state)
+                .register(meterRegistry);
+    }
+
+    private static String stripTrailingSlash(String url) {
+        if (url == null) return "";
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
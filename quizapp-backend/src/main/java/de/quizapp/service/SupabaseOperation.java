@@ -0,0 +1,11 @@
+package de.quizapp.service;
+
+/**
+ * Klassen von Supabase-Aufrufen – jede Klasse hat eigenen Circuit Breaker und Bulkhead,
+ * damit z. B. hängende Admin-Writes nicht die Token-Prüfung mitreißen.
+ */
+public enum SupabaseOperation {
+    TOKEN_VALIDATION,
+    PASSWORD_GRANT,
+    ADMIN_WRITE
+}
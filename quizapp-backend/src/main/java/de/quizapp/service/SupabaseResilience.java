@@ -0,0 +1,257 @@
+package de.quizapp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Circuit Breaker + Bulkhead pro {@link SupabaseOperation}.
+ *
+ * CLOSED    -> OPEN      wenn im Sliding Window (count-based) die Fehlerquote überschritten wird
+ * OPEN      -> HALF_OPEN nach {@code open-duration}
+ * HALF_OPEN -> CLOSED    wenn alle Probe-Calls erfolgreich waren, sonst wieder OPEN
+ *
+ * Als Fehler zählen nur Timeouts/IO-Fehler, 5xx und 429 – nicht z. B. ein falsches Passwort.
+ */
+@Component
+public class SupabaseResilience {
+
+    private static final Logger log = LoggerFactory.getLogger(SupabaseResilience.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final Map<SupabaseOperation, Guard> guards = new EnumMap<>(SupabaseOperation.class);
+
+    public SupabaseResilience(
+            MeterRegistry meterRegistry,
+            @Value("${supabase.resilience.sliding-window:20}") int slidingWindow,
+            @Value("${supabase.resilience.minimum-calls:10}") int minimumCalls,
+            @Value("${supabase.resilience.failure-rate-threshold:50}") int failureRateThreshold,
+            @Value("${supabase.resilience.open-duration:10s}") Duration openDuration,
+            @Value("${supabase.resilience.half-open-probes:3}") int halfOpenProbes,
+            @Value("${supabase.resilience.bulkhead-wait:100ms}") Duration bulkheadWait,
+            @Value("${supabase.resilience.max-concurrent.token-validation:30}") int maxTokenValidation,
+            @Value("${supabase.resilience.max-concurrent.password-grant:10}") int maxPasswordGrant,
+            @Value("${supabase.resilience.max-concurrent.admin-write:5}") int maxAdminWrite
+    ) {
+        Config config = new Config(slidingWindow, minimumCalls, failureRateThreshold,
+                openDuration.toNanos(), halfOpenProbes, bulkheadWait.toNanos());
+
+        guards.put(SupabaseOperation.TOKEN_VALIDATION, new Guard(SupabaseOperation.TOKEN_VALIDATION, config, maxTokenValidation, meterRegistry));
+        guards.put(SupabaseOperation.PASSWORD_GRANT, new Guard(SupabaseOperation.PASSWORD_GRANT, config, maxPasswordGrant, meterRegistry));
+        guards.put(SupabaseOperation.ADMIN_WRITE, new Guard(SupabaseOperation.ADMIN_WRITE, config, maxAdminWrite, meterRegistry));
+    }
+
+    /**
+     * Reserviert einen Slot; wirft {@link SupabaseUnavailableException}, wenn der Call nicht ausgeführt werden darf.
+     * Der Aufrufer MUSS genau einmal {@link Permit#success()} oder {@link Permit#failure()} aufrufen.
+     */
+    public Permit acquire(SupabaseOperation operation) {
+        return guards.get(operation).acquire();
+    }
+
+    public State state(SupabaseOperation operation) {
+        return guards.get(operation).state;
+    }
+
+    private record Config(int slidingWindow, int minimumCalls, int failureRateThreshold,
+                          long openNanos, int halfOpenProbes, long bulkheadWaitNanos) {}
+
+    public interface Permit {
+        void success();
+        void failure();
+    }
+
+    private static final class Guard {
+
+        private final SupabaseOperation operation;
+        private final Config config;
+        private final Semaphore bulkhead;
+        private final ReentrantLock lock = new ReentrantLock();
+
+        // Ring-Buffer der letzten Ergebnisse (true = Fehler)
+        private final boolean[] window;
+        private int windowPos;
+        private int windowCount;
+        private int windowFailures;
+
+        private volatile State state = State.CLOSED;
+        private long openUntilNanos;
+        private int probesInFlight;
+        private int probeSuccesses;
+
+        private final MeterRegistry meterRegistry;
+        private final Counter bulkheadRejected;
+        private final Counter circuitRejected;
+
+        Guard(SupabaseOperation operation, Config config, int maxConcurrent, MeterRegistry meterRegistry) {
+            this.operation = operation;
+            this.config = config;
+            this.bulkhead = new Semaphore(maxConcurrent, true);
+            this.window = new boolean[config.slidingWindow()];
+            this.meterRegistry = meterRegistry;
+
+            String op = operation.name().toLowerCase();
+            Gauge.builder("supabase.circuit.state", this, g -> g.state.ordinal())
+                    .description("0 = closed, 1 = open, 2 = half_open")
+                    .tag("operation", op)
+                    .register(meterRegistry);
+            Gauge.builder("supabase.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                    .tag("operation", op)
+                    .register(meterRegistry);
+            this.bulkheadRejected = Counter.builder("supabase.resilience.rejected")
+                    .tag("operation", op).tag("reason", "bulkhead").register(meterRegistry);
+            this.circuitRejected = Counter.builder("supabase.resilience.rejected")
+                    .tag("operation", op).tag("reason", "circuit_open").register(meterRegistry);
+        }
+
+        Permit acquire() {
+            boolean probe = admit();
+
+            try {
+                if (!bulkhead.tryAcquire(config.bulkheadWaitNanos(), TimeUnit.NANOSECONDS)) {
+                    if (probe) releaseProbe();
+                    bulkheadRejected.increment();
+                    throw new SupabaseUnavailableException(operation, 1,
+                            "Supabase ausgelastet (" + operation + "), bitte gleich erneut versuchen");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (probe) releaseProbe();
+                throw new SupabaseUnavailableException(operation, 1, "Unterbrochen beim Warten auf Supabase");
+            }
+
+            return new Permit() {
+                private boolean done;
+
+                @Override
+                public void success() { complete(false); }
+
+                @Override
+                public void failure() { complete(true); }
+
+                private void complete(boolean failed) {
+                    if (done) return;
+                    done = true;
+                    bulkhead.release();
+                    record(failed, probe);
+                }
+            };
+        }
+
+        /** @return true, wenn der Call ein Half-Open-Probe ist */
+        private boolean admit() {
+            lock.lock();
+            try {
+                if (state == State.OPEN) {
+                    long remaining = openUntilNanos - System.nanoTime();
+                    if (remaining > 0) {
+                        circuitRejected.increment();
+                        throw new SupabaseUnavailableException(operation, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remaining) + 1),
+                                "Supabase derzeit nicht verfügbar (" + operation + ")");
+                    }
+                    transition(State.HALF_OPEN);
+                }
+                if (state == State.HALF_OPEN) {
+                    if (probesInFlight + probeSuccesses >= config.halfOpenProbes()) {
+                        circuitRejected.increment();
+                        throw new SupabaseUnavailableException(operation, 1,
+                                "Supabase wird gerade geprüft (" + operation + ")");
+                    }
+                    probesInFlight++;
+                    return true;
+                }
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void releaseProbe() {
+            lock.lock();
+            try {
+                if (probesInFlight > 0) probesInFlight--;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void record(boolean failed, boolean probe) {
+            lock.lock();
+            try {
+                if (probe) {
+                    if (probesInFlight > 0) probesInFlight--;
+                    if (state != State.HALF_OPEN) return;
+                    if (failed) {
+                        open();
+                    } else if (++probeSuccesses >= config.halfOpenProbes()) {
+                        resetWindow();
+                        transition(State.CLOSED);
+                    }
+                    return;
+                }
+
+                if (state != State.CLOSED) return;
+
+                if (windowCount == window.length) {
+                    if (window[windowPos]) windowFailures--;
+                } else {
+                    windowCount++;
+                }
+                window[windowPos] = failed;
+                if (failed) windowFailures++;
+                windowPos = (windowPos + 1) % window.length;
+
+                if (windowCount >= config.minimumCalls()
+                        && windowFailures * 100 >= config.failureRateThreshold() * windowCount) {
+                    open();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void open() {
+            openUntilNanos = System.nanoTime() + config.openNanos();
+            transition(State.OPEN);
+        }
+
+        private void resetWindow() {
+            windowPos = 0;
+            windowCount = 0;
+            windowFailures = 0;
+        }
+
+        private void transition(State to) {
+            State from = state;
+            if (from == to) return;
+            state = to;
+            probesInFlight = 0;
+            probeSuccesses = 0;
+
+            Counter.builder("supabase.circuit.transitions")
+                    .tag("operation", operation.name().toLowerCase())
+                    .tag("from", from.name().toLowerCase())
+                    .tag("to", to.name().toLowerCase())
+                    .register(meterRegistry)
+                    .increment();
+
+            if (to == State.OPEN) {
+                log.warn("Supabase circuit {} {} -> {}", operation, from, to);
+            } else {
+                log.info("Supabase circuit {} {} -> {}", operation, from, to);
+            }
+        }
+    }
+}
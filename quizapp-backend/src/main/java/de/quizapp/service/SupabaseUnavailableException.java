@@ -0,0 +1,21 @@
+package de.quizapp.service;
+
+/**
+ * Supabase-Aufruf wurde gar nicht erst ausgeführt (Circuit offen oder Bulkhead voll).
+ * Wird als 503 mit Retry-After beantwortet.
+ */
+public class SupabaseUnavailableException extends RuntimeException {
+
+    private final SupabaseOperation operation;
+    private final long retryAfterSeconds;
+
+    public SupabaseUnavailableException(SupabaseOperation operation, long retryAfterSeconds, String message) {
+        super(message);
+        this.operation = operation;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public SupabaseOperation getOperation() { return operation; }
+
+    public long getRetryAfterSeconds() { return retryAfterSeconds; }
+}
@@ -4,13 +4,8 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import de.quizapp.model.User;
 import de.quizapp.repository.UserRepository;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -20,31 +15,17 @@ public class UserService {
 
     private final UserRepository userRepository;
 
-    // ✅ PATCH/PUT Support: RestTemplate mit Apache HttpClient
-    private final RestTemplate restTemplate;
+    // ✅ PATCH/PUT Support: gemeinsamer Apache-HttpClient-Pool
+    private final SupabaseClient supabaseClient;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
-
-    @Value("${SUPABASE_URL}")
-    private String supabaseUrl;
+    private final LeaderboardRanking leaderboard;
 
-    @Value("${SUPABASE_SERVICE_ROLE_KEY}")
-    private String supabaseServiceRoleKey;
+    private final ObjectMapper objectMapper = new ObjectMapper();
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, SupabaseClient supabaseClient, LeaderboardRanking leaderboard) {
         this.userRepository = userRepository;
-
-        CloseableHttpClient httpClient = HttpClients.createDefault();
-        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(httpClient);
-        this.restTemplate = new RestTemplate(factory);
-    }
-
-    private HttpHeaders supabaseAdminHeaders() {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.set("apikey", supabaseServiceRoleKey);
-        headers.setBearerAuth(supabaseServiceRoleKey);
-        return headers;
+        this.supabaseClient = supabaseClient;
+        this.leaderboard = leaderboard;
     }
 
     // ------------------------------------------------------------
@@ -53,18 +34,17 @@ public class UserService {
     // ------------------------------------------------------------
     public UUID createSupabaseUser(String email, String password) throws Exception {
 
-        String url = supabaseUrl + "/auth/v1/admin/users";
-
         Map<String, Object> body = Map.of(
                 "email", email,
                 "password", password,
                 "email_confirm", true
         );
 
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, supabaseAdminHeaders());
-
-        ResponseEntity<String> response =
-                restTemplate.exchange(url, HttpMethod.POST, entity, String.class);
+        ResponseEntity<String> response = supabaseClient
+                .admin(SupabaseOperation.ADMIN_WRITE, HttpMethod.POST, "admin.users.create", "/auth/v1/admin/users")
+                .body(body)
+                .retrieve()
+                .toEntity(String.class);
 
         if (!response.getStatusCode().is2xxSuccessful()) {
             throw new Exception("Supabase create fehlgeschlagen (" + response.getStatusCode() + "): " + response.getBody());
@@ -82,8 +62,6 @@ public class UserService {
     public void updateSupabaseUser(UUID authUserId, String newEmail, String newPassword) throws Exception {
         if (authUserId == null) throw new Exception("auth_user_id fehlt (Supabase).");
 
-        String url = supabaseUrl + "/auth/v1/admin/users/" + authUserId;
-
         Map<String, Object> body = new HashMap<>();
         if (newEmail != null && !newEmail.isBlank()) {
             body.put("email", newEmail.trim());
@@ -95,10 +73,11 @@ public class UserService {
 
         if (body.isEmpty()) return;
 
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, supabaseAdminHeaders());
-
-        ResponseEntity<String> response =
-                restTemplate.exchange(url, HttpMethod.PUT, entity, String.class);
+        ResponseEntity<String> response = supabaseClient
+                .admin(SupabaseOperation.ADMIN_WRITE, HttpMethod.PUT, "admin.users.update", "/auth/v1/admin/users/{id}", authUserId)
+                .body(body)
+                .retrieve()
+                .toEntity(String.class);
 
         if (!response.getStatusCode().is2xxSuccessful()) {
             throw new Exception("Supabase update fehlgeschlagen (" + response.getStatusCode() + "): " + response.getBody());
@@ -112,12 +91,10 @@ public class UserService {
     public void deleteSupabaseUser(UUID authUserId) throws Exception {
         if (authUserId == null) throw new Exception("auth_user_id fehlt (Supabase).");
 
-        String url = supabaseUrl + "/auth/v1/admin/users/" + authUserId;
-
-        HttpEntity<Void> entity = new HttpEntity<>(supabaseAdminHeaders());
-
-        ResponseEntity<String> response =
-                restTemplate.exchange(url, HttpMethod.DELETE, entity, String.class);
+        ResponseEntity<String> response = supabaseClient
+                .admin(SupabaseOperation.ADMIN_WRITE, HttpMethod.DELETE, "admin.users.delete", "/auth/v1/admin/users/{id}", authUserId)
+                .retrieve()
+                .toEntity(String.class);
 
         if (!response.getStatusCode().is2xxSuccessful()) {
             throw new Exception("Supabase delete fehlgeschlagen (" + response.getStatusCode() + "): " + response.getBody());
@@ -160,7 +137,10 @@ public class UserService {
         }
 
         user.setCreatedAt(LocalDateTime.now());
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        // neuer Anwender steht sofort mit 0 Punkten in der Rangliste
+        leaderboard.refreshUser(saved.getAuthUserId());
+        return saved;
     }
 
     public Optional<User> getUserById(Long id) {
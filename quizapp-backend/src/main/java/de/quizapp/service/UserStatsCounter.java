@@ -0,0 +1,46 @@
+package de.quizapp.service;
+
+import de.quizapp.model.UserStats;
+import de.quizapp.repository.UserStatsRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Führt user_stats mit: ein UPDATE pro Antwort/Beenden/Start in der Transaktion des Spielpfads
+ * (Rollback -> kein Delta). Fehlt die Zeile (Benutzer aus dem Altbestand), wird sie einmal aus den Aggregaten angelegt.
+ */
+@Component
+public class UserStatsCounter {
+
+    private final UserStatsRepository userStatsRepository;
+    private final TransactionTemplate tx;
+
+    public UserStatsCounter(UserStatsRepository userStatsRepository, PlatformTransactionManager transactionManager) {
+        this.userStatsRepository = userStatsRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    /** Aufruf innerhalb der Schreib-Transaktion, die die Attempt-Zeilen ändert – danach, nicht davor. */
+    public void record(UUID userId, long points, long finished, long attempts) {
+        if (userId == null) return;
+        if (userStatsRepository.bump(userId, points, finished, attempts, Instant.now()) > 0) return;
+
+        // Aggregat sieht die eigenen Änderungen schon -> Delta nicht zusätzlich zählen
+        if (userStatsRepository.insertFromAggregates(userId) > 0) return;
+
+        // paralleler Insert war schneller
+        userStatsRepository.bump(userId, points, finished, attempts, Instant.now());
+    }
+
+    /** Profil: eine PK-Zeile; nur beim allerersten Aufruf eines Benutzers ohne Zeile einmal aggregieren. */
+    public UserStats get(UUID userId) {
+        return userStatsRepository.findById(userId).orElseGet(() -> tx.execute(status -> {
+            userStatsRepository.insertFromAggregates(userId);
+            return userStatsRepository.findById(userId).orElseThrow();
+        }));
+    }
+}
@@ -0,0 +1,106 @@
+package de.quizapp.service;
+
+import de.quizapp.repository.UserStatsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Rechnet user_stats im Hintergrund gegen quiz_attempts / quiz_attempt_results nach und korrigiert Abweichungen
+ * (z. B. nach Korrekturen durch den AttemptReconciliationJob oder gelöschten Quizzes).
+ *
+ * Gleiches Schema wie der Attempt-Abgleich: Keyset-Chunks über user_id, eine Transaktion pro Chunk, begrenzte Chunks
+ * pro Lauf; Benutzer mit Aktivität innerhalb von quiet-period bleiben unberührt.
+ */
+@Component
+public class UserStatsReconciliationJob {
+
+    private static final Logger log = LoggerFactory.getLogger(UserStatsReconciliationJob.class);
+    private static final UUID START = new UUID(0L, 0L);
+
+    private final UserStatsRepository userStatsRepository;
+    private final TransactionTemplate tx;
+
+    private final int chunkSize;
+    private final int maxChunks;
+    private final Duration quietPeriod;
+
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    private final Counter scanned;
+    private final Counter fixed;
+    private final Timer chunkTimer;
+
+    // Keyset-Position über Läufe hinweg; am Ende der Tabelle wieder von vorn
+    private UUID cursor = START;
+
+    public UserStatsReconciliationJob(
+            UserStatsRepository userStatsRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.user-stats-reconcile.chunk-size:500}") int chunkSize,
+            @Value("${app.user-stats-reconcile.max-chunks:20}") int maxChunks,
+            @Value("${app.user-stats-reconcile.quiet-period:10m}") Duration quietPeriod
+    ) {
+        this.userStatsRepository = userStatsRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxChunks = Math.max(1, maxChunks);
+        this.quietPeriod = quietPeriod;
+
+        this.scanned = Counter.builder("user.stats.reconcile.scanned")
+                .description("user_stats-Zeilen, die der Abgleich geprüft hat")
+                .register(meterRegistry);
+        this.fixed = Counter.builder("user.stats.reconcile.fixed")
+                .description("korrigierte user_stats-Zeilen")
+                .register(meterRegistry);
+        this.chunkTimer = Timer.builder("user.stats.reconcile.chunk").register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${app.user-stats-reconcile.initial-delay:1m}",
+               fixedDelayString = "${app.user-stats-reconcile.interval:10m}")
+    public void reconcile() {
+        if (!runLock.tryLock()) return; // läuft schon
+        try {
+            Instant quietBefore = Instant.now().minus(quietPeriod);
+            int fixes = 0;
+
+            for (int chunk = 0; chunk < maxChunks; chunk++) {
+                List<UUID> ids = userStatsRepository.findIdsAfter(cursor, Limit.of(chunkSize));
+                if (ids.isEmpty()) {
+                    cursor = START;
+                    break;
+                }
+
+                UUID after = cursor;
+                UUID upTo = ids.get(ids.size() - 1);
+                Integer n = chunkTimer.record(() -> tx.execute(status -> userStatsRepository.reconcile(after, upTo, quietBefore)));
+                if (n != null) {
+                    fixes += n;
+                    fixed.increment(n);
+                }
+
+                scanned.increment(ids.size());
+                cursor = upTo;
+            }
+
+            if (fixes > 0) log.info("user_stats-Abgleich: {} Zeilen korrigiert", fixes);
+        } finally {
+            runLock.unlock();
+        }
+    }
+}
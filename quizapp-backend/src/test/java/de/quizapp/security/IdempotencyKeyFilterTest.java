@@ -0,0 +1,187 @@
+package de.quizapp.security;
+
+import de.quizapp.service.IdempotencyStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyKeyFilterTest {
+
+    private static final String PATH = "/api/play/attempts";
+
+    private final String userId = UUID.randomUUID().toString();
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private SimpleMeterRegistry registry;
+    private IdempotencyKeyFilter filter;
+
+    // "Service": zählt Ausführungen und liefert jedes Mal eine neue Attempt-Id
+    private volatile long serviceLatencyMillis = 0;
+    private volatile int serviceStatus = 200;
+    private final FilterChain service = (req, res) -> {
+        executions.incrementAndGet();
+        try {
+            Thread.sleep(serviceLatencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        String body = new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        ((HttpServletResponse) res).setStatus(serviceStatus);
+        res.setContentType("application/json");
+        res.getWriter().write("{\"attemptId\":\"" + UUID.randomUUID() + "\",\"echo\":" + body + "}");
+    };
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        IdempotencyStore store = new IdempotencyStore(null, registry, 100, Duration.ofMinutes(5), false);
+        filter = new IdempotencyKeyFilter(store, registry, PATH + ",/api/play/attempts/*/answer", Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void duplicateIsReplayedWithoutRunningTheServiceAgain() throws Exception {
+        MockHttpServletResponse first = post("key-1", "{\"quizId\":1}");
+        MockHttpServletResponse second = post("key-1", "{\"quizId\":1}");
+
+        assertEquals(1, executions.get());
+        assertEquals(200, second.getStatus());
+        assertEquals(first.getContentAsString(), second.getContentAsString());
+        assertEquals("true", second.getHeader(IdempotencyKeyFilter.REPLAYED_HEADER));
+        assertNull(first.getHeader(IdempotencyKeyFilter.REPLAYED_HEADER));
+
+        // anderer Key -> neue Ausführung
+        post("key-2", "{\"quizId\":1}");
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void reusedKeyWithDifferentBodyIsRejected() throws Exception {
+        post("key-1", "{\"quizId\":1}");
+        MockHttpServletResponse other = post("key-1", "{\"quizId\":2}");
+
+        assertEquals(422, other.getStatus());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void failedExecutionIsNotStored() throws Exception {
+        serviceStatus = 500;
+        post("key-1", "{}");
+        serviceStatus = 200;
+        MockHttpServletResponse retry = post("key-1", "{}");
+
+        assertEquals(2, executions.get());
+        assertEquals(200, retry.getStatus());
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForTheFirstExecution() throws Exception {
+        serviceLatencyMillis = 200;
+        int clients = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<MockHttpServletResponse>> calls = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                calls.add(pool.submit(() -> {
+                    start.await();
+                    return post("same", "{\"quizId\":1}");
+                }));
+            }
+            start.countDown();
+
+            String body = null;
+            for (Future<MockHttpServletResponse> call : calls) {
+                MockHttpServletResponse res = call.get(10, TimeUnit.SECONDS);
+                assertEquals(200, res.getStatus());
+                if (body == null) body = res.getContentAsString();
+                assertEquals(body, res.getContentAsString(), "alle bekommen dieselbe Attempt-Id");
+            }
+            assertEquals(1, executions.get());
+            assertEquals(clients - 1, registry.get("idempotency.requests").tag("result", "replayed").counter().count());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void requestsWithoutKeyOrOutsideThePlayFlowAreNotTouched() throws Exception {
+        post(null, "{}");
+        post(null, "{}");
+        assertEquals(2, executions.get());
+
+        MockHttpServletRequest other = request("/api/quizzes", "k", "{}");
+        filter.doFilter(other, new MockHttpServletResponse(), service);
+        filter.doFilter(request("/api/quizzes", "k", "{}"), new MockHttpServletResponse(), service);
+        assertEquals(4, executions.get());
+    }
+
+    @Test
+    void replayedBodySupportsNonBlockingReads() throws Exception {
+        List<String> events = new ArrayList<>();
+        FilterChain async = (req, res) -> req.getInputStream().setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() {
+                events.add("data");
+            }
+
+            @Override
+            public void onAllDataRead() {
+                events.add("done");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                events.add("error");
+            }
+        });
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(userId, null, List.of()));
+        filter.doFilter(request(PATH, "k-async", "{}"), new MockHttpServletResponse(), async);
+
+        assertEquals(List.of("data", "done"), events);
+    }
+
+    private MockHttpServletResponse post(String key, String body) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        // SecurityContext ist thread-lokal -> pro Aufruf setzen
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(userId, null, List.of()));
+        filter.doFilter(request(PATH, key, body), response, service);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String path, String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        if (key != null) request.addHeader(IdempotencyKeyFilter.IDEMPOTENCY_KEY_HEADER, key);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
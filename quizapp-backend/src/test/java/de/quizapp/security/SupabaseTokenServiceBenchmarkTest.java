@@ -0,0 +1,112 @@
+package de.quizapp.security;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+import de.quizapp.service.SupabaseClient;
+import de.quizapp.service.SupabaseResilience;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Vergleicht lokale JWT-Prüfung mit dem Supabase-Roundtrip (hier gegen einen lokalen Stub,
+ * d. h. ohne echte Netzwerklatenz – in Produktion ist der Abstand noch deutlich größer).
+ *
+ * Ausführen: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class SupabaseTokenServiceBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(SupabaseTokenServiceBenchmarkTest.class);
+
+    private static final String SECRET = "super-secret-jwt-token-with-at-least-32-characters-long";
+    private static final String USER_ID = UUID.randomUUID().toString();
+
+    private static final int LOCAL_ITERATIONS = 20_000;
+    // Roundtrips sind um Größenordnungen langsamer -> weniger Iterationen reichen
+    private static final int REMOTE_ITERATIONS = 200;
+
+    private static HttpServer supabaseStub;
+    private static String baseUrl;
+
+    @BeforeAll
+    static void startStub() throws Exception {
+        supabaseStub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        supabaseStub.createContext("/auth/v1/user", exchange -> {
+            byte[] body = ("{\"id\":\"" + USER_ID + "\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        supabaseStub.start();
+        baseUrl = "http://127.0.0.1:" + supabaseStub.getAddress().getPort();
+    }
+
+    @AfterAll
+    static void stopStub() {
+        supabaseStub.stop(0);
+    }
+
+    @Test
+    void localVerificationVsRemoteRoundTrip() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SupabaseResilience resilience = new SupabaseResilience(registry, 20, 10, 50, Duration.ofSeconds(10), 3,
+                Duration.ofMillis(100), 30, 10, 5);
+        SupabaseClient client = new SupabaseClient(baseUrl, "service-role-key", registry, resilience,
+                Duration.ofSeconds(2), Duration.ofSeconds(5), Duration.ofSeconds(1), 10, Duration.ofSeconds(30));
+        SupabaseTokenService service = new SupabaseTokenService(client, baseUrl, "local", false, SECRET, "");
+        String token = signedToken();
+
+        assertEquals(USER_ID, service.resolveUserIdLocally(token));
+        assertEquals(USER_ID, service.resolveUserIdRemotely(token));
+
+        double localNs = measure(LOCAL_ITERATIONS, () -> service.resolveUserIdLocally(token));
+        double remoteNs = measure(REMOTE_ITERATIONS, () -> service.resolveUserIdRemotely(token));
+
+        log.info(String.format("local  : %10.1f µs/op", localNs / 1_000));
+        log.info(String.format("remote : %10.1f µs/op (Loopback-Stub)", remoteNs / 1_000));
+        log.info(String.format("Faktor : %10.1fx", remoteNs / localNs));
+    }
+
+    private static double measure(int iterations, Runnable op) {
+        // Warmup: 10 % der Messiterationen
+        for (int i = 0; i < iterations / 10; i++) op.run();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) op.run();
+        return (System.nanoTime() - start) / (double) iterations;
+    }
+
+    private static String signedToken() throws Exception {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject(USER_ID)
+                .issuer(baseUrl + "/auth/v1")
+                .audience("authenticated")
+                .claim("role", "authenticated")
+                .issueTime(new Date())
+                .expirationTime(Date.from(Instant.now().plusSeconds(3600)))
+                .build();
+
+        SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), claims);
+        jwt.sign(new MACSigner(SECRET.getBytes(StandardCharsets.UTF_8)));
+        return jwt.serialize();
+    }
+}
@@ -0,0 +1,197 @@
+package de.quizapp.security;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import de.quizapp.service.SupabaseClient;
+import de.quizapp.service.SupabaseResilience;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenResolutionCacheTest {
+
+    private static final String SECRET = "super-secret-jwt-token-with-at-least-32-characters-long";
+
+    private final String userId = UUID.randomUUID().toString();
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    private SimpleMeterRegistry registry;
+    private TokenResolutionCache cache;
+
+    // "Supabase": zählt Aufrufe, Verhalten pro Test austauschbar
+    private volatile Function<String, String> upstream = token -> userId;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        SupabaseResilience resilience = new SupabaseResilience(registry, 20, 10, 50, Duration.ofSeconds(10), 3,
+                Duration.ofMillis(100), 30, 10, 5);
+        SupabaseClient client = new SupabaseClient("http://127.0.0.1:1", "service-role-key", registry, resilience,
+                Duration.ofSeconds(2), Duration.ofSeconds(5), Duration.ofSeconds(1), 10, Duration.ofSeconds(30));
+
+        SupabaseTokenService tokenService = new SupabaseTokenService(client, "http://127.0.0.1:1", "local", false, SECRET, "") {
+            @Override
+            public String resolveUserIdOrThrow(String bearerToken) {
+                upstreamCalls.incrementAndGet();
+                return upstream.apply(bearerToken);
+            }
+        };
+        cache = new TokenResolutionCache(tokenService, registry, 100, Duration.ofMinutes(5), Duration.ofSeconds(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.close();
+    }
+
+    @Test
+    void validTokenIsResolvedOnceAndThenServedFromCache() throws Exception {
+        String token = token(Instant.now().plus(1, ChronoUnit.HOURS));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(userId, cache.resolveUserIdOrThrow(token));
+        }
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(4.0, requests("hit"));
+    }
+
+    @Test
+    void concurrentLookupsOfTheSameTokenShareOneUpstreamCall() throws Exception {
+        String token = token(Instant.now().plus(1, ChronoUnit.HOURS));
+        int threads = 16;
+
+        CountDownLatch release = new CountDownLatch(1);
+        upstream = t -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return userId;
+        };
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(() -> cache.resolveUserIdOrThrow(token)));
+            }
+
+            // erst freigeben, wenn alle anderen am laufenden Flight warten
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (requests("coalesced") < threads - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<String> f : results) {
+                assertEquals(userId, f.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, upstreamCalls.get(), "gleichzeitige Lookups müssen sich einen Upstream-Call teilen");
+        assertEquals(threads - 1, requests("coalesced"));
+    }
+
+    @Test
+    void rejectedTokenIsCachedNegatively() throws Exception {
+        String token = token(Instant.now().plus(1, ChronoUnit.HOURS));
+        upstream = t -> {
+            throw new InvalidBearerTokenException("Token abgelaufen");
+        };
+
+        for (int i = 0; i < 3; i++) {
+            InvalidBearerTokenException e = assertThrows(InvalidBearerTokenException.class,
+                    () -> cache.resolveUserIdOrThrow(token));
+            assertEquals("Token abgelaufen", e.getMessage());
+        }
+
+        assertEquals(1, upstreamCalls.get(), "abgelehnte Tokens dürfen Supabase nicht erneut treffen");
+    }
+
+    @Test
+    void upstreamFailureIsNotCached() throws Exception {
+        String token = token(Instant.now().plus(1, ChronoUnit.HOURS));
+        upstream = t -> {
+            throw new IllegalStateException("Supabase nicht erreichbar");
+        };
+
+        assertThrows(IllegalStateException.class, () -> cache.resolveUserIdOrThrow(token));
+
+        upstream = t -> userId;
+        assertEquals(userId, cache.resolveUserIdOrThrow(token));
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void cachedEntryDoesNotOutliveTheTokenExp() throws Exception {
+        // max-ttl 5 min, exp in ~2 s -> der Eintrag muss mit exp verfallen
+        Instant exp = Instant.now().plusSeconds(2).truncatedTo(ChronoUnit.SECONDS);
+        String token = token(exp);
+
+        assertEquals(userId, cache.resolveUserIdOrThrow(token));
+        assertEquals(userId, cache.resolveUserIdOrThrow(token));
+        assertEquals(1, upstreamCalls.get());
+
+        Thread.sleep(Math.max(0, Duration.between(Instant.now(), exp).toMillis()) + 200);
+
+        // Upstream lehnt das abgelaufene Token jetzt ab – der Cache darf es nicht mehr als gültig liefern
+        upstream = t -> {
+            throw new InvalidBearerTokenException("Token abgelaufen");
+        };
+        assertThrows(InvalidBearerTokenException.class, () -> cache.resolveUserIdOrThrow(token));
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void alreadyExpiredTokenIsNeverCached() throws Exception {
+        String token = token(Instant.now().minusSeconds(30));
+
+        assertEquals(userId, cache.resolveUserIdOrThrow(token));
+        assertEquals(userId, cache.resolveUserIdOrThrow(token));
+
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    private double requests(String result) {
+        return registry.get("auth.token.cache.requests").tag("result", result).counter().count();
+    }
+
+    private String token(Instant exp) throws Exception {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject(userId)
+                .issuer("http://127.0.0.1:1/auth/v1")
+                .issueTime(new Date())
+                .expirationTime(Date.from(exp))
+                .jwtID(UUID.randomUUID().toString())
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), claims);
+        jwt.sign(new MACSigner(SECRET));
+        return jwt.serialize();
+    }
+}
@@ -0,0 +1,108 @@
+package de.quizapp.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Rangliste mit 100.000 Anwendern: inkrementelle Skip-List vs. bisheriges Verfahren
+ * (alle Anwender sortieren pro Aufruf – im Betrieb zusätzlich GROUP BY über alle Attempts).
+ * Gemessen: Aufbau, Punkte-Update, Top 50, eigener Rang ± 5.
+ *
+ * Ausführen: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class LeaderboardRankingBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardRankingBenchmarkTest.class);
+
+    private static final int USERS = 100_000;
+    private static final int OPERATIONS = 200_000;
+    private static final int BASELINE_QUERIES = 50;
+
+    @Test
+    void skipListVsSortPerRequestAt100kUsers() {
+        Random random = new Random(7);
+        UUID[] ids = new UUID[USERS];
+        Map<UUID, Long> scores = new HashMap<>(USERS * 2);
+        for (int i = 0; i < USERS; i++) {
+            ids[i] = UUID.randomUUID();
+            scores.put(ids[i], (long) random.nextInt(2_000));
+        }
+
+        long t0 = System.nanoTime();
+        RankedSkipList ranks = new RankedSkipList();
+        scores.forEach(ranks::insert);
+        long buildNanos = System.nanoTime() - t0;
+
+        // Warmup
+        runUpdates(ranks, scores, ids, new Random(1), OPERATIONS / 10);
+        runReads(ranks, scores, ids, new Random(2), OPERATIONS / 10);
+
+        long updateNanos = runUpdates(ranks, scores, ids, new Random(3), OPERATIONS);
+        long readNanos = runReads(ranks, scores, ids, new Random(4), OPERATIONS);
+
+        // bisher: pro Aufruf alle sortieren, dann abschneiden bzw. eigenen Rang suchen
+        long t1 = System.nanoTime();
+        int found = 0;
+        for (int q = 0; q < BASELINE_QUERIES; q++) {
+            List<Map.Entry<UUID, Long>> sorted = new ArrayList<>(scores.entrySet());
+            sorted.sort(Map.Entry.<UUID, Long>comparingByValue(Comparator.reverseOrder()));
+            UUID me = ids[random.nextInt(USERS)];
+            for (Map.Entry<UUID, Long> e : sorted) {
+                if (e.getKey().equals(me)) {
+                    found++;
+                    break;
+                }
+            }
+        }
+        long baselineNanos = System.nanoTime() - t1;
+
+        log.info(String.format("%-28s %12s", "Operation", "µs/Op"));
+        String build = String.format("%-28s %12.0f", "Aufbau 100k (gesamt, ms)", buildNanos / 1e6);
+        log.info(build);
+        log.info(String.format("%-28s %12.2f", "Punkte-Update (Skip-List)", updateNanos / 1e3 / OPERATIONS));
+        log.info(String.format("%-28s %12.2f", "Top 50 + Rang ± 5", readNanos / 1e3 / OPERATIONS));
+        String baseline = String.format("%-28s %12.2f", "Sortieren pro Aufruf", baselineNanos / 1e3 / BASELINE_QUERIES);
+        log.info(baseline);
+
+        assertEquals(USERS, ranks.size(), build);
+        assertEquals(BASELINE_QUERIES, found, baseline);
+    }
+
+    private static long runUpdates(RankedSkipList ranks, Map<UUID, Long> scores, UUID[] ids, Random random, int n) {
+        long start = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            UUID id = ids[random.nextInt(ids.length)];
+            long old = scores.get(id);
+            ranks.remove(id, old);
+            ranks.insert(id, old + 1);
+            scores.put(id, old + 1);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long runReads(RankedSkipList ranks, Map<UUID, Long> scores, UUID[] ids, Random random, int n) {
+        long start = System.nanoTime();
+        long sink = 0;
+        for (int i = 0; i < n; i++) {
+            sink += ranks.range(1, 50).size();
+            UUID id = ids[random.nextInt(ids.length)];
+            int rank = ranks.rank(id, scores.get(id));
+            sink += ranks.range(Math.max(1, rank - 5), 11).size();
+        }
+        if (sink == 0) throw new AssertionError();
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,57 @@
+package de.quizapp.service;
+
+import de.quizapp.repository.QuizAttemptRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Aufbau der Rangliste: Deltas, die während der DB-Query gemeldet werden, gehen beim Tausch nicht verloren.
+ */
+class LeaderboardRankingTest {
+
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+
+    private LeaderboardRanking ranking;
+
+    @Test
+    void deltasReportedDuringRebuildSurviveTheSwap() {
+        ranking = new LeaderboardRanking(repository(), null, new SimpleMeterRegistry());
+        assertEquals(List.of(alice, bob), ids(ranking.top(10)));
+
+        // Resync: während die Query läuft, committet Bob zwei Antworten (nach ihrem Snapshot)
+        ranking.resync();
+
+        assertEquals(List.of(bob, alice), ids(ranking.top(10)));
+        assertEquals(6, ranking.top(10).get(0).points());
+    }
+
+    /** Stub: jeder Aufbau liest Alice 5 / Bob 4; ab dem zweiten meldet Bob mitten in der Query +2. */
+    private QuizAttemptRepository repository() {
+        int[] calls = {0};
+        return (QuizAttemptRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{QuizAttemptRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("getLeaderboardScores")) throw new UnsupportedOperationException(method.getName());
+                    List<QuizAttemptRepository.LeaderboardScoreRow> rows = List.of(row(alice, 5), row(bob, 4));
+                    if (calls[0]++ > 0) assertTrue(ranking.addPoints(bob, 2), "alter Stand kennt Bob");
+                    return rows;
+                });
+    }
+
+    private static QuizAttemptRepository.LeaderboardScoreRow row(UUID userId, long points) {
+        return new QuizAttemptRepository.LeaderboardScoreRow() {
+            @Override public UUID getUserId() { return userId; }
+            @Override public long getPoints() { return points; }
+        };
+    }
+
+    private static List<UUID> ids(List<RankedSkipList.Entry> entries) {
+        return entries.stream().map(RankedSkipList.Entry::userId).toList();
+    }
+}
@@ -0,0 +1,206 @@
+package de.quizapp.service;
+
+import de.quizapp.QuizappBackendApplication;
+import de.quizapp.model.User;
+import de.quizapp.repository.LeaderboardDailyPointsRepository;
+import de.quizapp.repository.LeaderboardRunPointsRepository;
+import de.quizapp.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Zeitraum-Ranglisten: Tageswechsel über den Bucket-Ring und Neuaufbau aus leaderboard_daily_points.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Flush schreibt in eigener Transaktion
+@ContextConfiguration(classes = LeaderboardWindowsTest.WindowsConfig.class)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:windows;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class LeaderboardWindowsTest {
+
+    @Configuration
+    @AutoConfigurationPackage(basePackageClasses = QuizappBackendApplication.class)
+    @Import(DailyPointsStore.class)
+    static class WindowsConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    /** Uhr, die der Test vorstellen kann. */
+    private static final class TestClock extends Clock {
+        private Instant now = LocalDateTime.of(2026, 3, 10, 12, 0).toInstant(ZoneOffset.UTC);
+
+        void advance(Duration d) { now = now.plus(d); }
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return now; }
+    }
+
+    @Autowired
+    private LeaderboardDailyPointsRepository dailyPointsRepository;
+
+    @Autowired
+    private LeaderboardRunPointsRepository runPointsRepository;
+
+    @Autowired
+    private DailyPointsStore store;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final TestClock clock = new TestClock();
+    private LeaderboardWindows windows;
+    private UUID alice;
+    private UUID bob;
+
+    @BeforeEach
+    void setUp() {
+        dailyPointsRepository.deleteAll();
+        runPointsRepository.deleteAll();
+        userRepository.deleteAll();
+        alice = anwender("Alice");
+        bob = anwender("Bob");
+        windows = new LeaderboardWindows(dailyPointsRepository, runPointsRepository, store, new SimpleMeterRegistry(), clock);
+    }
+
+    @Test
+    void rolloverDropsOldBucketsFromShorterWindows() {
+        windows.top(LeaderboardWindow.DAY, 10); // Aufbau (leer)
+
+        earn(alice, 5);
+        earn(bob, 2);
+        assertEquals(List.of(alice, bob), ids(windows.top(LeaderboardWindow.DAY, 10)));
+
+        // zwei Tage später: Bob spielt, Alice nicht
+        clock.advance(Duration.ofDays(2));
+        windows.rollover();
+        earn(bob, 1);
+
+        assertEquals(List.of(bob), ids(windows.top(LeaderboardWindow.DAY, 10)));
+        assertEquals(List.of(alice, bob), ids(windows.top(LeaderboardWindow.WEEK, 10)));
+        assertEquals(3, windows.top(LeaderboardWindow.WEEK, 10).get(1).points());
+
+        // eine Woche nach Alices Punkten fällt ihr Bucket aus der Woche, bleibt aber im Monat
+        clock.advance(Duration.ofDays(5));
+        windows.rollover();
+        assertEquals(List.of(bob), ids(windows.top(LeaderboardWindow.WEEK, 10)));
+        assertEquals(List.of(alice, bob), ids(windows.top(LeaderboardWindow.MONTH, 10)));
+
+        LeaderboardRanking.Position p = windows.position(LeaderboardWindow.MONTH, bob, 1);
+        assertEquals(2, p.me().rank());
+        assertEquals(2, p.totalPlayers());
+        assertEquals(List.of(alice, bob), ids(p.window()));
+    }
+
+    @Test
+    void resyncRebuildsFromPersistedDays() {
+        windows.top(LeaderboardWindow.DAY, 10);
+        earn(alice, 4);
+        clock.advance(Duration.ofDays(1));
+        earn(alice, 3);
+        earn(bob, 9);
+        earn(UUID.randomUUID(), UUID.randomUUID(), 0, 50, false); // kein Anwender: nur persistiert, beim Aufbau gefiltert
+
+        // frische Instanz (Neustart) liest die Tages-Zeilen
+        LeaderboardWindows restarted = new LeaderboardWindows(dailyPointsRepository, runPointsRepository, store, new SimpleMeterRegistry(), clock);
+        List<RankedSkipList.Entry> week = restarted.top(LeaderboardWindow.WEEK, 10);
+        assertEquals(List.of(bob, alice), ids(week));
+        assertEquals(7, week.get(1).points());
+        assertEquals(3, restarted.position(LeaderboardWindow.DAY, alice, 0).me().points());
+    }
+
+    @Test
+    void restartWithdrawsExactlyWhatTheRunEarnedPerDay() {
+        windows.top(LeaderboardWindow.DAY, 10);
+
+        // Bob: ein Durchlauf über Mitternacht – 2 Punkte gestern, 3 heute
+        UUID bobRun = UUID.randomUUID();
+        earn(bob, bobRun, 0, 2, true);
+        clock.advance(Duration.ofDays(1));
+        windows.rollover();
+        earn(bob, bobRun, 0, 3, true);
+        assertEquals(3, windows.top(LeaderboardWindow.DAY, 10).get(0).points());
+        assertEquals(5, windows.top(LeaderboardWindow.WEEK, 10).get(0).points());
+
+        // Neustart nimmt aus beiden Tagen genau den Beitrag des Durchlaufs zurück
+        windows.withdraw(bob, windows.takeRun(bobRun, 0), true);
+        assertEquals(List.of(), ids(windows.top(LeaderboardWindow.WEEK, 10)));
+
+        // Alice: Durchlauf, zweimal neu starten und erneut beantworten
+        UUID aliceRun = UUID.randomUUID();
+        for (int generation = 0; generation < 3; generation++) {
+            earn(alice, aliceRun, generation, 3, true);
+            if (generation < 2) windows.withdraw(alice, windows.takeRun(aliceRun, generation), true);
+        }
+        assertEquals(List.of(alice), ids(windows.top(LeaderboardWindow.WEEK, 10)));
+        assertEquals(3, windows.top(LeaderboardWindow.DAY, 10).get(0).points());
+
+        // Offline-Sync: eine Antwort von vor 40 Tagen zählt in keinem Zeitraum, die von heute schon
+        windows.earn(bob, UUID.randomUUID(), 0, List.of(clock.instant().minus(Duration.ofDays(40)), clock.instant()), true);
+        assertEquals(1, windows.position(LeaderboardWindow.MONTH, bob, 0).me().points());
+
+        // gleicher Stand nach dem Neuaufbau aus den Tages-Zeilen
+        LeaderboardWindows restarted = new LeaderboardWindows(dailyPointsRepository, runPointsRepository, store, new SimpleMeterRegistry(), clock);
+        List<RankedSkipList.Entry> week = restarted.top(LeaderboardWindow.WEEK, 10);
+        assertEquals(List.of(alice, bob), ids(week));
+        assertEquals(3, week.get(0).points());
+        assertEquals(1, week.get(1).points());
+    }
+
+    /** Punkte jetzt, jeweils in einem eigenen Durchlauf. */
+    private void earn(UUID userId, int points) {
+        earn(userId, UUID.randomUUID(), 0, points, true);
+    }
+
+    private void earn(UUID userId, UUID attemptId, int generation, int points, boolean ranked) {
+        windows.earn(userId, attemptId, generation, Collections.nCopies(points, clock.instant()), ranked);
+    }
+
+    private UUID anwender(String firstName) {
+        User u = new User();
+        u.setRole("Anwender");
+        u.setFirstName(firstName);
+        u.setLastName("Test");
+        u.setAuthUserId(UUID.randomUUID());
+        return userRepository.save(u).getAuthUserId();
+    }
+
+    private static List<UUID> ids(List<RankedSkipList.Entry> entries) {
+        return entries.stream().map(RankedSkipList.Entry::userId).toList();
+    }
+}
@@ -0,0 +1,83 @@
+package de.quizapp.service;
+
+import de.quizapp.dto.LiveLeaderboardDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Puffer einer SSE-Verbindung: veraltete Frames werden ersetzt, Überlauf verwirft die ältesten,
+ * ein verlorenes oder ersetztes Ranglisten-Delta wird durch die vollständige Liste nachgeholt.
+ */
+class LiveSubscriberTest {
+
+    private final LiveLeaderboardDto full = new LiveLeaderboardDto("all", true, List.of(), List.of());
+    private final LiveLeaderboardDto delta = new LiveLeaderboardDto("all", false, List.of(), List.of());
+
+    @Test
+    void slowConsumerOnlyGetsLatestState() {
+        LiveSubscriber s = new LiveSubscriber(new SseEmitter(), UUID.randomUUID(), LeaderboardWindow.ALL, 3);
+
+        assertEquals(0, s.offerTop(0, delta, full));
+        assertSame(full, s.poll().data(), "erste Rangliste immer vollständig");
+
+        // Client hängt: zweites Delta ersetzt das erste -> vollständige Liste statt Delta
+        assertEquals(0, s.offerTop(1, delta, full));
+        assertEquals(1, s.offerTop(2, delta, full));
+        assertEquals(0, s.offer("rank", new LiveSubscriber.Frame("rank", 1)));
+        assertEquals(1, s.offer("rank", new LiveSubscriber.Frame("rank", 2)));
+        assertSame(full, s.poll().data());
+        assertEquals(2, s.poll().data());
+        assertNull(s.poll());
+
+        // Überlauf verwirft das anstehende Delta -> nächstes Mal vollständig
+        s.offerTop(3, delta, full);
+        s.offer("progress:a", new LiveSubscriber.Frame("progress", "a"));
+        s.offer("progress:b", new LiveSubscriber.Frame("progress", "b"));
+        assertEquals(1, s.offer("progress:c", new LiveSubscriber.Frame("progress", "c")));
+        assertEquals("a", s.poll().data(), "Delta war der älteste Frame");
+        s.poll();
+        s.poll();
+        s.offerTop(4, delta, full);
+        assertSame(full, s.poll().data());
+    }
+
+    @Test
+    void subscriberWithAnOlderVersionGetsTheFullList() {
+        LiveSubscriber s = new LiveSubscriber(new SseEmitter(), UUID.randomUUID(), LeaderboardWindow.ALL, 4);
+
+        // beim Abonnieren Version 3 gelesen, parallel hat der Tick schon 4 verteilt (ohne diesen Abonnenten)
+        s.offerTop(3, full, full);
+        s.poll();
+        assertSame(delta, offerAndPoll(s, 4), "genau die vorige Version -> Delta reicht");
+        assertSame(full, offerAndPoll(s, 6), "Version 5 fehlt -> vollständig");
+
+        assertEquals(0, s.offerTop(6, delta, full));
+        assertNull(s.poll(), "gleiche Version nicht doppelt");
+    }
+
+    private LiveLeaderboardDto offerAndPoll(LiveSubscriber s, long version) {
+        s.offerTop(version, delta, full);
+        return (LiveLeaderboardDto) s.poll().data();
+    }
+
+    @Test
+    void singleDrainerPerConnection() {
+        LiveSubscriber s = new LiveSubscriber(new SseEmitter(), UUID.randomUUID(), LeaderboardWindow.ALL, 4);
+
+        assertTrue(s.startDrain());
+        assertFalse(s.startDrain(), "zweiter Sender wird nicht gestartet");
+        s.offer("rank", new LiveSubscriber.Frame("rank", 1));
+        assertTrue(s.finishDrain(), "während des Sendens eingereiht -> weitermachen");
+        s.poll();
+        assertFalse(s.finishDrain());
+
+        assertTrue(s.close());
+        assertFalse(s.close(), "nur der erste Aufrufer zählt die Verbindung ab");
+        assertFalse(s.startDrain());
+    }
+}
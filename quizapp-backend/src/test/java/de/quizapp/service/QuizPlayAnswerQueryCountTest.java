@@ -0,0 +1,604 @@
+package de.quizapp.service;
+
+import de.quizapp.QuizappBackendApplication;
+import de.quizapp.dto.AnswerBatchRequest;
+import de.quizapp.dto.AnswerBatchResultDto;
+import de.quizapp.dto.AnswerRequest;
+import de.quizapp.dto.AnswerResultDto;
+import de.quizapp.dto.AttemptResultDto;
+import de.quizapp.dto.QuizFeedPage;
+import de.quizapp.dto.QuizListItemDto;
+import de.quizapp.dto.ResumableQuizPage;
+import de.quizapp.model.Quiz;
+import de.quizapp.model.QuizAttempt;
+import de.quizapp.model.QuizQuestion;
+import de.quizapp.model.User;
+import de.quizapp.model.UserStats;
+import de.quizapp.repository.UserStatsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Zählt die JDBC-Statements pro Antwort (H2 im PostgreSQL-Modus, gleiche native Queries wie in Produktion).
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = QuizPlayAnswerQueryCountTest.PlayConfig.class)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:play;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class QuizPlayAnswerQueryCountTest {
+
+    // eigene Konfiguration statt QuizappBackendApplication -> kein Security/Web-Setup im JPA-Slice
+    @Configuration
+    @AutoConfigurationPackage(basePackageClasses = QuizappBackendApplication.class)
+    @Import({QuizPlayService.class, QuizSnapshotCache.class, AttemptCursorBuffer.class, ActiveAttemptEngine.class, AttemptAnswerReaper.class,
+            LeaderboardRanking.class, LeaderboardWindows.class, DailyPointsStore.class, QuizLeaderboards.class, UserStatsCounter.class,
+            LeaderboardService.class, LiveUpdateHub.class, AttemptReconciliationJob.class,
+            UserStatsReconciliationJob.class})
+    static class PlayConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private QuizPlayService quizPlayService;
+
+    @Autowired
+    private QuizSnapshotCache quizSnapshots;
+
+    @Autowired
+    private AttemptAnswerReaper reaper;
+
+    @Autowired
+    private AttemptReconciliationJob reconciliation;
+
+    @Autowired
+    private QuizLeaderboards quizLeaderboards;
+
+    @Autowired
+    private UserStatsRepository userStatsRepository;
+
+    @Autowired
+    private UserStatsReconciliationJob userStatsReconciliation;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final UUID userId = UUID.randomUUID();
+    private UUID quizId;
+    private UUID attemptId;
+    private final List<UUID> questionIds = new ArrayList<>();
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Quiz quiz = new Quiz();
+        quiz.setOwnerUserId(UUID.randomUUID());
+        quiz.setTitle("Zählquiz");
+        quiz.setPublished(true);
+        for (int i = 0; i < 3; i++) {
+            QuizQuestion q = new QuizQuestion();
+            q.setPosition(i);
+            q.setQuestion("Frage " + i);
+            q.setOptionA("A");
+            q.setOptionB("B");
+            q.setOptionC("C");
+            q.setOptionD("D");
+            q.setCorrectIndex(1);
+            quiz.addQuestion(q);
+        }
+        em.persist(quiz);
+
+        QuizAttempt attempt = new QuizAttempt();
+        attempt.setUserId(userId);
+        attempt.setQuizId(quiz.getId());
+        attempt.setTotalQuestions(3);
+        em.persist(attempt);
+        em.flush();
+        em.clear();
+
+        quizId = quiz.getId();
+        attemptId = attempt.getId();
+        quiz.getQuestions().forEach(q -> questionIds.add(q.getId()));
+        // Bestandsbenutzer: user_stats-Zeile existiert schon (Neuanlage aus Aggregaten nur einmal pro Benutzer)
+        userStatsRepository.insertFromAggregates(userId);
+
+        // Snapshot vorwärmen – im Betrieb ist das Quiz praktisch immer schon im Cache
+        quizSnapshots.get(quiz.getId());
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void firstAnswerNeedsThreeStatements() {
+        AnswerResultDto result = quizPlayService.answer(userId, attemptId, new AnswerRequest(questionIds.get(0), 1));
+
+        assertEquals(4, statistics.getPrepareStatementCount(), "Spielstand laden + Insert + Zähler-Update + user_stats");
+        assertTrue(result.isCorrect());
+        assertEquals(1, result.getScore());
+        assertEquals(1, result.getNextPosition());
+
+        QuizAttempt stored = reload();
+        assertEquals(1, stored.getAnsweredCount());
+        assertEquals(1, stored.getCorrectCount());
+        assertEquals(1, stored.getCurrentPosition());
+    }
+
+    @Test
+    void followUpAnswerUsesInMemoryState() {
+        quizPlayService.answer(userId, attemptId, new AnswerRequest(questionIds.get(0), 1));
+        statistics.clear();
+
+        AnswerResultDto second = quizPlayService.answer(userId, attemptId, new AnswerRequest(questionIds.get(1), 0));
+
+        assertEquals(3, statistics.getPrepareStatementCount(), "nur Insert + Zähler-Update + user_stats");
+        assertFalse(second.isCorrect());
+        assertEquals(1, second.getScore());
+        assertEquals(2, second.getNextPosition());
+        assertEquals(2, quizPlayService.getAttemptOverview(userId, attemptId).getAnsweredQuestions());
+        assertEquals(3, statistics.getPrepareStatementCount(), "Übersicht ohne Antwortliste");
+    }
+
+    @Test
+    void repeatedAnswerIsNoOpAndDoesNotOverwrite() {
+        quizPlayService.answer(userId, attemptId, new AnswerRequest(questionIds.get(0), 1));
+        statistics.clear();
+
+        AnswerResultDto repeated = quizPlayService.answer(userId, attemptId, new AnswerRequest(questionIds.get(0), 3));
+
+        assertEquals(1, statistics.getPrepareStatementCount(), "Speicherstand kennt die Antwort, nur Generation-Check");
+        assertTrue(repeated.isCorrect(), "erste Antwort bleibt gültig");
+        assertEquals(1, repeated.getScore());
+
+        QuizAttempt stored = reload();
+        assertEquals(1, stored.getAnsweredCount());
+        assertEquals(1, stored.getCorrectCount());
+    }
+
+    @Test
+    void countersDeriveFinishedAndScore() {
+        quizPlayService.answer(userId, attemptId, new AnswerRequest(questionIds.get(2), 0));
+        quizPlayService.answer(userId, attemptId, new AnswerRequest(questionIds.get(0), 1));
+        AnswerResultDto last = quizPlayService.answer(userId, attemptId, new AnswerRequest(questionIds.get(1), 1));
+
+        assertTrue(last.isFinished());
+        assertNull(last.getNextPosition());
+        assertEquals(2, last.getScore());
+
+        QuizAttempt stored = reload();
+        assertTrue(stored.isFinished());
+        assertEquals(3, stored.getAnsweredCount());
+        assertEquals(2, stored.getCorrectCount());
+        assertEquals(2, stored.getScore());
+
+        assertThrows(RuntimeException.class,
+                () -> quizPlayService.answer(userId, attemptId, new AnswerRequest(questionIds.get(1), 1)));
+
+        // Ergebnis kommt aus der beim Beenden geschriebenen Zusammenfassung
+        em.clear();
+        statistics.clear();
+        AttemptResultDto result = quizPlayService.getAttemptResult(userId, attemptId);
+        assertEquals(1, statistics.getPrepareStatementCount(), "eine PK-Zeile aus quiz_attempt_results");
+        assertEquals(2, result.getCorrectAnswers());
+        assertEquals(1, result.getWrongAnswers());
+        assertNotNull(result.getFinishedAt());
+        assertNotNull(result.getDurationMillis());
+    }
+
+    @Test
+    void restartOnAnotherInstanceIsNotAnsweredFromStaleState() {
+        questionIds.forEach(q -> quizPlayService.answer(userId, attemptId, new AnswerRequest(q, 1)));
+
+        // Neustart auf einer anderen Instanz: Generation in der DB weiter, Speicherstand hier noch "beendet"
+        em.getEntityManager().createNativeQuery("""
+                update quiz_attempts set generation = generation + 1, answered_count = 0, correct_count = 0,
+                       score = 0, is_finished = false, current_position = 0 where id = :id""")
+                .setParameter("id", attemptId).executeUpdate();
+
+        AnswerResultDto again = quizPlayService.answer(userId, attemptId, new AnswerRequest(questionIds.get(0), 0));
+        assertFalse(again.isCorrect(), "neue Generation: Frage ist wieder offen");
+        assertEquals(0, again.getScore());
+        assertEquals(1, reload().getAnsweredCount());
+    }
+
+    @Test
+    void questionOfAnotherQuizIsRejected() {
+        assertThrows(RuntimeException.class,
+                () -> quizPlayService.answer(userId, attemptId, new AnswerRequest(UUID.randomUUID(), 1)));
+        assertEquals(0, reload().getAnsweredCount());
+    }
+
+    @Test
+    void selectedIndexOutsideTheOptionsIsRejected() {
+        assertThrows(RuntimeException.class,
+                () -> quizPlayService.answer(userId, attemptId, new AnswerRequest(questionIds.get(0), 4)));
+        assertThrows(RuntimeException.class,
+                () -> quizPlayService.answerBatch(userId, attemptId, new AnswerBatchRequest(List.of(
+                        new AnswerBatchRequest.Item(questionIds.get(0), 1, null),
+                        new AnswerBatchRequest.Item(questionIds.get(1), -1, null)))));
+
+        assertEquals(0, reload().getAnsweredCount(), "ungültiger Batch setzt auch die gültige Antwort nicht");
+        AnswerResultDto valid = quizPlayService.answer(userId, attemptId, new AnswerRequest(questionIds.get(0), 1));
+        assertTrue(valid.isCorrect());
+        assertEquals(1, valid.getScore());
+    }
+
+    @Test
+    void batchAppliesNewAnswersOnceAndReportsDuplicates() {
+        quizPlayService.answer(userId, attemptId, new AnswerRequest(questionIds.get(0), 1));
+        statistics.clear();
+
+        UUID foreign = UUID.randomUUID();
+        AnswerBatchResultDto result = quizPlayService.answerBatch(userId, attemptId, new AnswerBatchRequest(List.of(
+                new AnswerBatchRequest.Item(questionIds.get(0), 0, null),
+                new AnswerBatchRequest.Item(questionIds.get(1), 1, null),
+                new AnswerBatchRequest.Item(questionIds.get(1), 2, null),
+                new AnswerBatchRequest.Item(foreign, 1, null)
+        )));
+
+        assertEquals(5, statistics.getPrepareStatementCount(), "Attempt + Multi-Insert + Rücklesen + Zähler-Update + user_stats");
+        assertEquals(List.of(
+                AnswerBatchResultDto.Status.DUPLICATE,
+                AnswerBatchResultDto.Status.APPLIED,
+                AnswerBatchResultDto.Status.DUPLICATE,
+                AnswerBatchResultDto.Status.UNKNOWN_QUESTION
+        ), result.results().stream().map(AnswerBatchResultDto.ItemResult::status).toList());
+        assertTrue(result.results().get(0).correct(), "gespeicherte Antwort bleibt gültig");
+        assertEquals(2, result.score());
+        assertEquals(2, result.answeredQuestions());
+        assertEquals(2, result.nextPosition());
+        assertFalse(result.finished());
+
+        QuizAttempt stored = reload();
+        assertEquals(2, stored.getAnsweredCount());
+        assertEquals(2, stored.getCorrectCount());
+        assertEquals(2, stored.getCurrentPosition());
+    }
+
+    @Test
+    void batchKeepsClientTimesInsideTheRunAndRejectsFinishedAttempts() {
+        OffsetDateTime beforeStart = reload().getStartedAt().atOffset(ZoneOffset.UTC).minusDays(3);
+        quizPlayService.answerBatch(userId, attemptId, new AnswerBatchRequest(List.of(
+                new AnswerBatchRequest.Item(questionIds.get(0), 1, beforeStart),
+                new AnswerBatchRequest.Item(questionIds.get(1), 1, OffsetDateTime.now().plusDays(1)),
+                new AnswerBatchRequest.Item(questionIds.get(2), 1, null)
+        )));
+
+        em.clear();
+        Instant started = reload().getStartedAt();
+        for (OffsetDateTime answeredAt : em.getEntityManager()
+                .createQuery("select a.answeredAt from QuizAttemptAnswer a where a.attempt.id = :id", OffsetDateTime.class)
+                .setParameter("id", attemptId).getResultList()) {
+            assertFalse(answeredAt.toInstant().isBefore(started), "nicht vor dem Start: " + answeredAt);
+            assertFalse(answeredAt.isAfter(OffsetDateTime.now()), "nicht in der Zukunft: " + answeredAt);
+        }
+
+        assertTrue(reload().isFinished());
+        assertThrows(RuntimeException.class, () -> quizPlayService.answerBatch(userId, attemptId, new AnswerBatchRequest(List.of(
+                new AnswerBatchRequest.Item(questionIds.get(0), 1, null)))));
+    }
+
+    @Test
+    void batchRacingARestartIsRolledBackInsteadOfReportedAsApplied() {
+        // Batch hat den Attempt (Generation 0) schon gelesen ...
+        reload();
+        // ... da committet ein paralleler Neustart
+        em.getEntityManager().createNativeQuery("""
+                update quiz_attempts set generation = generation + 1, answered_count = 0, correct_count = 0,
+                       score = 0, is_finished = false, current_position = 0 where id = :id""")
+                .setParameter("id", attemptId).executeUpdate();
+
+        assertThrows(RuntimeException.class, () -> quizPlayService.answerBatch(userId, attemptId, new AnswerBatchRequest(List.of(
+                new AnswerBatchRequest.Item(questionIds.get(0), 1, null),
+                new AnswerBatchRequest.Item(questionIds.get(1), 1, null)))));
+
+        QuizAttempt stored = reload();
+        assertEquals(1, stored.getGeneration());
+        assertEquals(0, stored.getAnsweredCount());
+        // Speicherstand verworfen: in der neuen Generation ist die Frage wieder offen
+        AnswerResultDto again = quizPlayService.answer(userId, attemptId, new AnswerRequest(questionIds.get(0), 0));
+        assertFalse(again.isCorrect());
+        assertEquals(0, again.getScore());
+    }
+
+    @Test
+    void resumableQuizzesArePagedByCursor() {
+        Quiz other = new Quiz();
+        other.setOwnerUserId(UUID.randomUUID());
+        other.setTitle("Zweites Quiz");
+        other.setPublished(true);
+        em.persist(other);
+        QuizAttempt second = new QuizAttempt();
+        second.setUserId(userId);
+        second.setQuizId(other.getId());
+        second.setTotalQuestions(0);
+        em.persist(second);
+        em.flush();
+
+        ResumableQuizPage first = quizPlayService.getResumableQuizzesForUser(userId, null, 1);
+        assertEquals(1, first.items().size());
+        assertNotNull(first.nextCursor());
+
+        ResumableQuizPage next = quizPlayService.getResumableQuizzesForUser(userId, first.nextCursor(), 1);
+        assertEquals(1, next.items().size());
+        assertNull(next.nextCursor(), "letzte Seite");
+        assertEquals(Set.of(attemptId, second.getId()),
+                Set.of(first.items().get(0).getAttemptId(), next.items().get(0).getAttemptId()));
+    }
+
+    @Test
+    void resumableQuizzesWalkEqualUpdatedAtByIdAndShowOnlyTheLatestAttemptPerQuiz() {
+        List<UUID> attempts = new ArrayList<>(List.of(attemptId));
+        for (int i = 0; i < 3; i++) {
+            QuizAttempt a = new QuizAttempt();
+            a.setUserId(userId);
+            a.setQuizId(publishedQuiz("Fortsetzen " + i).getId());
+            a.setTotalQuestions(0);
+            em.persist(a);
+            attempts.add(a.getId());
+        }
+        // älterer Attempt desselben Quiz -> darf nicht erscheinen
+        QuizAttempt older = new QuizAttempt();
+        older.setUserId(userId);
+        older.setQuizId(quizId);
+        older.setTotalQuestions(3);
+        older.setUpdatedAt(Instant.parse("2025-01-01T00:00:00Z"));
+        em.persist(older);
+        em.flush();
+        em.getEntityManager().createNativeQuery("update quiz_attempts set updated_at = timestamp '2026-01-01 12:00:00' where id in (:ids)")
+                .setParameter("ids", attempts).executeUpdate();
+        em.clear();
+
+        List<UUID> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            ResumableQuizPage page = quizPlayService.getResumableQuizzesForUser(userId, cursor, 3);
+            page.items().forEach(i -> seen.add(i.getAttemptId()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null && pages < 10);
+
+        assertEquals(2, pages, "3 + 1, letzte Seite ohne Cursor");
+        assertEquals(attempts.stream().sorted(Comparator.comparing(UUID::toString).reversed()).toList(), seen,
+                "bei gleichem updated_at absteigend nach id, pro Quiz nur der neueste Attempt");
+    }
+
+    @Test
+    void resumableQuizzesRejectMalformedCursor() {
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> quizPlayService.getResumableQuizzesForUser(userId, "kein-base64!", 10));
+        assertEquals("Ungültiger Cursor", e.getMessage());
+    }
+
+    @Test
+    void newQuizFeedWalksEqualCreatedAtByIdWithoutGapsOrDuplicates() {
+        List<UUID> fresh = new ArrayList<>();
+        for (int i = 0; i < 5; i++) fresh.add(publishedQuiz("Neu " + i).getId());
+        // gleicher Zeitstempel für alle -> Reihenfolge und Cursor hängen nur noch an der id
+        em.getEntityManager().createNativeQuery("update quizzes set created_at = timestamp '2026-01-01 12:00:00' where id in (:ids)")
+                .setParameter("ids", fresh).executeUpdate();
+        em.clear();
+
+        List<UUID> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            QuizFeedPage page = quizPlayService.getNewPublishedQuizzesForUser(userId, cursor, 2);
+            page.items().stream().map(QuizListItemDto::getId).forEach(seen::add);
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null && pages < 10);
+
+        assertEquals(3, pages, "2 + 2 + 1, letzte Seite ohne Cursor");
+        assertFalse(seen.contains(quizId), "begonnenes Quiz gehört nicht in den Feed");
+        // DB vergleicht uuid byteweise (ohne Vorzeichen) = Hex-String, nicht UUID.compareTo
+        assertEquals(fresh.stream().sorted(Comparator.comparing(UUID::toString).reversed()).toList(), seen,
+                "bei gleichem created_at absteigend nach id, jede id genau einmal");
+    }
+
+    @Test
+    void newQuizFeedRejectsMalformedCursor() {
+        String noSeparator = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("2026-01-01T12:00:00Z".getBytes(StandardCharsets.UTF_8));
+
+        for (String cursor : List.of("kein-base64!", noSeparator)) {
+            RuntimeException e = assertThrows(RuntimeException.class,
+                    () -> quizPlayService.getNewPublishedQuizzesForUser(userId, cursor, 10));
+            assertEquals("Ungültiger Cursor", e.getMessage());
+        }
+    }
+
+    @Test
+    void restartIsIndependentOfAnswerCountAndOldRunIsArchived() {
+        quizPlayService.answer(userId, attemptId, new AnswerRequest(questionIds.get(0), 1));
+        quizPlayService.answer(userId, attemptId, new AnswerRequest(questionIds.get(1), 1));
+        statistics.clear();
+
+        quizPlayService.restartAttempt(userId, quizId);
+
+        assertEquals(4, statistics.getPrepareStatementCount(),
+                "neuester Attempt + Generation hochzählen + user_stats + Zeitraum-Beiträge des Durchlaufs, "
+                        + "kein Laden/Löschen der Antworten oder Ergebnisse");
+        QuizAttempt restarted = reload();
+        assertEquals(1, restarted.getGeneration());
+        assertEquals(0, restarted.getAnsweredCount());
+        assertEquals(0, quizPlayService.getAttemptOverview(userId, attemptId).getAnsweredQuestions());
+
+        // gleiche Frage ist in der neuen Generation wieder offen
+        AnswerResultDto again = quizPlayService.answer(userId, attemptId, new AnswerRequest(questionIds.get(0), 2));
+        assertFalse(again.isCorrect());
+        assertEquals(0, again.getScore());
+
+        reaper.reap();
+        em.clear();
+
+        assertEquals(1L, count("select count(a) from QuizAttemptAnswer a"));
+        assertEquals(2L, count("select count(a) from QuizAttemptAnswerArchive a where a.generation = 0"));
+        assertFalse(reload().isReapPending());
+    }
+
+    @Test
+    void reconciliationRepairsDriftedCountersAndMissingResult() {
+        questionIds.forEach(q -> quizPlayService.answer(userId, attemptId, new AnswerRequest(q, 1)));
+
+        // Drift wie aus Altbestand/abgebrochenen Schreibvorgängen; letzter Schreibzugriff lange her
+        em.getEntityManager().createNativeQuery("""
+                update quiz_attempts set answered_count = 1, correct_count = 0, score = 0, is_finished = false,
+                       updated_at = timestamp '2020-01-01 00:00:00' where id = :id""")
+                .setParameter("id", attemptId).executeUpdate();
+        em.getEntityManager().createNativeQuery("delete from quiz_attempt_results").executeUpdate();
+
+        reconciliation.reconcile();
+
+        QuizAttempt stored = reload();
+        assertEquals(3, stored.getAnsweredCount());
+        assertEquals(3, stored.getCorrectCount());
+        assertTrue(stored.isFinished());
+        assertEquals(1L, count("select count(r) from QuizAttemptResult r"));
+    }
+
+    @Test
+    void quizLeaderboardKeepsBestResultPerAnwender() {
+        User player = new User();
+        player.setRole("Anwender");
+        player.setFirstName("Spieler");
+        player.setLastName("Test");
+        player.setAuthUserId(userId);
+        em.persist(player);
+        questionIds.forEach(q -> quizPlayService.answer(userId, attemptId, new AnswerRequest(q, 1)));
+
+        // älterer, schwächerer Durchlauf desselben Benutzers + Ergebnis eines Nicht-Anwenders
+        em.getEntityManager().createNativeQuery("""
+                insert into quiz_attempt_results
+                       (attempt_id, generation, user_id, quiz_id, total_questions, correct_count, wrong_count, duration_millis, finished_at)
+                values (:a1, 0, :user, :quiz, 3, 1, 2, 1000, timestamp '2025-01-01 00:00:00'),
+                       (:a2, 0, :other, :quiz, 3, 3, 0, 1, timestamp '2025-01-01 00:00:00')""")
+                .setParameter("a1", UUID.randomUUID())
+                .setParameter("a2", UUID.randomUUID())
+                .setParameter("user", userId)
+                .setParameter("other", UUID.randomUUID())
+                .setParameter("quiz", quizId)
+                .executeUpdate();
+
+        List<QuizTopK.Entry> top = quizLeaderboards.top(quizId);
+        assertEquals(1, top.size());
+        assertEquals(attemptId, top.get(0).attemptId());
+        assertEquals(3, top.get(0).correctCount());
+    }
+
+    @Test
+    void restartKeepsEarlierResultsAndTheBestStaysOnTheQuizBoard() {
+        User player = new User();
+        player.setRole("Anwender");
+        player.setFirstName("Spieler");
+        player.setLastName("Test");
+        player.setAuthUserId(userId);
+        em.persist(player);
+
+        questionIds.forEach(q -> quizPlayService.answer(userId, attemptId, new AnswerRequest(q, 1)));
+        quizPlayService.restartAttempt(userId, quizId);
+        // zweiter, schwächerer Durchlauf
+        questionIds.forEach(q -> quizPlayService.answer(userId, attemptId, new AnswerRequest(q, 0)));
+        em.clear();
+
+        assertEquals(2L, count("select count(r) from QuizAttemptResult r"), "je Generation eine Zusammenfassung");
+        assertEquals(0, quizPlayService.getAttemptResult(userId, attemptId).getCorrectAnswers(), "Ergebnisseite: aktueller Durchlauf");
+        assertEquals(1, stats().getFinishedQuizzes());
+
+        List<QuizTopK.Entry> top = quizLeaderboards.top(quizId);
+        assertEquals(1, top.size());
+        assertEquals(3, top.get(0).correctCount(), "bestes Ergebnis bleibt trotz Neustart in der Bestenliste");
+    }
+
+    @Test
+    void userStatsFollowAnswersFinishAndRestartAndRepairDrift() {
+        questionIds.forEach(q -> quizPlayService.answer(userId, attemptId, new AnswerRequest(q, q.equals(questionIds.get(0)) ? 0 : 1)));
+
+        UserStats stats = stats();
+        assertEquals(2, stats.getPoints());
+        assertEquals(1, stats.getFinishedQuizzes());
+        assertEquals(1, stats.getAttempts());
+        assertNotNull(stats.getLastActivityAt());
+
+        quizPlayService.restartAttempt(userId, quizId);
+        stats = stats();
+        assertEquals(0, stats.getPoints());
+        assertEquals(0, stats.getFinishedQuizzes());
+
+        // Drift (z. B. Korrektur außerhalb des Spielpfads), letzte Aktivität lange her -> Abgleich rechnet nach
+        em.getEntityManager().createNativeQuery("""
+                update user_stats set points = 99, attempts = 7,
+                       last_activity_at = timestamp '2020-01-01 00:00:00' where user_id = :id""")
+                .setParameter("id", userId).executeUpdate();
+        userStatsReconciliation.reconcile();
+        stats = stats();
+        assertEquals(0, stats.getPoints());
+        assertEquals(1, stats.getAttempts());
+    }
+
+    private Quiz publishedQuiz(String title) {
+        Quiz quiz = new Quiz();
+        quiz.setOwnerUserId(UUID.randomUUID());
+        quiz.setTitle(title);
+        quiz.setPublished(true);
+        em.persist(quiz);
+        em.flush();
+        return quiz;
+    }
+
+    private UserStats stats() {
+        em.clear();
+        return userStatsRepository.findById(userId).orElseThrow();
+    }
+
+    private long count(String jpql) {
+        return em.getEntityManager().createQuery(jpql, Long.class).getSingleResult();
+    }
+
+    private QuizAttempt reload() {
+        em.clear();
+        return em.find(QuizAttempt.class, attemptId);
+    }
+}
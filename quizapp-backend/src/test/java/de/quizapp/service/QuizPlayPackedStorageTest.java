@@ -0,0 +1,214 @@
+package de.quizapp.service;
+
+import de.quizapp.QuizappBackendApplication;
+import de.quizapp.dto.AnswerRequest;
+import de.quizapp.dto.AnswerResultDto;
+import de.quizapp.dto.AttemptOverviewDto;
+import de.quizapp.dto.ReviewQuestionDto;
+import de.quizapp.model.Quiz;
+import de.quizapp.model.QuizAttempt;
+import de.quizapp.model.QuizQuestion;
+import de.quizapp.repository.QuizAttemptAnswerRepository;
+import de.quizapp.repository.QuizAttemptRepository;
+import de.quizapp.repository.UserStatsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Gepacktes Antwortformat: Migration aus quiz_attempt_answers + Lesen (Übersicht/Review) + Weiterspielen.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Migration arbeitet mit eigenen Transaktionen
+@ContextConfiguration(classes = QuizPlayPackedStorageTest.PlayConfig.class)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:play-packed;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.answer-storage.mode=packed"
+})
+class QuizPlayPackedStorageTest {
+
+    @Configuration
+    @AutoConfigurationPackage(basePackageClasses = QuizappBackendApplication.class)
+    @Import({QuizPlayService.class, QuizSnapshotCache.class, AttemptCursorBuffer.class, ActiveAttemptEngine.class,
+            LeaderboardRanking.class, LeaderboardWindows.class, DailyPointsStore.class, QuizLeaderboards.class, UserStatsCounter.class,
+            LeaderboardService.class, LiveUpdateHub.class, AnswerVectorMigration.class})
+    static class PlayConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private QuizPlayService quizPlayService;
+
+    @Autowired
+    private AnswerVectorMigration migration;
+
+    @Autowired
+    private QuizAttemptRepository quizAttemptRepository;
+
+    @Autowired
+    private QuizAttemptAnswerRepository quizAttemptAnswerRepository;
+
+    @Autowired
+    private UserStatsRepository userStatsRepository;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final UUID userId = UUID.randomUUID();
+    private UUID attemptId;
+    private final List<UUID> questionIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Quiz quiz = new Quiz();
+        quiz.setOwnerUserId(UUID.randomUUID());
+        quiz.setTitle("Packquiz");
+        quiz.setPublished(true);
+        for (int i = 0; i < 4; i++) {
+            QuizQuestion q = new QuizQuestion();
+            q.setPosition(i);
+            q.setQuestion("Frage " + i);
+            q.setOptionA("A");
+            q.setOptionB("B");
+            q.setOptionC("C");
+            q.setOptionD("D");
+            q.setCorrectIndex(2);
+            quiz.addQuestion(q);
+        }
+
+        QuizAttempt attempt = new QuizAttempt();
+        attempt.setUserId(userId);
+        attempt.setTotalQuestions(4);
+
+        inTx(() -> {
+            em.persist(quiz);
+            attempt.setQuizId(quiz.getId());
+            em.persist(attempt);
+        });
+        attemptId = attempt.getId();
+        quiz.getQuestions().forEach(q -> questionIds.add(q.getId()));
+
+        // Altbestand im Zeilenformat: Frage 0 richtig, Frage 2 falsch
+        inTx(() -> {
+            quizAttemptAnswerRepository.insertIfAbsent(UUID.randomUUID(), attemptId, 0, questionIds.get(0), 2, true, OffsetDateTime.now());
+            quizAttemptAnswerRepository.insertIfAbsent(UUID.randomUUID(), attemptId, 0, questionIds.get(2), 3, false, OffsetDateTime.now());
+            quizAttemptRepository.recordAnswers(attemptId, 0, 2, 1, 4, 1, Instant.now());
+            userStatsRepository.insertFromAggregates(userId);
+        });
+    }
+
+    @Test
+    void codecRoundTrip() {
+        int[] selected = {2, PackedAnswers.NONE, 0, 3, PackedAnswers.NONE};
+        BitSet correct = new BitSet();
+        correct.set(0);
+        correct.set(3);
+
+        byte[] vector = PackedAnswers.encode(7L, selected, correct);
+        PackedAnswers.Decoded decoded = PackedAnswers.decode(vector);
+
+        assertEquals(11 + 2 + 1, vector.length, "Header + 5×3 Bit + Bitmap");
+        assertEquals(7L, decoded.quizVersion());
+        assertArrayEquals(selected, decoded.selected());
+        assertEquals(correct, decoded.correct());
+    }
+
+    @Test
+    void migrationPacksRowsAndReadsStayCompatible() {
+        AttemptOverviewDto before = quizPlayService.getAttemptOverview(userId, attemptId);
+        List<ReviewQuestionDto> reviewBefore = quizPlayService.getReview(userId, attemptId);
+
+        migration.migrate();
+
+        assertNotNull(quizAttemptRepository.findById(attemptId).orElseThrow().getAnswerVector());
+        assertEquals(0L, quizAttemptAnswerRepository.count(), "Zeilen sind nach dem Packen weg");
+
+        AttemptOverviewDto after = quizPlayService.getAttemptOverview(userId, attemptId);
+        assertEquals(2, after.getAnsweredQuestions());
+        assertEquals(
+                before.getItems().stream().map(i -> i.isAnswered() + "/" + i.getCorrect()).toList(),
+                after.getItems().stream().map(i -> i.isAnswered() + "/" + i.getCorrect()).toList());
+
+        List<ReviewQuestionDto> reviewAfter = quizPlayService.getReview(userId, attemptId);
+        assertEquals(
+                reviewBefore.stream().map(r -> Arrays.asList(r.getPosition(), r.getSelectedIndex(), r.isCorrect())).toList(),
+                reviewAfter.stream().map(r -> Arrays.asList(r.getPosition(), r.getSelectedIndex(), r.isCorrect())).toList());
+        assertEquals(3, quizPlayService.getReviewQuestion(userId, attemptId, 2).getSelectedIndex());
+    }
+
+    @Test
+    void answersAreWrittenIntoTheVectorInOneStatement() {
+        // Speicherstand laden (aus den Zeilen), dann weiterspielen
+        quizPlayService.getAttemptOverview(userId, attemptId);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        AnswerResultDto r = quizPlayService.answer(userId, attemptId, new AnswerRequest(questionIds.get(1), 2));
+
+        assertEquals(2, statistics.getPrepareStatementCount(), "Vektor + Zähler in einem UPDATE, dazu user_stats");
+        assertTrue(r.isCorrect());
+        assertEquals(2, r.getScore());
+        assertEquals(3, r.getNextPosition());
+
+        // Zeilen aus dem Altbestand sind im Vektor enthalten -> Migration löscht nur noch
+        migration.migrate();
+        assertEquals(0L, quizAttemptAnswerRepository.count());
+
+        AnswerResultDto last = quizPlayService.answer(userId, attemptId, new AnswerRequest(questionIds.get(3), 0));
+        assertTrue(last.isFinished());
+
+        QuizAttempt stored = quizAttemptRepository.findById(attemptId).orElseThrow();
+        assertEquals(4, stored.getAnsweredCount());
+        assertEquals(2, stored.getCorrectCount());
+        assertTrue(stored.isFinished());
+        assertEquals(4, quizPlayService.getReview(userId, attemptId).size());
+    }
+
+    private void inTx(Runnable work) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> work.run());
+    }
+}
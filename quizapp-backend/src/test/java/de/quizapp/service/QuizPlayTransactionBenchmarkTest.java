@@ -0,0 +1,177 @@
+package de.quizapp.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import de.quizapp.QuizappBackendApplication;
+import de.quizapp.dto.AnswerRequest;
+import de.quizapp.model.Quiz;
+import de.quizapp.model.QuizAttempt;
+import de.quizapp.model.QuizQuestion;
+import de.quizapp.repository.QuizAttemptRepository;
+import de.quizapp.repository.QuizRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Connection-Checkouts aus dem Hikari-Pool pro Play-Request:
+ * über den Spring-Proxy (eine Transaktion pro Request) vs. direkt auf dem Service-Objekt
+ * (ohne Transaktionsgrenze -> jeder Repository-Call holt sich eine eigene Connection, altes Verhalten ohne open-in-view).
+ *
+ * Ausführen: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // keine Test-Transaktion, sonst teilen sich alle Calls eine Connection
+@ContextConfiguration(classes = QuizPlayTransactionBenchmarkTest.PlayConfig.class)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:play-tx-bench;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.open-in-view=false"
+})
+class QuizPlayTransactionBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizPlayTransactionBenchmarkTest.class);
+
+    private static final int QUESTIONS = 20;
+    private static final int ITERATIONS = 500;
+
+    @Configuration
+    @AutoConfigurationPackage(basePackageClasses = QuizappBackendApplication.class)
+    @Import({QuizPlayService.class, QuizSnapshotCache.class, AttemptCursorBuffer.class, ActiveAttemptEngine.class,
+            LeaderboardRanking.class, LeaderboardWindows.class, DailyPointsStore.class, QuizLeaderboards.class, UserStatsCounter.class,
+            LeaderboardService.class, LiveUpdateHub.class})
+    static class PlayConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        // Hikari-Metriken müssen vor dem Pool-Start registriert sein
+        @Bean
+        static BeanPostProcessor hikariMetrics(ObjectProvider<MeterRegistry> registry) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                    if (bean instanceof HikariDataSource ds) ds.setMetricRegistry(registry.getObject());
+                    return bean;
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private QuizPlayService quizPlayService;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private QuizAttemptRepository quizAttemptRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void readRequestsUseOneConnectionCheckout() {
+        UUID userId = UUID.randomUUID();
+        Quiz quiz = new Quiz();
+        quiz.setOwnerUserId(UUID.randomUUID());
+        quiz.setTitle("Benchmark");
+        quiz.setPublished(true);
+        for (int i = 0; i < QUESTIONS; i++) {
+            QuizQuestion q = new QuizQuestion();
+            q.setPosition(i);
+            q.setQuestion("Frage " + i);
+            q.setOptionA("A");
+            q.setOptionB("B");
+            q.setOptionC("C");
+            q.setOptionD("D");
+            q.setCorrectIndex(i % 4);
+            quiz.addQuestion(q);
+        }
+        quizRepository.save(quiz);
+
+        QuizAttempt attempt = new QuizAttempt();
+        attempt.setUserId(userId);
+        attempt.setQuizId(quiz.getId());
+        attempt.setTotalQuestions(QUESTIONS);
+        UUID attemptId = quizAttemptRepository.save(attempt).getId();
+
+        for (int i = 0; i < QUESTIONS / 2; i++) {
+            quizPlayService.answer(userId, attemptId, new AnswerRequest(quiz.getQuestions().get(i).getId(), 0));
+        }
+
+        Map<String, Consumer<QuizPlayService>> requests = new LinkedHashMap<>();
+        requests.put("meta", s -> s.getAttemptMeta(userId, attemptId));
+        requests.put("overview", s -> s.getAttemptOverview(userId, attemptId));
+        requests.put("current", s -> s.getCurrentQuestion(userId, attemptId));
+        requests.put("question", s -> s.getQuestionByPosition(userId, attemptId, 3));
+        requests.put("result", s -> s.getAttemptResult(userId, attemptId));
+        requests.put("review", s -> s.getReview(userId, attemptId));
+
+        QuizPlayService withoutBoundary = AopTestUtils.getUltimateTargetObject(quizPlayService);
+
+        log.info(String.format("%-10s %22s %22s", "Request", "ohne Tx (Checkouts/µs)", "mit Tx (Checkouts/µs)"));
+        for (Map.Entry<String, Consumer<QuizPlayService>> r : requests.entrySet()) {
+            Measurement before = measure(() -> r.getValue().accept(withoutBoundary));
+            Measurement after = measure(() -> r.getValue().accept(quizPlayService));
+
+            String row = String.format("%-10s %10.1f / %9.1f %10.1f / %9.1f",
+                    r.getKey(), before.checkouts(), before.micros(), after.checkouts(), after.micros());
+            log.info(row);
+
+            // overview kommt aus dem Spielstand im Speicher (ActiveAttemptEngine) -> 0
+            assertTrue(after.checkouts() <= 1.0, "höchstens ein Checkout pro Request: " + row);
+            assertTrue(before.checkouts() >= after.checkouts(), row);
+        }
+    }
+
+    private Measurement measure(Runnable request) {
+        // Warmup
+        for (int i = 0; i < ITERATIONS / 10; i++) request.run();
+
+        double acquiredBefore = acquisitions();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) request.run();
+        long elapsed = System.nanoTime() - start;
+
+        return new Measurement((acquisitions() - acquiredBefore) / ITERATIONS, elapsed / 1_000.0 / ITERATIONS);
+    }
+
+    private double acquisitions() {
+        Timer acquire = meterRegistry.find("hikaricp.connections.acquire").timer();
+        return acquire == null ? 0 : acquire.count();
+    }
+
+    private record Measurement(double checkouts, double micros) {}
+}
@@ -0,0 +1,50 @@
+package de.quizapp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Top-K pro Quiz: begrenzt auf K, ein Eintrag pro Benutzer, Gleichstand -> schneller vorne.
+ */
+class QuizTopKTest {
+
+    private final Instant t0 = Instant.parse("2026-03-10T12:00:00Z");
+
+    @Test
+    void keepsBestResultPerUserAndOnlyTopK() {
+        QuizTopK top = new QuizTopK(3);
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        UUID carol = UUID.randomUUID();
+        UUID dave = UUID.randomUUID();
+
+        top.offer(entry(alice, 8, 60_000L, 0));
+        top.offer(entry(bob, 8, 45_000L, 1));   // gleich viele richtig, schneller -> vor Alice
+        top.offer(entry(carol, 5, 10_000L, 2));
+        top.offer(entry(dave, 4, 1_000L, 3));   // Liste voll, schwächer als Carol -> fliegt raus
+        assertEquals(List.of(bob, alice, carol), users(top.ranked()));
+
+        top.offer(entry(alice, 7, 1_000L, 4));  // schlechter als Alices bestes -> ignoriert
+        top.offer(entry(dave, 6, null, 5));     // Dauer unbekannt, aber mehr richtig -> verdrängt Carol
+        assertEquals(List.of(bob, alice, dave), users(top.ranked()));
+        assertEquals(8, top.ranked().get(1).correctCount());
+
+        QuizTopK.Entry better = entry(carol, 9, 90_000L, 6);
+        top.offer(better);
+        assertEquals(List.of(carol, bob, alice), users(top.ranked()));
+        assertTrue(top.contains(better.attemptId()));
+    }
+
+    private QuizTopK.Entry entry(UUID userId, int correct, Long durationMillis, int minute) {
+        return new QuizTopK.Entry(UUID.randomUUID(), userId, correct, 10, durationMillis, t0.plusSeconds(60L * minute));
+    }
+
+    private static List<UUID> users(List<QuizTopK.Entry> entries) {
+        return entries.stream().map(QuizTopK.Entry::userId).toList();
+    }
+}
@@ -0,0 +1,80 @@
+package de.quizapp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Skip-List gegen eine sortierte Referenzliste: zufällige Einfügungen, Punkte-Änderungen und Entfernungen.
+ */
+class RankedSkipListTest {
+
+    private static final Comparator<Map.Entry<UUID, Long>> ORDER =
+            Map.Entry.<UUID, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey());
+
+    @Test
+    void ranksAndRangesMatchSortedReference() {
+        Random random = new Random(42);
+        RankedSkipList list = new RankedSkipList();
+        Map<UUID, Long> reference = new HashMap<>();
+
+        for (int i = 0; i < 2_000; i++) {
+            UUID id = UUID.randomUUID();
+            long points = random.nextInt(50); // viele Gleichstände
+            list.insert(id, points);
+            reference.put(id, points);
+        }
+
+        List<UUID> ids = new ArrayList<>(reference.keySet());
+        for (int i = 0; i < 5_000; i++) {
+            UUID id = ids.get(random.nextInt(ids.size()));
+            Long old = reference.get(id);
+            if (old == null) continue;
+            assertTrue(list.remove(id, old));
+            if (random.nextInt(10) == 0) {
+                reference.remove(id);
+            } else {
+                long points = old + random.nextInt(3);
+                list.insert(id, points);
+                reference.put(id, points);
+            }
+        }
+
+        List<Map.Entry<UUID, Long>> sorted = reference.entrySet().stream().sorted(ORDER).toList();
+        assertEquals(sorted.size(), list.size());
+
+        for (int rank = 1; rank <= sorted.size(); rank++) {
+            Map.Entry<UUID, Long> e = sorted.get(rank - 1);
+            assertEquals(rank, list.rank(e.getKey(), e.getValue()));
+        }
+
+        List<RankedSkipList.Entry> all = list.range(1, sorted.size());
+        assertEquals(sorted.stream().map(Map.Entry::getKey).toList(), all.stream().map(RankedSkipList.Entry::userId).toList());
+
+        List<RankedSkipList.Entry> middle = list.range(100, 7);
+        assertEquals(7, middle.size());
+        assertEquals(100, middle.get(0).rank());
+        assertEquals(sorted.get(99).getKey(), middle.get(0).userId());
+    }
+
+    @Test
+    void unknownEntriesAndOutOfRangeAreEmpty() {
+        RankedSkipList list = new RankedSkipList();
+        UUID id = UUID.randomUUID();
+        list.insert(id, 5);
+
+        assertEquals(0, list.rank(UUID.randomUUID(), 5));
+        assertEquals(0, list.rank(id, 6), "Punkte gehören zum Schlüssel");
+        assertFalse(list.remove(id, 4));
+        assertTrue(list.range(2, 10).isEmpty());
+        assertEquals(1, list.range(1, 10).size());
+    }
+}
@@ -0,0 +1,160 @@
+package de.quizapp.service;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Circuit Breaker + Bulkhead gegen einen lokalen Supabase-Stand-in, der Latenz und Fehler injiziert.
+ */
+class SupabaseClientResilienceTest {
+
+    private HttpServer standIn;
+    private ExecutorService standInThreads;
+
+    private volatile int status = 200;
+    private volatile long latencyMillis = 0;
+    private final AtomicInteger requestsSeen = new AtomicInteger();
+
+    private SimpleMeterRegistry registry;
+    private SupabaseResilience resilience;
+    private SupabaseClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        standInThreads = Executors.newCachedThreadPool();
+        standIn = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        standIn.setExecutor(standInThreads);
+        standIn.createContext("/auth/v1/", exchange -> {
+            requestsSeen.incrementAndGet();
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        standIn.start();
+
+        registry = new SimpleMeterRegistry();
+        // Fenster 4, ab 4 Calls, 50 % Fehler -> OPEN für 300 ms, 1 Probe; Bulkhead: max 2 parallel, kein Warten
+        resilience = new SupabaseResilience(registry, 4, 4, 50, Duration.ofMillis(300), 1,
+                Duration.ZERO, 2, 2, 2);
+        client = new SupabaseClient("http://127.0.0.1:" + standIn.getAddress().getPort(), "key", registry, resilience,
+                Duration.ofMillis(500), Duration.ofMillis(400), Duration.ofMillis(500), 10, Duration.ofSeconds(30));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.close();
+        standIn.stop(0);
+        standInThreads.shutdownNow();
+    }
+
+    @Test
+    void opensAfterServerErrorsFailsFastAndClosesAfterSuccessfulProbe() throws Exception {
+        status = 503;
+        for (int i = 0; i < 4; i++) {
+            assertThrows(HttpServerErrorException.class, this::adminWrite);
+        }
+        assertEquals(SupabaseResilience.State.OPEN, resilience.state(SupabaseOperation.ADMIN_WRITE));
+
+        int seenBefore = requestsSeen.get();
+        SupabaseUnavailableException rejected = assertThrows(SupabaseUnavailableException.class, this::adminWrite);
+        assertTrue(rejected.getRetryAfterSeconds() >= 1);
+        assertEquals(seenBefore, requestsSeen.get(), "offener Circuit darf Supabase nicht mehr erreichen");
+
+        // andere Operationsklassen sind nicht betroffen
+        assertEquals(SupabaseResilience.State.CLOSED, resilience.state(SupabaseOperation.TOKEN_VALIDATION));
+
+        status = 200;
+        Thread.sleep(350);
+        adminWrite(); // Half-Open-Probe
+        assertEquals(SupabaseResilience.State.CLOSED, resilience.state(SupabaseOperation.ADMIN_WRITE));
+        assertEquals(1.0, registry.get("supabase.circuit.transitions")
+                .tag("operation", "admin_write").tag("to", "closed").counter().count());
+    }
+
+    @Test
+    void clientErrorsDoNotTripTheCircuit() {
+        status = 400;
+        for (int i = 0; i < 8; i++) {
+            assertThrows(RuntimeException.class, this::passwordGrant);
+        }
+        assertEquals(SupabaseResilience.State.CLOSED, resilience.state(SupabaseOperation.PASSWORD_GRANT));
+    }
+
+    @Test
+    void readTimeoutsCountAsFailures() {
+        latencyMillis = 600; // > read-timeout 400 ms
+        for (int i = 0; i < 4; i++) {
+            assertThrows(ResourceAccessException.class, this::passwordGrant);
+        }
+        assertEquals(SupabaseResilience.State.OPEN, resilience.state(SupabaseOperation.PASSWORD_GRANT));
+    }
+
+    @Test
+    void bulkheadShedsLoadBeyondMaxConcurrent() throws Exception {
+        latencyMillis = 300;
+        ExecutorService callers = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<?>> calls = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                calls.add(callers.submit(this::adminWrite));
+            }
+
+            int ok = 0;
+            int shed = 0;
+            for (Future<?> call : calls) {
+                try {
+                    call.get();
+                    ok++;
+                } catch (ExecutionException e) {
+                    assertInstanceOf(SupabaseUnavailableException.class, e.getCause());
+                    shed++;
+                }
+            }
+
+            assertTrue(ok <= 2, "max. 2 Calls gleichzeitig erlaubt, waren " + ok);
+            assertEquals(6, ok + shed);
+            assertTrue(requestsSeen.get() <= 2);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    private void adminWrite() {
+        client.admin(SupabaseOperation.ADMIN_WRITE, HttpMethod.PUT, "admin.users.update", "/auth/v1/admin/users/{id}", "x")
+                .body("{}")
+                .retrieve()
+                .toBodilessEntity();
+    }
+
+    private void passwordGrant() {
+        client.admin(SupabaseOperation.PASSWORD_GRANT, HttpMethod.POST, "auth.token", "/auth/v1/token?grant_type=password")
+                .body("{}")
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
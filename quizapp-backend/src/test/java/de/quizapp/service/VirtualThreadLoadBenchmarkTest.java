@@ -0,0 +1,171 @@
+package de.quizapp.service;
+
+import com.sun.net.httpserver.HttpServer;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Lastvergleich Plattform- vs. Virtual Threads für den blockierenden Request-Pfad:
+ * Supabase-Call (lokaler Stub mit Latenz) + JDBC-Query über Hikari.
+ * 2.000 gleichzeitige Spieler mit je 5 Requests; Plattform-Variante = Tomcat-Default (200 Threads).
+ *
+ * Ausführen: mvn test -Pbenchmark   (Pinning wird dort über -Djdk.tracePinnedThreads=short gemeldet)
+ */
+@Tag("benchmark")
+class VirtualThreadLoadBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadLoadBenchmarkTest.class);
+
+    private static final int PLAYERS = 2_000;
+    private static final int REQUESTS_PER_PLAYER = 5;
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final long SUPABASE_LATENCY_MILLIS = 20;
+
+    private static HttpServer supabaseStub;
+    private static ExecutorService stubThreads;
+    private static HikariDataSource dataSource;
+    private static SupabaseClient client;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        // JDK-HttpServer schließt sonst ab 200 Idle-Keep-Alive-Verbindungen -> NoHttpResponse im Client
+        System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(PLAYERS * 2));
+        stubThreads = Executors.newVirtualThreadPerTaskExecutor();
+        supabaseStub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4_096);
+        supabaseStub.setExecutor(stubThreads);
+        supabaseStub.createContext("/auth/v1/user", exchange -> {
+            try {
+                Thread.sleep(SUPABASE_LATENCY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"id\":\"u\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        supabaseStub.start();
+
+        HikariConfig hikari = new HikariConfig();
+        hikari.setJdbcUrl("jdbc:h2:mem:vt-bench;DB_CLOSE_DELAY=-1");
+        hikari.setMaximumPoolSize(20);
+        hikari.setConnectionTimeout(30_000);
+        dataSource = new HikariDataSource(hikari);
+        try (Connection c = dataSource.getConnection()) {
+            c.createStatement().execute("create table attempts (id int primary key, score int)");
+            c.createStatement().execute("insert into attempts select x, x % 10 from system_range(1, 1000)");
+        }
+
+        // Pools/Bulkhead groß genug, dass nur das Threading-Modell den Unterschied macht
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SupabaseResilience resilience = new SupabaseResilience(registry, 100, 100, 50, Duration.ofSeconds(10), 3,
+                Duration.ofSeconds(10), PLAYERS, PLAYERS, PLAYERS);
+        client = new SupabaseClient("http://127.0.0.1:" + supabaseStub.getAddress().getPort(), "key", registry, resilience,
+                Duration.ofSeconds(5), Duration.ofSeconds(30), Duration.ofSeconds(30), PLAYERS, Duration.ofSeconds(30));
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        client.close();
+        dataSource.close();
+        supabaseStub.stop(0);
+        stubThreads.shutdownNow();
+    }
+
+    @Test
+    void platformVsVirtualThreadsAt2kConcurrentPlayers() throws Exception {
+        // Warmup (JIT, HTTP- und JDBC-Pool)
+        run(() -> Executors.newFixedThreadPool(TOMCAT_MAX_THREADS), 200);
+
+        Result platform = run(() -> Executors.newFixedThreadPool(TOMCAT_MAX_THREADS), PLAYERS);
+        Result virtual = run(Executors::newVirtualThreadPerTaskExecutor, PLAYERS);
+
+        log.info(String.format("%-10s %10s %12s %14s %14s", "Modus", "Dauer ms", "Requests/s", "p50 Spieler ms", "p99 Spieler ms"));
+        String platformRow = row("platform", platform);
+        String virtualRow = row("virtual", virtual);
+        log.info(platformRow);
+        log.info(virtualRow);
+
+        assertEquals(PLAYERS * REQUESTS_PER_PLAYER, platform.requests(), platformRow);
+        assertEquals(PLAYERS * REQUESTS_PER_PLAYER, virtual.requests(), virtualRow);
+    }
+
+    private static Result run(Supplier<ExecutorService> executorFactory, int players) throws Exception {
+        ExecutorService executor = executorFactory.get();
+        try {
+            long start = System.nanoTime();
+            List<Future<Long>> sessions = new ArrayList<>(players);
+            for (int p = 0; p < players; p++) {
+                int player = p;
+                // Spieldauer ab Ankunft -> Wartezeit in der Thread-Queue zählt mit
+                sessions.add(executor.submit(() -> {
+                    for (int r = 0; r < REQUESTS_PER_PLAYER; r++) request(player);
+                    return System.nanoTime() - start;
+                }));
+            }
+
+            long[] sessionNanos = new long[players];
+            for (int i = 0; i < players; i++) sessionNanos[i] = sessions.get(i).get(2, TimeUnit.MINUTES);
+            long elapsed = System.nanoTime() - start;
+
+            Arrays.sort(sessionNanos);
+            return new Result(elapsed, players * REQUESTS_PER_PLAYER,
+                    sessionNanos[players / 2], sessionNanos[(int) (players * 0.99) - 1]);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /** Ein Play-Request: Token bei Supabase prüfen + Attempt lesen. */
+    private static void request(int player) throws Exception {
+        client.request(SupabaseOperation.TOKEN_VALIDATION, HttpMethod.GET, "auth.user", "/auth/v1/user")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer t")
+                .retrieve()
+                .toBodilessEntity();
+
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement("select score from attempts where id = ?")) {
+            ps.setInt(1, player % 1000 + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+            }
+        }
+    }
+
+    private static String row(String mode, Result r) {
+        return String.format("%-10s %10d %12.0f %14d %14d",
+                mode,
+                r.elapsedNanos() / 1_000_000,
+                r.requests() / (r.elapsedNanos() / 1e9),
+                r.p50Nanos() / 1_000_000,
+                r.p99Nanos() / 1_000_000);
+    }
+
+    private record Result(long elapsedNanos, int requests, long p50Nanos, long p99Nanos) {}
+}